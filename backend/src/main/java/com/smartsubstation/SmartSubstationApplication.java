@@ -3,6 +3,7 @@ package com.smartsubstation;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 智能变电站巡检系统 - 启动类
@@ -12,6 +13,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 @SpringBootApplication
 @MapperScan("com.smartsubstation.mapper")
+@EnableScheduling
 public class SmartSubstationApplication {
 
     public static void main(String[] args) {
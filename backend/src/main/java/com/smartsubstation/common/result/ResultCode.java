@@ -18,6 +18,7 @@ public enum ResultCode {
     NOT_FOUND(404, "请求资源不存在"),
     METHOD_NOT_ALLOWED(405, "请求方法不支持"),
     CONFLICT(409, "资源冲突"),
+    TOO_MANY_REQUESTS(429, "系统繁忙，请稍后再试"),
 
     // 服务器错误 5xx
     INTERNAL_SERVER_ERROR(500, "服务器内部错误"),
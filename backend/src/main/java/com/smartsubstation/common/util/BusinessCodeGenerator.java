@@ -0,0 +1,253 @@
+package com.smartsubstation.common.util;
+
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 业务编码生成器(雪花算法)
+ *
+ * 41位毫秒时间 + 10位节点ID + 12位序列，单个AtomicLong上CAS生成，无锁、无IO。
+ * 节点ID优先取配置，未配置时在Redis中租用，保证多节点不重复；
+ * 同一毫秒序列用尽或时钟回拨时沿用逻辑时间继续递增，不会产生重复。
+ *
+ * 租约在独立的单线程上续期，不受其他定时任务阻塞；本地记录租约有效期(早于Redis中的过期时间)，
+ * 租约过期或丢失后不再使用原节点ID，并持续重新租用。
+ * 租用模式下Redis是发号的硬依赖：租约失效期间，配置了备用节点ID(business-code.fallback-node-id)时
+ * 改用备用节点ID发号，否则拒绝发号。备用节点ID取自保留区间(960-1023)，不参与租用，由运维保证各实例不重复
+ */
+@Slf4j
+@Component
+public class BusinessCodeGenerator {
+
+    /**
+     * 编码前缀
+     */
+    @Getter
+    public enum CodeType {
+        DEVICE("DEV"),
+        DEFECT("DEF"),
+        RECORD("REC"),
+        FILE("FILE");
+
+        private final String prefix;
+
+        CodeType(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * 起始时间 2024-01-01 00:00:00 UTC
+     */
+    private static final long EPOCH = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    /**
+     * 备用节点ID保留区间起点，租用只在此之前的区间内进行
+     */
+    private static final long FALLBACK_NODE_MIN = 960;
+
+    private static final String NODE_LEASE_PREFIX = "business-code:node:";
+    private static final Duration NODE_LEASE_TTL = Duration.ofSeconds(60);
+    private static final Duration RENEW_INTERVAL = Duration.ofSeconds(20);
+    private static final Duration RETRY_INTERVAL = Duration.ofSeconds(3);
+
+    /**
+     * 本地有效期比Redis过期时间提前的余量，覆盖两侧计时误差
+     */
+    private static final Duration LEASE_SAFETY_MARGIN = Duration.ofSeconds(5);
+
+    /**
+     * 仍由本实例持有时续期
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long configuredNodeId;
+    private final long fallbackNodeId;
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID();
+
+    /**
+     * 逻辑时间(高位) + 序列(低12位)
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    private volatile long nodeId;
+
+    /**
+     * 租约本地有效截止时间(System.nanoTime)，租用模式下超过即停止发号
+     */
+    private volatile long leaseValidUntil;
+
+    private volatile boolean leased;
+
+    private ScheduledExecutorService leaseExecutor;
+
+    public BusinessCodeGenerator(StringRedisTemplate stringRedisTemplate,
+                                 @Value("${business-code.node-id:-1}") long configuredNodeId,
+                                 @Value("${business-code.fallback-node-id:-1}") long fallbackNodeId) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.configuredNodeId = configuredNodeId;
+        this.fallbackNodeId = fallbackNodeId;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId >= 0) {
+            if (configuredNodeId > MAX_NODE_ID) {
+                throw new IllegalStateException("business-code.node-id 取值范围为 0-" + MAX_NODE_ID);
+            }
+            nodeId = configuredNodeId;
+            log.info("业务编码节点ID(配置): {}", nodeId);
+            return;
+        }
+        if (fallbackNodeId >= 0 && (fallbackNodeId < FALLBACK_NODE_MIN || fallbackNodeId > MAX_NODE_ID)) {
+            throw new IllegalStateException("business-code.fallback-node-id 取值范围为 "
+                    + FALLBACK_NODE_MIN + "-" + MAX_NODE_ID);
+        }
+        leaseExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "business-code-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleLease(maintainLease());
+    }
+
+    /**
+     * 生成带前缀的业务编码
+     */
+    public String next(CodeType type) {
+        return type.getPrefix() + nextId();
+    }
+
+    /**
+     * 生成64位唯一ID
+     *
+     * @throws BusinessException 租用模式下未持有有效租约且未配置备用节点ID时
+     */
+    public long nextId() {
+        long node = nodeId;
+        if (configuredNodeId < 0 && !leaseValid()) {
+            if (fallbackNodeId < 0) {
+                throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "业务编码节点ID租约无效，请稍后重试");
+            }
+            node = fallbackNodeId;
+        }
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            // 进入新毫秒则序列归零；否则序列加一，溢出时自然进位到下一毫秒
+            long next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | (node << SEQUENCE_BITS)
+                        | (next & ((1L << SEQUENCE_BITS) - 1));
+            }
+        }
+    }
+
+    private boolean leaseValid() {
+        return leased && System.nanoTime() - leaseValidUntil < 0;
+    }
+
+    private void scheduleLease(Duration delay) {
+        leaseExecutor.schedule(() -> {
+            Duration next = RETRY_INTERVAL;
+            try {
+                next = maintainLease();
+            } finally {
+                if (!leaseExecutor.isShutdown()) {
+                    scheduleLease(next);
+                }
+            }
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 续租或重新租用，返回下次执行的间隔
+     */
+    Duration maintainLease() {
+        try {
+            if (leased && leaseValid()) {
+                long start = System.nanoTime();
+                Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(NODE_LEASE_PREFIX + nodeId),
+                        instanceId, String.valueOf(NODE_LEASE_TTL.toMillis()));
+                if (renewed != null && renewed == 1L) {
+                    leaseValidUntil = start + NODE_LEASE_TTL.minus(LEASE_SAFETY_MARGIN).toNanos();
+                    return RENEW_INTERVAL;
+                }
+                log.warn("业务编码节点ID租约丢失: nodeId={}", nodeId);
+            } else if (leased) {
+                log.warn("业务编码节点ID租约已过期未续上: nodeId={}", nodeId);
+            }
+            leased = false;
+            acquireLease();
+            return RENEW_INTERVAL;
+        } catch (Exception e) {
+            log.warn("业务编码节点ID续租失败: nodeId={}, leased={}, error={}", nodeId, leaseValid(), e.getMessage());
+            return RETRY_INTERVAL;
+        }
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        if (leaseExecutor != null) {
+            leaseExecutor.shutdownNow();
+        }
+        if (!leased) {
+            return;
+        }
+        leased = false;
+        String key = NODE_LEASE_PREFIX + nodeId;
+        try {
+            if (instanceId.equals(stringRedisTemplate.opsForValue().get(key))) {
+                stringRedisTemplate.delete(key);
+            }
+        } catch (Exception e) {
+            log.warn("业务编码节点ID释放失败: nodeId={}, error={}", nodeId, e.getMessage());
+        }
+    }
+
+    private void acquireLease() {
+        long start = ThreadLocalRandom.current().nextLong(FALLBACK_NODE_MIN);
+        for (long i = 0; i < FALLBACK_NODE_MIN; i++) {
+            long candidate = (start + i) % FALLBACK_NODE_MIN;
+            long requestedAt = System.nanoTime();
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(NODE_LEASE_PREFIX + candidate, instanceId, NODE_LEASE_TTL);
+            if (Boolean.TRUE.equals(acquired)) {
+                nodeId = candidate;
+                leaseValidUntil = requestedAt + NODE_LEASE_TTL.minus(LEASE_SAFETY_MARGIN).toNanos();
+                leased = true;
+                log.info("业务编码节点ID(租用): {}", nodeId);
+                return;
+            }
+        }
+        throw new IllegalStateException("没有可用的业务编码节点ID");
+    }
+}
@@ -0,0 +1,37 @@
+package com.smartsubstation.common.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.StringUtils;
+
+/**
+ * IP工具类
+ */
+public final class IpUtil {
+
+    private static final String UNKNOWN = "unknown";
+    private static final int MAX_LENGTH = 50;
+
+    private IpUtil() {
+    }
+
+    /**
+     * 获取客户端真实IP(兼容反向代理)
+     */
+    public static String getClientIp(HttpServletRequest request) {
+        String ip = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(ip) && !UNKNOWN.equalsIgnoreCase(ip)) {
+            // 多级代理时取第一个
+            int idx = ip.indexOf(',');
+            ip = idx > 0 ? ip.substring(0, idx).trim() : ip.trim();
+        } else {
+            ip = request.getHeader("X-Real-IP");
+            if (!StringUtils.hasText(ip) || UNKNOWN.equalsIgnoreCase(ip)) {
+                ip = request.getRemoteAddr();
+            }
+        }
+        if (ip != null && ip.length() > MAX_LENGTH) {
+            ip = ip.substring(0, MAX_LENGTH);
+        }
+        return ip;
+    }
+}
@@ -0,0 +1,58 @@
+package com.smartsubstation.common.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * 已验签的Token声明
+ *
+ * 一次解析后在过滤器和服务间复用，避免重复验签和反序列化
+ */
+@Getter
+@AllArgsConstructor
+public final class JwtClaims {
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 角色ID
+     */
+    private final Long roleId;
+
+    /**
+     * Token代数(用于吊销)，旧Token无此声明时为0
+     */
+    private final long generation;
+
+    /**
+     * Token ID(jti，用于吊销单个Token)，旧Token无此声明时为null
+     */
+    private final String tokenId;
+
+    /**
+     * 签发时间
+     */
+    private final Date issuedAt;
+
+    /**
+     * 过期时间
+     */
+    private final Date expiration;
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+}
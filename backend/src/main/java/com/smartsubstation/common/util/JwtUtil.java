@@ -1,17 +1,26 @@
 package com.smartsubstation.common.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 /**
@@ -30,24 +39,117 @@ public class JwtUtil {
     private Long expiration;
 
     /**
-     * 生成密钥
+     * 验签结果缓存上限
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.claims-cache-size:10000}")
+    private Integer claimsCacheSize;
+
+    private static final String GENERATION_CLAIM = "gen";
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    /**
+     * 已验签Token缓存: Token哈希 -> 声明，读取无锁，条目在Token自身过期时间后失效；
+     * 超出上限时先清除已过期条目，仍超出再随机淘汰
+     */
+    private Map<String, JwtClaims> claimsCache;
+
+    /**
+     * 同一时间只有一个线程执行清理
+     */
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    /**
+     * 启动时构建密钥和解析器
+     */
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.claimsCache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 计算Token哈希(SHA-256)，用作验签缓存的键
+     */
+    public static String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    /**
+     * 解析并验证Token，同一Token在有效期内只验签一次
+     *
+     * @throws io.jsonwebtoken.JwtException Token无效或已过期
+     */
+    public JwtClaims parseToken(String token) {
+        String key = hashToken(token);
+        JwtClaims cached = claimsCache.get(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            claimsCache.remove(key, cached);
+        }
+
+        Claims claims = extractAllClaims(token);
+        Long generation = claims.get(GENERATION_CLAIM, Long.class);
+        JwtClaims parsed = new JwtClaims(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                claims.get("roleId", Long.class),
+                generation == null ? 0L : generation,
+                claims.getId(),
+                claims.getIssuedAt(),
+                claims.getExpiration()
+        );
+        claimsCache.put(key, parsed);
+        if (claimsCache.size() > claimsCacheSize) {
+            sweepClaimsCache();
+        }
+        return parsed;
+    }
+
+    /**
+     * 清除已过期条目，仍超出上限时淘汰多余条目(留出十分之一余量，避免每次写入都清理)
+     */
+    private void sweepClaimsCache() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            claimsCache.values().removeIf(JwtClaims::isExpired);
+            int excess = claimsCache.size() - claimsCacheSize * 9 / 10;
+            Iterator<String> keys = claimsCache.keySet().iterator();
+            while (excess-- > 0 && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
     }
 
     /**
      * 从Token中提取用户名
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).getUsername();
     }
 
     /**
      * 从Token中提取过期时间
      */
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return parseToken(token).getExpiration();
     }
 
     /**
@@ -62,27 +164,21 @@ public class JwtUtil {
      * 提取所有Claims
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    /**
-     * 检查Token是否过期
-     */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     /**
      * 生成Token
+     *
+     * @param generation 用户当前Token代数
      */
-    public String generateToken(String username, Long userId, Long roleId) {
+    public String generateToken(String username, Long userId, Long roleId, long generation) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("roleId", roleId);
+        claims.put(GENERATION_CLAIM, generation);
         return createToken(claims, username);
     }
 
@@ -93,9 +189,10 @@ public class JwtUtil {
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
+                .id(UUID.randomUUID().toString().replace("-", ""))
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration * 1000))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -103,31 +200,21 @@ public class JwtUtil {
      * 验证Token
      */
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        JwtClaims claims = parseToken(token);
+        return claims.getUsername().equals(username) && !claims.isExpired();
     }
 
     /**
      * 从Token中获取用户ID
      */
     public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("userId", Long.class);
+        return parseToken(token).getUserId();
     }
 
     /**
      * 从Token中获取角色ID
      */
     public Long extractRoleId(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("roleId", Long.class);
-    }
-
-    /**
-     * 刷新Token
-     */
-    public String refreshToken(String token) {
-        final Claims claims = extractAllClaims(token);
-        return createToken(new HashMap<>(claims), claims.getSubject());
+        return parseToken(token).getRoleId();
     }
 }
@@ -0,0 +1,55 @@
+package com.smartsubstation.common.util;
+
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 分页游标(排序键 + 主键)
+ *
+ * 对客户端不透明，编码为URL安全的Base64
+ */
+@Getter
+@AllArgsConstructor
+public final class PageCursor {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 排序键(无排序键时为null，仅按主键)
+     */
+    private final String sortValue;
+
+    /**
+     * 主键
+     */
+    private final Long id;
+
+    public String encode() {
+        String raw = sortValue == null ? String.valueOf(id) : sortValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，空串表示第一页(返回null)
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            if (idx < 0) {
+                return new PageCursor(null, Long.valueOf(raw));
+            }
+            return new PageCursor(raw.substring(0, idx), Long.valueOf(raw.substring(idx + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "无效的分页游标");
+        }
+    }
+}
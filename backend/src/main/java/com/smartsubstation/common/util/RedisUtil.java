@@ -0,0 +1,64 @@
+package com.smartsubstation.common.util;
+
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.time.Duration;
+
+/**
+ * Redis工具类
+ */
+public final class RedisUtil {
+
+    private RedisUtil() {
+    }
+
+    /**
+     * 创建独立连接工厂(已启动)，只替换命令超时
+     *
+     * 拓扑(单机/哨兵/集群)、SSL、认证信息和客户端选项全部沿用自动配置的连接工厂，
+     * 共用客户端资源(事件循环)；调用方负责destroy
+     */
+    public static LettuceConnectionFactory dedicatedConnectionFactory(LettuceConnectionFactory shared, Duration commandTimeout) {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(topology(shared),
+                clientConfiguration(shared.getClientConfiguration(), commandTimeout));
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    private static RedisConfiguration topology(LettuceConnectionFactory shared) {
+        if (shared.getClusterConfiguration() != null) {
+            return shared.getClusterConfiguration();
+        }
+        if (shared.getSentinelConfiguration() != null) {
+            return shared.getSentinelConfiguration();
+        }
+        return shared.getStandaloneConfiguration();
+    }
+
+    private static LettuceClientConfiguration clientConfiguration(LettuceClientConfiguration shared, Duration commandTimeout) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder();
+        if (shared.isUseSsl()) {
+            LettuceClientConfiguration.LettuceSslClientConfigurationBuilder ssl = builder.useSsl();
+            if (!shared.isVerifyPeer()) {
+                ssl.disablePeerVerification();
+            }
+            if (shared.isStartTls()) {
+                ssl.startTls();
+            }
+            builder = ssl.and();
+        }
+        shared.getClientResources().ifPresent(builder::clientResources);
+        shared.getClientOptions().ifPresent(builder::clientOptions);
+        shared.getClientName().ifPresent(builder::clientName);
+        shared.getReadFrom().ifPresent(builder::readFrom);
+        shared.getRedisCredentialsProviderFactory().ifPresent(builder::redisCredentialsProviderFactory);
+        return builder
+                .shutdownTimeout(shared.getShutdownTimeout())
+                .shutdownQuietPeriod(shared.getShutdownQuietPeriod())
+                .commandTimeout(commandTimeout)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.smartsubstation.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 异步线程池配置
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * 密码校验线程池
+     *
+     * BCrypt为CPU密集计算，线程数按CPU核数设置；队列满时直接拒绝，由调用方返回繁忙
+     */
+    @Bean("passwordVerifyExecutor")
+    public ThreadPoolTaskExecutor passwordVerifyExecutor(
+            @Value("${auth.password-verify.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${auth.password-verify.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pwd-verify-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 二维码渲染线程池
+     *
+     * 批量生成时并行渲染，并行度有界，不占用公共ForkJoinPool
+     */
+    @Bean(name = "qrRenderPool", destroyMethod = "shutdown")
+    public ForkJoinPool qrRenderPool(
+            @Value("${device.qrcode.render-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads) {
+        return new ForkJoinPool(threads);
+    }
+
+    /**
+     * 近似总数后台计数线程池
+     *
+     * 队列满时拒绝，下次请求会再次触发
+     */
+    @Bean("pageCountExecutor")
+    public ThreadPoolTaskExecutor pageCountExecutor(
+            @Value("${page.approx-total.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("page-count-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 图片派生(缩略图/预览图)线程池
+     *
+     * 解码大图占用内存和CPU，线程数和队列都有界；队列满时拒绝，由定时补偿扫描重新提交
+     */
+    @Bean("thumbnailExecutor")
+    public ThreadPoolTaskExecutor thumbnailExecutor(
+            @Value("${file.thumbnail.threads:2}") int threads,
+            @Value("${file.thumbnail.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -5,6 +5,7 @@ import com.smartsubstation.security.JwtAuthenticationEntryPoint;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -106,6 +107,12 @@ public class SecurityConfig {
                         // Swagger文档接口（开发环境）
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**").permitAll()
 
+                        // 设备二维码图片(标签打印、<img>直接引用)
+                        .requestMatchers("/qrcode/**").permitAll()
+
+                        // 上传的图片(<img>直接引用，路径为内容哈希)
+                        .requestMatchers(HttpMethod.GET, "/files/*/*/*").permitAll()
+
                         // 健康检查
                         .requestMatchers("/actuator/health").permitAll()
 
@@ -1,11 +1,13 @@
 package com.smartsubstation.controller;
 
 import com.smartsubstation.common.result.Result;
+import com.smartsubstation.common.util.IpUtil;
 import com.smartsubstation.dto.LoginRequest;
 import com.smartsubstation.dto.LoginResponse;
 import com.smartsubstation.service.IAuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.util.StringUtils;
@@ -29,8 +31,8 @@ public class AuthController {
      */
     @Operation(summary = "用户登录")
     @PostMapping("/login")
-    public Result<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        LoginResponse response = authService.login(request);
+    public Result<LoginResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        LoginResponse response = authService.login(request, IpUtil.getClientIp(httpRequest));
         return Result.success(response);
     }
 
@@ -45,6 +47,17 @@ public class AuthController {
         return Result.success();
     }
 
+    /**
+     * 退出全部设备
+     */
+    @Operation(summary = "退出全部设备")
+    @PostMapping("/logout-all")
+    public Result<Void> logoutAll(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        String token = extractToken(authorization);
+        authService.logoutAll(token);
+        return Result.success();
+    }
+
     /**
      * 刷新Token
      */
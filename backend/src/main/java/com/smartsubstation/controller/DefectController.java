@@ -4,7 +4,9 @@ import com.smartsubstation.common.result.Result;
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
 import com.smartsubstation.dto.DefectReportRequest;
+import com.smartsubstation.dto.DefectReportResult;
 import com.smartsubstation.service.IDefectService;
+import com.smartsubstation.service.support.IdempotencyStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -21,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 public class DefectController {
 
     private final IDefectService defectService;
+    private final IdempotencyStore idempotencyStore;
 
     /**
      * 分页查询缺陷
@@ -41,13 +44,16 @@ public class DefectController {
     }
 
     /**
-     * 上报缺陷
+     * 上报缺陷(携带Idempotency-Key时重放返回首次结果)
      */
     @Operation(summary = "上报缺陷")
     @PostMapping
-    public Result<Long> report(@Valid @RequestBody DefectReportRequest request) {
-        Long id = defectService.report(request);
-        return Result.success(id);
+    public Result<DefectReportResult> report(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody DefectReportRequest request) {
+        DefectReportResult result = idempotencyStore.execute("defect", idempotencyKey, DefectReportResult.class,
+                () -> defectService.report(request));
+        return Result.success(result);
     }
 
     /**
@@ -55,7 +61,7 @@ public class DefectController {
      */
     @Operation(summary = "确认缺陷")
     @PostMapping("/{defectId}/confirm")
-    public Result<Void> confirm(@PathVariable Long defectId) {
+    public Result<Boolean> confirm(@PathVariable Long defectId) {
         return Result.success(defectService.confirm(defectId));
     }
 
@@ -64,7 +70,7 @@ public class DefectController {
      */
     @Operation(summary = "更新缺陷状态")
     @PutMapping("/{defectId}/status")
-    public Result<Void> updateStatus(
+    public Result<Boolean> updateStatus(
             @PathVariable Long defectId,
             @RequestParam String status) {
         return Result.success(defectService.updateStatus(defectId, status));
@@ -75,7 +81,7 @@ public class DefectController {
      */
     @Operation(summary = "完成缺陷处理")
     @PostMapping("/{defectId}/complete")
-    public Result<Void> complete(@PathVariable Long defectId) {
+    public Result<Boolean> complete(@PathVariable Long defectId) {
         return Result.success(defectService.complete(defectId));
     }
 }
@@ -3,13 +3,22 @@ package com.smartsubstation.controller;
 import com.smartsubstation.common.result.Result;
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
+import com.smartsubstation.dto.DeviceImportResult;
 import com.smartsubstation.dto.DeviceSaveRequest;
+import com.smartsubstation.dto.QrCodeBatchRequest;
 import com.smartsubstation.service.IDeviceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * 设备控制器
@@ -64,7 +73,7 @@ public class DeviceController {
      */
     @Operation(summary = "删除设备")
     @DeleteMapping("/{deviceId}")
-    public Result<Void> delete(@PathVariable Long deviceId) {
+    public Result<Boolean> delete(@PathVariable Long deviceId) {
         return Result.success(deviceService.delete(deviceId));
     }
 
@@ -77,4 +86,28 @@ public class DeviceController {
         String qrCodeUrl = deviceService.generateQrCode(deviceId);
         return Result.success(qrCodeUrl);
     }
+
+    /**
+     * 批量导入设备
+     */
+    @Operation(summary = "批量导入设备")
+    @PostMapping("/import")
+    public Result<DeviceImportResult> importDevices(@RequestParam("file") MultipartFile file,
+                                                    @RequestParam Long stationId) {
+        return Result.success(deviceService.importDevices(file, stationId));
+    }
+
+    /**
+     * 批量生成二维码(ZIP流式下载)
+     */
+    @Operation(summary = "批量生成二维码")
+    @PostMapping("/qrcode/batch")
+    public void batchQrCode(@Valid @RequestBody QrCodeBatchRequest request,
+                            HttpServletResponse response) throws IOException {
+        List<Long> deviceIds = deviceService.prepareQrCodeBatch(request.getDeviceIds());
+        String fileName = "qrcode_batch_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) + ".zip";
+        response.setContentType("application/zip");
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName);
+        deviceService.writeQrCodeZip(deviceIds, response.getOutputStream());
+    }
 }
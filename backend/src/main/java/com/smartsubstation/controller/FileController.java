@@ -0,0 +1,139 @@
+package com.smartsubstation.controller;
+
+import com.smartsubstation.common.result.Result;
+import com.smartsubstation.dto.ChunkUploadInitRequest;
+import com.smartsubstation.dto.ChunkUploadStatus;
+import com.smartsubstation.dto.FileBatchUploadResult;
+import com.smartsubstation.dto.FileUploadResult;
+import com.smartsubstation.service.IFileService;
+import com.smartsubstation.service.support.FileSender;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 文件控制器
+ */
+@Tag(name = "文件管理", description = "文件上传与访问")
+@RestController
+@RequestMapping("/files")
+@RequiredArgsConstructor
+public class FileController {
+
+    /**
+     * 分片校验请求头: 分片内容的SHA-256(十六进制)
+     */
+    private static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-Sha256";
+
+    private final IFileService fileService;
+    private final FileSender fileSender;
+
+    /**
+     * 上传图片
+     */
+    @Operation(summary = "上传图片")
+    @PostMapping("/upload/image")
+    public Result<FileUploadResult> uploadImage(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String businessType,
+            @RequestParam(required = false) Long businessId) {
+        return Result.success(fileService.uploadImage(file, businessType, businessId));
+    }
+
+    /**
+     * 批量上传图片
+     */
+    @Operation(summary = "批量上传图片")
+    @PostMapping("/upload/images")
+    public Result<FileBatchUploadResult> uploadImages(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(required = false) String businessType,
+            @RequestParam(required = false) Long businessId) {
+        return Result.success(fileService.uploadImages(files, businessType, businessId));
+    }
+
+    /**
+     * 秒传：返回null时需上传文件内容
+     */
+    @Operation(summary = "按MD5秒传")
+    @PostMapping("/upload/instant")
+    public Result<FileUploadResult> instantUpload(
+            @RequestParam String md5,
+            @RequestParam Long fileSize,
+            @RequestParam String fileName,
+            @RequestParam(required = false) String businessType,
+            @RequestParam(required = false) Long businessId) {
+        return Result.success(fileService.instantUpload(md5, fileSize, fileName, businessType, businessId));
+    }
+
+    /**
+     * 分片上传：初始化
+     *
+     * 离线补传(API 12.4)的大批量照片按分片上传，弱网断线后只需补发缺少的分片
+     */
+    @Operation(summary = "分片上传-初始化")
+    @PostMapping("/chunks")
+    public Result<ChunkUploadStatus> initChunkUpload(@Valid @RequestBody ChunkUploadInitRequest request) {
+        return Result.success(fileService.initChunkUpload(request));
+    }
+
+    /**
+     * 分片上传：上传第index片(请求体为分片原始字节)
+     */
+    @Operation(summary = "分片上传-上传分片")
+    @PutMapping(value = "/chunks/{uploadId}/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Result<ChunkUploadStatus> uploadChunk(@PathVariable String uploadId,
+                                                 @PathVariable int index,
+                                                 @RequestHeader(CHUNK_CHECKSUM_HEADER) String checksum,
+                                                 HttpServletRequest request) throws IOException {
+        return Result.success(fileService.uploadChunk(uploadId, index, checksum, request.getInputStream()));
+    }
+
+    /**
+     * 分片上传：查询已收到的分片
+     */
+    @Operation(summary = "分片上传-查询进度")
+    @GetMapping("/chunks/{uploadId}")
+    public Result<ChunkUploadStatus> getChunkUpload(@PathVariable String uploadId) {
+        return Result.success(fileService.getChunkUpload(uploadId));
+    }
+
+    /**
+     * 分片上传：完成
+     */
+    @Operation(summary = "分片上传-完成")
+    @PostMapping("/chunks/{uploadId}/complete")
+    public Result<FileUploadResult> completeChunkUpload(@PathVariable String uploadId) {
+        return Result.success(fileService.completeChunkUpload(uploadId));
+    }
+
+    /**
+     * 获取文件(file.access-url)
+     *
+     * 路径按内容哈希寻址，内容不变：ETag取文件名中的哈希，按不可变资源长期缓存；支持Range断点续传
+     */
+    @Operation(summary = "获取文件")
+    @GetMapping("/{dir1}/{dir2}/{name:.+}")
+    public void download(@PathVariable String dir1,
+                         @PathVariable String dir2,
+                         @PathVariable String name,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Path file = fileService.locate(dir1 + "/" + dir2 + "/" + name);
+        int dot = name.lastIndexOf('.');
+        String etag = dot < 0 ? name : name.substring(0, dot);
+        MediaType contentType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        fileSender.send(request, response, file, etag, contentType);
+    }
+}
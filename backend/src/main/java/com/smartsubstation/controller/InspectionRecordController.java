@@ -3,8 +3,11 @@ package com.smartsubstation.controller;
 import com.smartsubstation.common.result.Result;
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
+import com.smartsubstation.dto.RecordBatchResult;
 import com.smartsubstation.dto.RecordSubmitRequest;
+import com.smartsubstation.dto.RecordSubmitResult;
 import com.smartsubstation.service.IInspectionRecordService;
+import com.smartsubstation.service.support.IdempotencyStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -23,25 +26,32 @@ import java.util.List;
 public class InspectionRecordController {
 
     private final IInspectionRecordService recordService;
+    private final IdempotencyStore idempotencyStore;
 
     /**
-     * 提交巡检记录
+     * 提交巡检记录(携带Idempotency-Key时重放返回首次结果，仍在异步写入队列中的结果不保存)
      */
     @Operation(summary = "提交巡检记录")
     @PostMapping("/submit")
-    public Result<Long> submit(@Valid @RequestBody RecordSubmitRequest request) {
-        Long id = recordService.submit(request);
-        return Result.success(id);
+    public Result<RecordSubmitResult> submit(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody RecordSubmitRequest request) {
+        RecordSubmitResult result = idempotencyStore.execute("record", idempotencyKey, RecordSubmitResult.class,
+                () -> recordService.submit(request), r -> Boolean.TRUE.equals(r.getPersisted()));
+        return Result.success(result);
     }
 
     /**
-     * 批量提交记录
+     * 批量提交记录(携带Idempotency-Key时重放返回首次结果)
      */
     @Operation(summary = "批量提交记录")
     @PostMapping("/batch")
-    public Result<List<Long>> batchSubmit(@Valid @RequestBody List<RecordSubmitRequest> requests) {
-        List<Long> ids = recordService.batchSubmit(requests);
-        return Result.success(ids);
+    public Result<RecordBatchResult> batchSubmit(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody List<RecordSubmitRequest> requests) {
+        RecordBatchResult result = idempotencyStore.execute("record-batch", idempotencyKey, RecordBatchResult.class,
+                () -> recordService.batchSubmit(requests));
+        return Result.success(result);
     }
 
     /**
@@ -44,8 +44,9 @@ public class InspectionTaskController {
      */
     @Operation(summary = "获取我的任务列表")
     @GetMapping("/my")
-    public Result<PageResult<?>> getMyTasks(PageQuery pageQuery) {
-        return Result.success(taskService.getMyTasks(pageQuery));
+    public Result<PageResult<?>> getMyTasks(PageQuery pageQuery,
+                                            @RequestParam(required = false) String status) {
+        return Result.success(taskService.getMyTasks(pageQuery, status));
     }
 
     /**
@@ -53,7 +54,7 @@ public class InspectionTaskController {
      */
     @Operation(summary = "开始任务")
     @PostMapping("/{taskId}/start")
-    public Result<Void> startTask(@PathVariable Long taskId) {
+    public Result<Boolean> startTask(@PathVariable Long taskId) {
         return Result.success(taskService.startTask(taskId));
     }
 
@@ -62,7 +63,7 @@ public class InspectionTaskController {
      */
     @Operation(summary = "完成任务")
     @PostMapping("/{taskId}/complete")
-    public Result<Void> completeTask(@PathVariable Long taskId) {
+    public Result<Boolean> completeTask(@PathVariable Long taskId) {
         return Result.success(taskService.completeTask(taskId));
     }
 
@@ -71,7 +72,7 @@ public class InspectionTaskController {
      */
     @Operation(summary = "取消任务")
     @PostMapping("/{taskId}/cancel")
-    public Result<Void> cancelTask(@PathVariable Long taskId) {
+    public Result<Boolean> cancelTask(@PathVariable Long taskId) {
         return Result.success(taskService.cancelTask(taskId));
     }
 }
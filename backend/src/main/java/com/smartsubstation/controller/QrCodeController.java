@@ -0,0 +1,48 @@
+package com.smartsubstation.controller;
+
+import com.smartsubstation.service.IDeviceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二维码图片控制器
+ */
+@Tag(name = "二维码", description = "设备二维码图片")
+@RestController
+@RequestMapping("/qrcode")
+@RequiredArgsConstructor
+public class QrCodeController {
+
+    private final IDeviceService deviceService;
+
+    /**
+     * 获取设备二维码图片
+     *
+     * 图片只由二维码内容决定，按不可变资源长期缓存
+     */
+    @Operation(summary = "获取设备二维码图片")
+    @GetMapping("/{code}")
+    public ResponseEntity<byte[]> getQrCode(@PathVariable String code, WebRequest webRequest) {
+        String etag = "\"" + code + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        byte[] png = deviceService.renderQrCode(code);
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .eTag(etag)
+                .body(png);
+    }
+}
@@ -55,7 +55,7 @@ public class SubStationController {
      */
     @Operation(summary = "删除变电站")
     @DeleteMapping("/{stationId}")
-    public Result<Void> delete(@PathVariable Long stationId) {
+    public Result<Boolean> delete(@PathVariable Long stationId) {
         return Result.success(stationService.delete(stationId));
     }
 
@@ -35,7 +35,7 @@ public class SystemConfigController {
      */
     @Operation(summary = "更新配置")
     @PutMapping("/{configKey}")
-    public Result<Void> updateConfig(
+    public Result<Boolean> updateConfig(
             @PathVariable String configKey,
             @RequestParam String configValue) {
         return Result.success(configService.updateConfig(configKey, configValue));
@@ -0,0 +1,44 @@
+package com.smartsubstation.dto;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传初始化请求
+ */
+@Data
+public class ChunkUploadInitRequest {
+
+    @NotBlank(message = "文件名不能为空")
+    private String fileName;
+
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    private Long fileSize;
+
+    /**
+     * 整个文件的MD5(可选)，提供时内容已存在则直接秒传，完成时校验
+     */
+    @Pattern(regexp = "[0-9a-fA-F]{32}", message = "md5格式不正确")
+    private String md5;
+
+    /**
+     * 期望的分片大小(可选)，服务端会限制在允许范围内
+     */
+    private Integer chunkSize;
+
+    private String businessType;
+
+    private Long businessId;
+
+    /**
+     * 离线创建时间，离线补传时填写
+     */
+    private LocalDateTime offlineCreateTime;
+}
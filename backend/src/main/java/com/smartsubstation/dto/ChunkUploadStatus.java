@@ -0,0 +1,48 @@
+package com.smartsubstation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 分片上传状态
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkUploadStatus {
+
+    /**
+     * 上传ID，秒传时为空
+     */
+    private String uploadId;
+
+    /**
+     * 分片大小(字节)，最后一片可能较小
+     */
+    private Integer chunkSize;
+
+    /**
+     * 分片总数
+     */
+    private Integer chunkCount;
+
+    /**
+     * 已接收的分片区间[起始下标, 结束下标]，含两端
+     */
+    private List<int[]> receivedRanges;
+
+    /**
+     * 缺少的分片下标
+     */
+    private List<Integer> missingChunks;
+
+    /**
+     * 内容已存在时直接返回的文件(秒传)
+     */
+    private FileUploadResult file;
+}
@@ -0,0 +1,31 @@
+package com.smartsubstation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 缺陷上报结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DefectReportResult {
+
+    /**
+     * 缺陷ID(数据库不可用暂存时为空)
+     */
+    private Long defectId;
+
+    /**
+     * 缺陷编号，上报时即分配
+     */
+    private String defectCode;
+
+    /**
+     * 是否已暂存待入库
+     */
+    private Boolean queued;
+}
@@ -0,0 +1,61 @@
+package com.smartsubstation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 设备导入结果
+ */
+@Data
+public class DeviceImportResult {
+
+    /**
+     * 失败明细最多返回条数
+     */
+    private static final int MAX_FAIL_ITEMS = 1000;
+
+    /**
+     * 成功数量
+     */
+    private int successCount;
+
+    /**
+     * 失败数量
+     */
+    private int failCount;
+
+    /**
+     * 失败明细(超出上限只计数)
+     */
+    private List<FailItem> failList = new ArrayList<>();
+
+    public void addFail(int row, String reason) {
+        if (failList.size() < MAX_FAIL_ITEMS) {
+            failList.add(new FailItem(row, reason));
+        }
+        failCount++;
+    }
+
+    /**
+     * 失败行
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailItem {
+
+        /**
+         * Excel行号(从1开始)
+         */
+        private Integer row;
+
+        /**
+         * 失败原因
+         */
+        private String reason;
+    }
+}
@@ -0,0 +1,82 @@
+package com.smartsubstation.dto;
+
+import com.smartsubstation.entity.DeviceInfo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 设备快照(扫码查询用)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceSnapshot {
+
+    /**
+     * 设备ID
+     */
+    private Long deviceId;
+
+    /**
+     * 设备编码
+     */
+    private String deviceCode;
+
+    /**
+     * 设备名称
+     */
+    private String deviceName;
+
+    /**
+     * 设备型号
+     */
+    private String deviceModel;
+
+    /**
+     * 设备分类ID
+     */
+    private Long categoryId;
+
+    /**
+     * 所属变电站ID
+     */
+    private Long stationId;
+
+    /**
+     * 安装位置
+     */
+    private String location;
+
+    /**
+     * 二维码内容
+     */
+    private String qrCode;
+
+    /**
+     * 状态: 1-正常, 2-故障, 3-检修, 4-停用
+     */
+    private Integer status;
+
+    /**
+     * 版本号
+     */
+    private Integer version;
+
+    public static DeviceSnapshot from(DeviceInfo device) {
+        return DeviceSnapshot.builder()
+                .deviceId(device.getDeviceId())
+                .deviceCode(device.getDeviceCode())
+                .deviceName(device.getDeviceName())
+                .deviceModel(device.getDeviceModel())
+                .categoryId(device.getCategoryId())
+                .stationId(device.getStationId())
+                .location(device.getLocation())
+                .qrCode(device.getQrCode())
+                .status(device.getStatus())
+                .version(device.getVersion())
+                .build();
+    }
+}
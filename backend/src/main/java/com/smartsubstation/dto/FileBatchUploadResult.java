@@ -0,0 +1,70 @@
+package com.smartsubstation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件批量上传结果
+ */
+@Data
+public class FileBatchUploadResult {
+
+    /**
+     * 成功数量
+     */
+    private int successCount;
+
+    /**
+     * 失败数量
+     */
+    private int failCount;
+
+    /**
+     * 上传成功的文件，与请求顺序一致，失败的位置为null
+     */
+    private List<FileUploadResult> files = new ArrayList<>();
+
+    /**
+     * 失败明细
+     */
+    private List<FailItem> failList = new ArrayList<>();
+
+    public void addFail(int index, String fileName, String reason) {
+        files.add(null);
+        failList.add(new FailItem(index, fileName, reason));
+        failCount++;
+    }
+
+    public void addSuccess(FileUploadResult file) {
+        files.add(file);
+        successCount++;
+    }
+
+    /**
+     * 失败文件
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailItem {
+
+        /**
+         * 请求中的下标(从0开始)
+         */
+        private Integer index;
+
+        /**
+         * 文件名
+         */
+        private String fileName;
+
+        /**
+         * 失败原因
+         */
+        private String reason;
+    }
+}
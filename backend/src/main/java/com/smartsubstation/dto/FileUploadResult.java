@@ -0,0 +1,71 @@
+package com.smartsubstation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文件上传结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileUploadResult {
+
+    /**
+     * 文件ID
+     */
+    private Long fileId;
+
+    /**
+     * 文件编码
+     */
+    private String fileCode;
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件类型
+     */
+    private String fileType;
+
+    /**
+     * 文件扩展名
+     */
+    private String fileExtension;
+
+    /**
+     * 文件大小(字节)
+     */
+    private Long fileSize;
+
+    /**
+     * 文件MD5
+     */
+    private String md5;
+
+    /**
+     * 访问URL
+     */
+    private String fileUrl;
+
+    /**
+     * 缩略图URL，后台生成完成前为空
+     */
+    private String thumbnailUrl;
+
+    /**
+     * 预览图URL，后台生成完成前为空
+     */
+    private String previewUrl;
+
+    /**
+     * 内容已存在，本次未重复存储
+     */
+    private Boolean deduplicated;
+}
@@ -8,6 +8,10 @@ import lombok.Data;
 @Data
 public class PageQuery {
 
+    public static final String TOTAL_EXACT = "exact";
+    public static final String TOTAL_APPROX = "approx";
+    public static final String TOTAL_NONE = "none";
+
     /**
      * 当前页
      */
@@ -32,4 +36,28 @@ public class PageQuery {
      * 搜索关键词
      */
     private String keyword;
+
+    /**
+     * 总数模式: exact-精确COUNT, approx-缓存的近似值(后台刷新), none-不返回
+     */
+    private String total = TOTAL_EXACT;
+
+    /**
+     * 游标(游标分页模式：传入上一页返回的nextCursor，首页传空串)
+     */
+    private String after;
+
+    /**
+     * 是否为游标分页模式
+     */
+    public boolean isCursorMode() {
+        return after != null;
+    }
+
+    /**
+     * 是否需要精确总数(未识别的取值按精确处理)
+     */
+    public boolean isExactTotal() {
+        return !TOTAL_APPROX.equalsIgnoreCase(total) && !TOTAL_NONE.equalsIgnoreCase(total);
+    }
 }
@@ -20,10 +20,15 @@ public class PageResult<T> {
     private java.util.List<T> records;
 
     /**
-     * 总记录数
+     * 总记录数(游标分页模式或total=none时不返回)
      */
     private Long total;
 
+    /**
+     * 总数是否精确
+     */
+    private Boolean totalExact;
+
     /**
      * 当前页
      */
@@ -38,4 +43,14 @@ public class PageResult<T> {
      * 总页数
      */
     private Integer pages;
+
+    /**
+     * 下一页游标(游标分页模式，无下一页时为null)
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页(游标分页模式)
+     */
+    private Boolean hasMore;
 }
@@ -0,0 +1,16 @@
+package com.smartsubstation.dto;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * 批量生成二维码请求
+ */
+@Data
+public class QrCodeBatchRequest {
+
+    @NotEmpty(message = "设备ID不能为空")
+    private List<Long> deviceIds;
+}
@@ -0,0 +1,69 @@
+package com.smartsubstation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 巡检记录批量提交结果
+ */
+@Data
+public class RecordBatchResult {
+
+    /**
+     * 成功数量
+     */
+    private int successCount;
+
+    /**
+     * 失败数量
+     */
+    private int failCount;
+
+    /**
+     * 数据库不可用时暂存待入库的数量
+     */
+    private int queuedCount;
+
+    /**
+     * 记录ID，与请求顺序一致，失败或暂存的位置为null
+     */
+    private List<Long> recordIds = new ArrayList<>();
+
+    /**
+     * 记录编码，与请求顺序一致，失败的位置为null
+     */
+    private List<String> recordCodes = new ArrayList<>();
+
+    /**
+     * 失败明细
+     */
+    private List<FailItem> failList = new ArrayList<>();
+
+    public void addFail(int index, String reason) {
+        failList.add(new FailItem(index, reason));
+        failCount++;
+    }
+
+    /**
+     * 失败记录
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailItem {
+
+        /**
+         * 请求中的下标(从0开始)
+         */
+        private Integer index;
+
+        /**
+         * 失败原因
+         */
+        private String reason;
+    }
+}
@@ -10,6 +10,11 @@ import jakarta.validation.constraints.NotNull;
 @Data
 public class RecordSubmitRequest {
 
+    /**
+     * 所属任务ID(从任务详情进入扫码时携带)
+     */
+    private Long taskId;
+
     @NotNull(message = "设备ID不能为空")
     private Long deviceId;
 
@@ -0,0 +1,36 @@
+package com.smartsubstation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 巡检记录提交结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordSubmitResult {
+
+    /**
+     * 记录ID(异步写入时为空)
+     */
+    private Long recordId;
+
+    /**
+     * 记录编码，提交时即分配，可用于查询
+     */
+    private String recordCode;
+
+    /**
+     * 是否已进入异步写入队列(尚未落库)
+     */
+    private Boolean queued;
+
+    /**
+     * 是否已持久化(已落库或已写入写前日志)；为false时记录仍在内存写入队列中
+     */
+    private Boolean persisted;
+}
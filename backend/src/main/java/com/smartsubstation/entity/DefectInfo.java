@@ -74,6 +74,12 @@ public class DefectInfo implements Serializable {
      */
     private String photoUrls;
 
+    /**
+     * 缩略图URL(与photoUrls一一对应，缩略图未生成时为原图)，仅列表查询返回
+     */
+    @TableField(exist = false)
+    private String thumbnailUrls;
+
     /**
      * 发现人ID
      */
@@ -0,0 +1,116 @@
+package com.smartsubstation.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件实体
+ */
+@Data
+@TableName("sys_file")
+public class SysFile implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "file_id", type = IdType.AUTO)
+    private Long fileId;
+
+    /**
+     * 文件编码
+     */
+    private String fileCode;
+
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+
+    /**
+     * 文件类型: image/video/document/other
+     */
+    private String fileType;
+
+    /**
+     * 文件扩展名
+     */
+    private String fileExtension;
+
+    /**
+     * 文件大小(字节)
+     */
+    private Long fileSize;
+
+    /**
+     * 存储路径(相对upload-path)，相同内容共用同一路径
+     */
+    private String filePath;
+
+    /**
+     * 访问URL
+     */
+    private String fileUrl;
+
+    /**
+     * 缩略图URL(后台生成，生成前为空)
+     */
+    private String thumbnailUrl;
+
+    /**
+     * 预览图URL(后台生成，生成前为空)
+     */
+    private String previewUrl;
+
+    /**
+     * MIME类型
+     */
+    private String mimeType;
+
+    /**
+     * 文件MD5
+     */
+    private String md5;
+
+    /**
+     * 业务类型
+     */
+    private String businessType;
+
+    /**
+     * 业务ID
+     */
+    private Long businessId;
+
+    /**
+     * 上传人ID
+     */
+    private Long uploadUserId;
+
+    /**
+     * 上传人姓名
+     */
+    private String uploadUserName;
+
+    /**
+     * 是否离线上传
+     */
+    private Integer isOffline;
+
+    /**
+     * 离线创建时间
+     */
+    private LocalDateTime offlineCreateTime;
+
+    /**
+     * 状态: 1-正常, 0-删除
+     */
+    private Integer status;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,73 @@
+package com.smartsubstation.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 权限实体
+ */
+@Data
+@TableName("sys_permission")
+public class SysPermission implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @TableId(value = "permission_id", type = IdType.AUTO)
+    private Long permissionId;
+
+    /**
+     * 权限编码
+     */
+    private String permissionCode;
+
+    /**
+     * 权限名称
+     */
+    private String permissionName;
+
+    /**
+     * 资源类型: menu-菜单, button-按钮, api-接口
+     */
+    private String resourceType;
+
+    /**
+     * 资源路径
+     */
+    private String resourcePath;
+
+    /**
+     * 父权限ID
+     */
+    private Long parentId;
+
+    /**
+     * 排序
+     */
+    private Integer sortOrder;
+
+    /**
+     * 状态: 1-启用, 0-禁用
+     */
+    private Integer status;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+
+    /**
+     * 删除标记: 0-未删除, 1-已删除
+     */
+    @TableLogic
+    private Integer deleted;
+}
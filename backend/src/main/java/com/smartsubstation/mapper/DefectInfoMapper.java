@@ -3,10 +3,24 @@ package com.smartsubstation.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.smartsubstation.entity.DefectInfo;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 缺陷Mapper
  */
 @Mapper
 public interface DefectInfoMapper extends BaseMapper<DefectInfo> {
+
+    /**
+     * 查询已存在的缺陷编号(含已删除，与唯一索引一致)
+     */
+    @Select("<script>"
+            + "SELECT defect_code FROM defect_info WHERE defect_code IN "
+            + "<foreach collection='codes' item='code' open='(' separator=',' close=')'>#{code}</foreach>"
+            + "</script>")
+    List<String> selectExistingCodes(@Param("codes") Collection<String> codes);
 }
@@ -2,11 +2,46 @@ package com.smartsubstation.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.smartsubstation.entity.DeviceInfo;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 设备Mapper
  */
 @Mapper
 public interface DeviceInfoMapper extends BaseMapper<DeviceInfo> {
+
+    /**
+     * 查询已存在的设备编码(含已删除，与唯一索引一致)
+     */
+    @Select("<script>"
+            + "SELECT device_code FROM device_info WHERE device_code IN "
+            + "<foreach collection='codes' item='code' open='(' separator=',' close=')'>#{code}</foreach>"
+            + "</script>")
+    List<String> selectExistingCodes(@Param("codes") Collection<String> codes);
+
+    /**
+     * 导入插入(固定列，供JDBC批处理复用同一语句)
+     */
+    @Insert("INSERT INTO device_info (device_code, device_name, device_model, manufacturer, category_id, station_id, "
+            + "location, qr_code, rated_voltage, rated_current, rated_capacity, commissioning_date, status, remark) "
+            + "VALUES (#{deviceCode}, #{deviceName}, #{deviceModel}, #{manufacturer}, #{categoryId}, #{stationId}, "
+            + "#{location}, #{qrCode}, #{ratedVoltage}, #{ratedCurrent}, #{ratedCapacity}, #{commissioningDate}, "
+            + "#{status}, #{remark})")
+    int insertForImport(DeviceInfo device);
+
+    /**
+     * 批量更新二维码图片URL(单条语句，URL由二维码内容拼接)
+     */
+    @Update("<script>"
+            + "UPDATE device_info SET qr_code_url = CONCAT(#{urlPrefix}, qr_code) WHERE device_id IN "
+            + "<foreach collection='deviceIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>"
+            + "</script>")
+    int batchUpdateQrCodeUrl(@Param("deviceIds") Collection<Long> deviceIds, @Param("urlPrefix") String urlPrefix);
 }
@@ -2,11 +2,77 @@ package com.smartsubstation.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.smartsubstation.entity.InspectionRecord;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 巡检记录Mapper
  */
 @Mapper
 public interface InspectionRecordMapper extends BaseMapper<InspectionRecord> {
+
+    /**
+     * 多行插入(单条INSERT语句)
+     */
+    @Insert("<script>"
+            + "INSERT INTO inspection_record (record_code, task_id, device_id, item_id, check_value, check_result, "
+            + "description, photo_urls, check_time, is_offline) VALUES "
+            + "<foreach collection='records' item='r' separator=','>"
+            + "(#{r.recordCode}, #{r.taskId}, #{r.deviceId}, #{r.itemId}, #{r.checkValue}, #{r.checkResult}, "
+            + "#{r.description}, #{r.photoUrls}, #{r.checkTime}, #{r.isOffline})"
+            + "</foreach>"
+            + "</script>")
+    int insertBatch(@Param("records") List<InspectionRecord> records);
+
+    /**
+     * 按(记录编码, 检查时间)回查主键，与分区表唯一键一致，并可按检查时间裁剪分区
+     */
+    @Select("<script>"
+            + "SELECT record_id, record_code, check_time FROM inspection_record WHERE (record_code, check_time) IN "
+            + "<foreach collection='records' item='r' open='(' separator=',' close=')'>(#{r.recordCode}, #{r.checkTime})</foreach>"
+            + "</script>")
+    List<InspectionRecord> selectIdsByCodeAndTime(@Param("records") Collection<InspectionRecord> records);
+
+    /**
+     * 查询分区名(未分区时为空)
+     */
+    @Select("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'inspection_record' AND PARTITION_NAME IS NOT NULL "
+            + "ORDER BY PARTITION_ORDINAL_POSITION")
+    List<String> selectPartitionNames();
+
+    /**
+     * 按主键分批读取单个分区(分区名由调用方校验)
+     */
+    @Select("SELECT * FROM inspection_record PARTITION (${partition}) "
+            + "WHERE record_id > #{afterId} AND deleted = 0 ORDER BY record_id LIMIT #{limit}")
+    List<InspectionRecord> selectPartitionBatch(@Param("partition") String partition,
+                                                @Param("afterId") long afterId,
+                                                @Param("limit") int limit);
+
+    /**
+     * 分区中的行数，最多数到limit(分区名由调用方校验)
+     */
+    @Select("SELECT COUNT(*) FROM (SELECT 1 FROM inspection_record PARTITION (${partition}) LIMIT #{limit}) t")
+    long countPartitionRows(@Param("partition") String partition, @Param("limit") int limit);
+
+    /**
+     * 从p_future拆出新的月分区
+     */
+    @Update("ALTER TABLE inspection_record REORGANIZE PARTITION p_future INTO ("
+            + "PARTITION ${partition} VALUES LESS THAN (TO_DAYS('${upperBound}')), "
+            + "PARTITION p_future VALUES LESS THAN MAXVALUE)")
+    void addPartition(@Param("partition") String partition, @Param("upperBound") String upperBound);
+
+    /**
+     * 删除分区
+     */
+    @Update("ALTER TABLE inspection_record DROP PARTITION ${partition}")
+    void dropPartition(@Param("partition") String partition);
 }
@@ -0,0 +1,51 @@
+package com.smartsubstation.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.smartsubstation.entity.SysFile;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 文件Mapper
+ */
+@Mapper
+public interface SysFileMapper extends BaseMapper<SysFile> {
+
+    /**
+     * 按内容查找已存在的文件(走idx_md5)
+     */
+    @Select("SELECT * FROM sys_file WHERE md5 = #{md5} AND file_size = #{fileSize} AND status = 1 " +
+            "ORDER BY file_id LIMIT 100")
+    List<SysFile> selectByContent(@Param("md5") String md5, @Param("fileSize") long fileSize);
+
+    /**
+     * 按主键游标查询尚未生成派生图的图片
+     */
+    @Select("SELECT file_id, md5, file_path, file_url FROM sys_file " +
+            "WHERE file_type = 'image' AND status = 1 AND thumbnail_url IS NULL AND file_id > #{afterId} " +
+            "ORDER BY file_id LIMIT #{limit}")
+    List<SysFile> selectPendingDerivatives(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 按内容哈希批量查询已登记的缩略图(走idx_md5)
+     */
+    @Select("<script>" +
+            "SELECT md5, thumbnail_url FROM sys_file WHERE status = 1 AND thumbnail_url IS NOT NULL AND md5 IN " +
+            "<foreach collection='md5s' item='md5' open='(' separator=',' close=')'>#{md5}</foreach>" +
+            "</script>")
+    List<SysFile> selectThumbnails(@Param("md5s") Collection<String> md5s);
+
+    /**
+     * 登记派生图，相同内容的记录一并更新
+     */
+    @Update("UPDATE sys_file SET thumbnail_url = #{thumbnailUrl}, preview_url = #{previewUrl} " +
+            "WHERE md5 = #{md5} AND thumbnail_url IS NULL")
+    int updateDerivatives(@Param("md5") String md5,
+                          @Param("thumbnailUrl") String thumbnailUrl,
+                          @Param("previewUrl") String previewUrl);
+}
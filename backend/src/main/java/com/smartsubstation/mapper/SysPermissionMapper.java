@@ -0,0 +1,12 @@
+package com.smartsubstation.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.smartsubstation.entity.SysPermission;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 权限Mapper
+ */
+@Mapper
+public interface SysPermissionMapper extends BaseMapper<SysPermission> {
+}
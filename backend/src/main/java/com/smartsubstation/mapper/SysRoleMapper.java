@@ -0,0 +1,12 @@
+package com.smartsubstation.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.smartsubstation.entity.SysRole;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 角色Mapper
+ */
+@Mapper
+public interface SysRoleMapper extends BaseMapper<SysRole> {
+}
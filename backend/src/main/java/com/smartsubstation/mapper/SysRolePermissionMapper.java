@@ -0,0 +1,12 @@
+package com.smartsubstation.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.smartsubstation.entity.SysRolePermission;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 角色权限关联Mapper
+ */
+@Mapper
+public interface SysRolePermissionMapper extends BaseMapper<SysRolePermission> {
+}
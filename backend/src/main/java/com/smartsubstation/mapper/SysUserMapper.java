@@ -2,11 +2,32 @@ package com.smartsubstation.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.smartsubstation.entity.SysUser;
+import com.smartsubstation.service.support.LastLoginEvent;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 /**
  * 用户Mapper
  */
 @Mapper
 public interface SysUserMapper extends BaseMapper<SysUser> {
+
+    /**
+     * 批量更新最后登录时间和IP(单条多行UPDATE，只写这两列)
+     */
+    @Update("<script>"
+            + "UPDATE sys_user SET "
+            + "last_login_time = CASE user_id "
+            + "<foreach collection='events' item='e'>WHEN #{e.userId} THEN #{e.loginTime} </foreach>"
+            + "END, "
+            + "last_login_ip = CASE user_id "
+            + "<foreach collection='events' item='e'>WHEN #{e.userId} THEN #{e.loginIp} </foreach>"
+            + "END "
+            + "WHERE user_id IN "
+            + "<foreach collection='events' item='e' open='(' separator=',' close=')'>#{e.userId}</foreach>"
+            + "</script>")
+    int batchUpdateLastLogin(@Param("events") List<LastLoginEvent> events);
 }
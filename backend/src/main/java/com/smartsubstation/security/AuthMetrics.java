@@ -0,0 +1,39 @@
+package com.smartsubstation.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 认证操作耗时指标
+ *
+ * 指标名 auth.operation，标签 operation(login/logout/refresh) 与 outcome(success/failure)
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+
+    private static final String METRIC_NAME = "auth.operation";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 开始计时
+     */
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * 结束计时并记录
+     */
+    public void stop(Timer.Sample sample, String operation, boolean success) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .description("认证操作耗时")
+                .tag("operation", operation)
+                .tag("outcome", success ? "success" : "failure")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,48 @@
+package com.smartsubstation.security;
+
+import com.smartsubstation.common.util.RedisUtil;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 认证专用Redis客户端
+ *
+ * 独立连接与较短的命令超时，Redis变慢时登录、登出、刷新快速失败，
+ * 不受全局5秒超时影响。拓扑(单机/哨兵/集群)、SSL、认证信息和客户端选项
+ * 全部沿用自动配置的连接工厂，主从切换时与业务连接一致
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthRedisClient implements InitializingBean, DisposableBean {
+
+    private final LettuceConnectionFactory sharedConnectionFactory;
+
+    @Value("${auth.redis.timeout:300ms}")
+    private Duration timeout;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    @Getter
+    private StringRedisTemplate template;
+
+    @Override
+    public void afterPropertiesSet() {
+        connectionFactory = RedisUtil.dedicatedConnectionFactory(sharedConnectionFactory, timeout);
+        template = new StringRedisTemplate(connectionFactory);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.smartsubstation.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * 认证Redis健康检查
+ *
+ * 熔断断开时报告DEGRADED：认证仍可用(本地校验)，但吊销暂不跨节点同步
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthRedisHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "认证Redis不可用，已降级为本地校验");
+
+    private final RedisCircuitBreaker circuitBreaker;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = circuitBreaker.isDegraded() ? Health.status(DEGRADED) : Health.up();
+        return builder
+                .withDetail("circuitState", circuitBreaker.getState().name())
+                .withDetail("pendingRevocations", tokenRevocationService.pendingRevocationCount())
+                .build();
+    }
+}
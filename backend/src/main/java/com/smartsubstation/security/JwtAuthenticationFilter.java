@@ -1,26 +1,22 @@
 package com.smartsubstation.security;
 
+import com.smartsubstation.common.util.JwtClaims;
 import com.smartsubstation.common.util.JwtUtil;
-import com.smartsubstation.service.IAuthService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.concurrent.TimeUnit;
 
 /**
  * JWT认证过滤器
@@ -31,10 +27,9 @@ import java.util.concurrent.TimeUnit;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final TokenRevocationService tokenRevocationService;
+    private final RolePermissionResolver rolePermissionResolver;
 
-    private static final String TOKEN_BLACKLIST_PREFIX = "token:blacklist:";
-    private static final String USER_TOKEN_PREFIX = "user:token:";
     private static final String HEADER_NAME = "Authorization";
     private static final String TOKEN_PREFIX = "Bearer ";
 
@@ -47,28 +42,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = extractTokenFromRequest(request);
 
             if (token != null) {
-                // 检查Token是否在黑名单中
-                if (isTokenBlacklisted(token)) {
-                    log.warn("Token已在黑名单中");
+                // 解析并验证Token(验签、过期校验只做一次)
+                JwtClaims claims = jwtUtil.parseToken(token);
+
+                // 检查Token是否已吊销
+                if (tokenRevocationService.isRevoked(claims)) {
+                    log.warn("Token已吊销");
                     filterChain.doFilter(request, response);
                     return;
                 }
 
-                // 提取用户名
-                String username = jwtUtil.extractUsername(token);
+                String username = claims.getUsername();
 
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    // 验证Token
-                    if (jwtUtil.validateToken(token, username)) {
-                        // 获取用户ID和角色ID
-                        Long userId = jwtUtil.extractUserId(token);
-                        Long roleId = jwtUtil.extractRoleId(token);
-
+                    if (!claims.isExpired()) {
                         // 创建认证信息
                         UserDetails userDetails = User.builder()
                                 .username(username)
                                 .password("")
-                                .authorities(new ArrayList<>())
+                                .authorities(rolePermissionResolver.getAuthorities(claims.getRoleId()))
                                 .build();
 
                         // 创建认证Token
@@ -79,10 +71,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                         userDetails.getAuthorities()
                                 );
 
-                        // 设置详细信息
-                        authentication.setDetails(
-                                new WebAuthenticationDetailsSource().buildDetails(request)
-                        );
+                        // 设置详细信息(Token声明，业务中取当前用户ID无需再查库)
+                        authentication.setDetails(claims);
 
                         // 设置到Security上下文
                         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -111,12 +101,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         return null;
     }
-
-    /**
-     * 检查Token是否在黑名单中
-     */
-    private boolean isTokenBlacklisted(String token) {
-        String blacklistKey = TOKEN_BLACKLIST_PREFIX + token;
-        return Boolean.TRUE.equals(redisTemplate.hasKey(blacklistKey));
-    }
 }
@@ -0,0 +1,69 @@
+package com.smartsubstation.security;
+
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 密码校验器
+ *
+ * 在独立的有界线程池上执行BCrypt校验，登录风暴时快速失败，
+ * 不占用数据库连接，也不拖慢其他接口
+ */
+@Slf4j
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final Duration timeout;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            @Qualifier("passwordVerifyExecutor") ThreadPoolTaskExecutor executor,
+                            @Value("${auth.password-verify.timeout:3s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * 校验密码
+     *
+     * @throws BusinessException 线程池已满或等待超时时返回繁忙
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        Future<Boolean> future;
+        try {
+            future = executor.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } catch (TaskRejectedException e) {
+            log.warn("密码校验队列已满: active={}, queued={}",
+                    executor.getActiveCount(), executor.getThreadPoolExecutor().getQueue().size());
+            throw new BusinessException(ResultCode.TOO_MANY_REQUESTS);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new BusinessException(ResultCode.TOO_MANY_REQUESTS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.TOO_MANY_REQUESTS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码校验失败", e.getCause());
+        }
+    }
+}
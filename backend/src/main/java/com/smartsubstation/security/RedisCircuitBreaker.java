@@ -0,0 +1,119 @@
+package com.smartsubstation.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 认证Redis熔断器
+ *
+ * 连续失败达到阈值后断开，断开期间直接走降级逻辑不再访问Redis；
+ * 断开时长结束后放行一次试探调用，成功则恢复
+ */
+@Slf4j
+@Component
+public class RedisCircuitBreaker {
+
+    /**
+     * 熔断状态
+     */
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private final Counter fallbackCounter;
+
+    public RedisCircuitBreaker(MeterRegistry meterRegistry,
+                               @Value("${auth.redis.breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${auth.redis.breaker.open-duration:10s}") Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openDuration.toMillis();
+        Gauge.builder("auth.redis.circuit.state", state, s -> s.get().ordinal())
+                .description("认证Redis熔断状态: 0-关闭, 1-半开, 2-断开")
+                .register(meterRegistry);
+        this.fallbackCounter = Counter.builder("auth.redis.fallback")
+                .description("认证Redis降级次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 执行Redis调用，熔断或调用失败时执行降级逻辑
+     */
+    public <T> T execute(Supplier<T> action, Supplier<T> fallback) {
+        if (!allowRequest()) {
+            fallbackCounter.increment();
+            return fallback.get();
+        }
+        try {
+            T result = action.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            onFailure(e);
+            fallbackCounter.increment();
+            return fallback.get();
+        }
+    }
+
+    /**
+     * 是否允许访问Redis
+     */
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.currentTimeMillis() - openedAt.get() >= openMillis) {
+            // 只放行一个试探请求
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        State previous = state.getAndSet(State.CLOSED);
+        if (previous != State.CLOSED) {
+            log.info("认证Redis已恢复，熔断关闭");
+        }
+    }
+
+    public void onFailure(Exception e) {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            openedAt.set(System.currentTimeMillis());
+            if (state.compareAndSet(current, State.OPEN)) {
+                log.warn("认证Redis熔断断开，进入降级模式: failures={}, error={}", failures, e.getMessage());
+            }
+        } else {
+            log.warn("认证Redis调用失败: failures={}, error={}", failures, e.getMessage());
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * 是否处于降级模式
+     */
+    public boolean isDegraded() {
+        return state.get() != State.CLOSED;
+    }
+}
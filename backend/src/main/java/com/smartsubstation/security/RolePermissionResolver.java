@@ -0,0 +1,135 @@
+package com.smartsubstation.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.smartsubstation.entity.SysPermission;
+import com.smartsubstation.entity.SysRole;
+import com.smartsubstation.entity.SysRolePermission;
+import com.smartsubstation.mapper.SysPermissionMapper;
+import com.smartsubstation.mapper.SysRoleMapper;
+import com.smartsubstation.mapper.SysRolePermissionMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 角色权限解析器
+ *
+ * 启动时一次加载角色、权限树和关联关系，为每个角色预先构建不可变的权限集合，
+ * 过滤器按roleId直接取用，请求路径上无IO。系统暂无角色授权的修改入口，
+ * 角色或授权在数据库中变更后由各节点定时全量刷新生效(auth.role-permission.refresh-interval)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RolePermissionResolver {
+
+    private final SysRoleMapper roleMapper;
+    private final SysPermissionMapper permissionMapper;
+    private final SysRolePermissionMapper rolePermissionMapper;
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    /**
+     * 角色ID -> 权限集合(整体替换，读取无锁)
+     */
+    private volatile Map<Long, List<GrantedAuthority>> authoritiesByRole = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("角色权限加载失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取角色的权限集合
+     */
+    public List<GrantedAuthority> getAuthorities(Long roleId) {
+        if (roleId == null) {
+            return Collections.emptyList();
+        }
+        return authoritiesByRole.getOrDefault(roleId, Collections.emptyList());
+    }
+
+    /**
+     * 从数据库重新加载
+     */
+    public synchronized void reload() {
+        List<SysRole> roles = roleMapper.selectList(
+                new LambdaQueryWrapper<SysRole>().eq(SysRole::getStatus, 1));
+        List<SysPermission> permissions = permissionMapper.selectList(null);
+        List<SysRolePermission> relations = rolePermissionMapper.selectList(null);
+
+        Map<Long, SysPermission> permissionById = new HashMap<>(permissions.size() * 2);
+        for (SysPermission permission : permissions) {
+            permissionById.put(permission.getPermissionId(), permission);
+        }
+
+        Map<Long, List<Long>> permissionIdsByRole = new HashMap<>();
+        for (SysRolePermission relation : relations) {
+            permissionIdsByRole.computeIfAbsent(relation.getRoleId(), k -> new ArrayList<>())
+                    .add(relation.getPermissionId());
+        }
+
+        Map<Long, List<GrantedAuthority>> result = new HashMap<>(roles.size() * 2);
+        for (SysRole role : roles) {
+            Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+            authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + role.getRoleCode().toUpperCase()));
+            for (Long permissionId : permissionIdsByRole.getOrDefault(role.getRoleId(), Collections.emptyList())) {
+                SysPermission permission = permissionById.get(permissionId);
+                if (permission != null && isEnabled(permission, permissionById)) {
+                    authorities.add(new SimpleGrantedAuthority(permission.getPermissionCode()));
+                }
+            }
+            result.put(role.getRoleId(), List.copyOf(authorities));
+        }
+
+        this.authoritiesByRole = Collections.unmodifiableMap(result);
+        log.info("角色权限加载完成: roles={}, permissions={}", roles.size(), permissions.size());
+    }
+
+    /**
+     * 权限自身及其所有上级均存在且启用才生效
+     */
+    private boolean isEnabled(SysPermission permission, Map<Long, SysPermission> permissionById) {
+        SysPermission current = permission;
+        // 深度上限防止脏数据成环
+        for (int depth = 0; current != null && depth <= permissionById.size(); depth++) {
+            if (current.getStatus() == null || current.getStatus() != 1) {
+                return false;
+            }
+            Long parentId = current.getParentId();
+            if (parentId == null || parentId == 0) {
+                return true;
+            }
+            current = permissionById.get(parentId);
+        }
+        return false;
+    }
+
+    /**
+     * 定时全量刷新，角色权限变更的唯一生效途径
+     */
+    @Scheduled(fixedDelayString = "${auth.role-permission.refresh-interval:600000}", initialDelayString = "${auth.role-permission.refresh-interval:600000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("角色权限定时刷新失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.smartsubstation.security;
+
+import com.smartsubstation.common.util.JwtClaims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Token吊销服务
+ *
+ * 两种粒度：
+ * 单个Token(登出、刷新)：按jti写入带过期时间的吊销键，只影响当前会话，其他设备不受影响；
+ * 用户全部Token(全部登出、改密码)：用户代数加一，签发时写入gen声明，代数小于当前值的Token视为已吊销，一次INCR完成。
+ * 各节点通过发布订阅在内存中维护副本，校验只是本地查表和整数比较。
+ * Redis不可用(熔断断开)时基于本地副本签发和吊销，恢复后回放本地吊销并重新同步
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationService implements MessageListener {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AuthRedisClient authRedisClient;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    private static final String TOKEN_GENERATION_PREFIX = "user:token:gen:";
+    private static final String GENERATION_CHANNEL = "user:token:gen:channel";
+    private static final String TOKEN_REVOKED_PREFIX = "user:token:revoked:";
+    private static final String TOKEN_REVOKED_CHANNEL = "user:token:revoked:channel";
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    /**
+     * 代数加一并广播，一次往返完成
+     */
+    private static final RedisScript<Long> REVOKE_SCRIPT = new DefaultRedisScript<>(
+            "local gen = redis.call('INCR', KEYS[1]) "
+                    + "redis.call('PUBLISH', ARGV[1], ARGV[2] .. ':' .. gen) "
+                    + "return gen",
+            Long.class);
+
+    /**
+     * 回放降级期间的本地吊销：代数只增不减，取本地与Redis的较大值后广播
+     */
+    private static final RedisScript<Long> REPLAY_SCRIPT = new DefaultRedisScript<>(
+            "local gen = tonumber(ARGV[3]) "
+                    + "local current = tonumber(redis.call('GET', KEYS[1]) or '0') "
+                    + "if gen > current then redis.call('SET', KEYS[1], gen) else gen = current end "
+                    + "redis.call('PUBLISH', ARGV[1], ARGV[2] .. ':' .. gen) "
+                    + "return gen",
+            Long.class);
+
+    /**
+     * 吊销单个Token并广播，键随Token过期；已吊销时返回0(同一Token并发刷新只有一个成功)
+     */
+    private static final RedisScript<Long> REVOKE_TOKEN_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SET', KEYS[1], ARGV[3], 'PX', ARGV[4], 'NX') then "
+                    + "redis.call('PUBLISH', ARGV[1], ARGV[2] .. ':' .. ARGV[3]) "
+                    + "return 1 end "
+                    + "return 0",
+            Long.class);
+
+    /**
+     * 用户ID -> 当前Token代数
+     */
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    /**
+     * 降级期间的本地吊销(用户ID -> 代数)，待Redis恢复后回放
+     */
+    private final Map<Long, Long> pendingRevocations = new ConcurrentHashMap<>();
+
+    /**
+     * 已吊销的单个Token: jti -> Token过期时间戳，过期后定时清除
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * 降级期间的本地单个Token吊销(jti -> 过期时间戳)，待Redis恢复后回放
+     */
+    private final Map<String, Long> pendingTokenRevocations = new ConcurrentHashMap<>();
+
+    /**
+     * 降级期间可能错过广播，恢复后需要全量同步
+     */
+    private volatile boolean resyncRequired;
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, List.of(
+                new ChannelTopic(GENERATION_CHANNEL), new ChannelTopic(TOKEN_REVOKED_CHANNEL)));
+    }
+
+    /**
+     * 启动时从Redis全量同步；Redis不可用时记入熔断，由定时探测在恢复后重试
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resync() {
+        resyncRequired = false;
+        try {
+            int generationCount = scan(TOKEN_GENERATION_PREFIX,
+                    (id, value) -> updateLocal(Long.valueOf(id), Long.parseLong(value)));
+            int revokedCount = scan(TOKEN_REVOKED_PREFIX,
+                    (id, value) -> revokedTokens.put(id, Long.parseLong(value)));
+            circuitBreaker.onSuccess();
+            log.info("Token吊销信息同步完成: generations={}, revokedTokens={}", generationCount, revokedCount);
+        } catch (RuntimeException e) {
+            resyncRequired = true;
+            circuitBreaker.onFailure(e);
+            log.warn("Token吊销信息同步失败，Redis恢复后重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按前缀扫描并分批读取，回调参数为去掉前缀的键和值
+     */
+    private int scan(String prefix, BiConsumer<String, String> loader) {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(prefix + "*")
+                .count(SCAN_BATCH_SIZE)
+                .build();
+        List<String> keys = new ArrayList<>(SCAN_BATCH_SIZE);
+        int loaded = 0;
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() >= SCAN_BATCH_SIZE) {
+                    loaded += loadKeys(prefix, keys, loader);
+                    keys.clear();
+                }
+            }
+        }
+        loaded += loadKeys(prefix, keys, loader);
+        return loaded;
+    }
+
+    private int loadKeys(String prefix, List<String> keys, BiConsumer<String, String> loader) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+        int loaded = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values == null ? null : values.get(i);
+            if (value == null) {
+                continue;
+            }
+            loader.accept(keys.get(i).substring(prefix.length()), value);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    /**
+     * 获取用户当前代数(签发Token时使用，读Redis保证跨节点一致)
+     */
+    public long currentGeneration(Long userId) {
+        return circuitBreaker.execute(() -> {
+            String value = authRedisClient.getTemplate().opsForValue().get(TOKEN_GENERATION_PREFIX + userId);
+            long generation = value == null ? 0L : Long.parseLong(value);
+            updateLocal(userId, generation);
+            return generation;
+        }, () -> {
+            resyncRequired = true;
+            return generations.getOrDefault(userId, 0L);
+        });
+    }
+
+    /**
+     * 吊销单个Token(登出、刷新)，不影响该用户的其他会话
+     *
+     * @return 本次是否吊销成功，Token此前已被吊销时返回false
+     */
+    public boolean revokeToken(JwtClaims claims) {
+        String tokenId = claims.getTokenId();
+        if (tokenId == null) {
+            // 旧Token没有jti，只能按用户整体吊销
+            revoke(claims.getUserId());
+            return true;
+        }
+        long expiresAt = claims.getExpiration().getTime();
+        long ttl = expiresAt - System.currentTimeMillis();
+        if (ttl <= 0) {
+            // 已过期的Token无需吊销
+            return false;
+        }
+        return circuitBreaker.execute(() -> {
+            Long revoked = authRedisClient.getTemplate().execute(REVOKE_TOKEN_SCRIPT,
+                    List.of(TOKEN_REVOKED_PREFIX + tokenId), TOKEN_REVOKED_CHANNEL,
+                    tokenId, String.valueOf(expiresAt), String.valueOf(ttl));
+            revokedTokens.put(tokenId, expiresAt);
+            return revoked != null && revoked == 1L;
+        }, () -> revokeTokenLocally(tokenId, expiresAt));
+    }
+
+    /**
+     * 降级吊销单个Token：本地记录，待恢复后回放
+     */
+    private boolean revokeTokenLocally(String tokenId, long expiresAt) {
+        resyncRequired = true;
+        if (revokedTokens.putIfAbsent(tokenId, expiresAt) != null) {
+            return false;
+        }
+        pendingTokenRevocations.put(tokenId, expiresAt);
+        log.warn("Redis不可用，本地吊销Token: tokenId={}", tokenId);
+        return true;
+    }
+
+    /**
+     * 吊销用户已签发的全部Token(全部登出、修改密码)，返回新的代数
+     */
+    public long revoke(Long userId) {
+        return circuitBreaker.execute(() -> {
+            Long generation = authRedisClient.getTemplate().execute(REVOKE_SCRIPT,
+                    List.of(TOKEN_GENERATION_PREFIX + userId), GENERATION_CHANNEL, String.valueOf(userId));
+            long value = generation == null ? 0L : generation;
+            updateLocal(userId, value);
+            return value;
+        }, () -> revokeLocally(userId));
+    }
+
+    /**
+     * 降级吊销：本地代数加一并记录，待恢复后回放
+     */
+    private long revokeLocally(Long userId) {
+        resyncRequired = true;
+        long generation = generations.merge(userId, 1L, (current, one) -> current + one);
+        pendingRevocations.merge(userId, generation, Math::max);
+        log.warn("Redis不可用，本地吊销Token: userId={}, generation={}", userId, generation);
+        return generation;
+    }
+
+    /**
+     * 定时探测Redis恢复情况，恢复后回放本地吊销并重新同步
+     */
+    @Scheduled(fixedDelayString = "${auth.redis.breaker.probe-interval:5000}")
+    public void recover() {
+        if (circuitBreaker.isDegraded()) {
+            if (!circuitBreaker.allowRequest()) {
+                return;
+            }
+            try {
+                authRedisClient.getTemplate().execute((RedisCallback<String>) RedisConnection::ping);
+                circuitBreaker.onSuccess();
+            } catch (RuntimeException e) {
+                circuitBreaker.onFailure(e);
+                return;
+            }
+        }
+        if (!pendingRevocations.isEmpty()) {
+            replayPending();
+        }
+        if (!pendingTokenRevocations.isEmpty()) {
+            replayPendingTokens();
+        }
+        if (resyncRequired && pendingRevocations.isEmpty() && pendingTokenRevocations.isEmpty()) {
+            resync();
+        }
+    }
+
+    private void replayPending() {
+        int replayed = 0;
+        for (Long userId : new ArrayList<>(pendingRevocations.keySet())) {
+            Long generation = pendingRevocations.remove(userId);
+            if (generation == null) {
+                continue;
+            }
+            try {
+                Long value = authRedisClient.getTemplate().execute(REPLAY_SCRIPT,
+                        List.of(TOKEN_GENERATION_PREFIX + userId), GENERATION_CHANNEL,
+                        String.valueOf(userId), String.valueOf(generation));
+                if (value != null) {
+                    updateLocal(userId, value);
+                }
+                replayed++;
+            } catch (RuntimeException e) {
+                pendingRevocations.merge(userId, generation, Math::max);
+                circuitBreaker.onFailure(e);
+                log.warn("本地吊销回放中断: replayed={}, left={}", replayed, pendingRevocations.size());
+                return;
+            }
+        }
+        log.info("本地吊销回放完成: count={}", replayed);
+    }
+
+    private void replayPendingTokens() {
+        int replayed = 0;
+        for (String tokenId : new ArrayList<>(pendingTokenRevocations.keySet())) {
+            Long expiresAt = pendingTokenRevocations.remove(tokenId);
+            long ttl = expiresAt == null ? 0 : expiresAt - System.currentTimeMillis();
+            if (ttl <= 0) {
+                continue;
+            }
+            try {
+                authRedisClient.getTemplate().execute(REVOKE_TOKEN_SCRIPT,
+                        List.of(TOKEN_REVOKED_PREFIX + tokenId), TOKEN_REVOKED_CHANNEL,
+                        tokenId, String.valueOf(expiresAt), String.valueOf(ttl));
+                replayed++;
+            } catch (RuntimeException e) {
+                pendingTokenRevocations.put(tokenId, expiresAt);
+                circuitBreaker.onFailure(e);
+                log.warn("本地Token吊销回放中断: replayed={}, left={}", replayed, pendingTokenRevocations.size());
+                return;
+            }
+        }
+        log.info("本地Token吊销回放完成: count={}", replayed);
+    }
+
+    /**
+     * 定时清除已过期Token的吊销记录(过期Token本身已无法通过校验)
+     */
+    @Scheduled(fixedDelayString = "${auth.token-revocation.sweep-interval:60000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    /**
+     * 待回放的本地吊销数量
+     */
+    public int pendingRevocationCount() {
+        return pendingRevocations.size() + pendingTokenRevocations.size();
+    }
+
+    /**
+     * 检查Token是否已吊销(仅查本地副本)
+     */
+    public boolean isRevoked(JwtClaims claims) {
+        if (claims.getTokenId() != null && revokedTokens.containsKey(claims.getTokenId())) {
+            return true;
+        }
+        if (claims.getUserId() == null) {
+            return false;
+        }
+        Long current = generations.get(claims.getUserId());
+        return current != null && claims.getGeneration() < current;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int idx = body.indexOf(':');
+        if (idx <= 0) {
+            log.warn("无效的Token吊销消息: channel={}, body={}", channel, body);
+            return;
+        }
+        if (TOKEN_REVOKED_CHANNEL.equals(channel)) {
+            revokedTokens.put(body.substring(0, idx), Long.parseLong(body.substring(idx + 1)));
+        } else {
+            updateLocal(Long.valueOf(body.substring(0, idx)), Long.parseLong(body.substring(idx + 1)));
+        }
+    }
+
+    /**
+     * 代数只增不减，乱序到达的消息不会回退
+     */
+    private void updateLocal(Long userId, long generation) {
+        generations.merge(userId, generation, Math::max);
+    }
+}
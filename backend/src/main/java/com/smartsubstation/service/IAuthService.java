@@ -11,16 +11,22 @@ public interface IAuthService {
     /**
      * 用户登录
      *
-     * @param request 登录请求
+     * @param request  登录请求
+     * @param clientIp 客户端IP
      * @return 登录响应
      */
-    LoginResponse login(LoginRequest request);
+    LoginResponse login(LoginRequest request, String clientIp);
 
     /**
      * 用户登出
      */
     void logout(String token);
 
+    /**
+     * 退出全部设备(吊销该用户已签发的全部Token)
+     */
+    void logoutAll(String token);
+
     /**
      * 刷新Token
      *
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
 import com.smartsubstation.dto.DefectReportRequest;
+import com.smartsubstation.dto.DefectReportResult;
 
 /**
  * 缺陷服务接口
@@ -23,7 +24,7 @@ public interface IDefectService {
     /**
      * 上报缺陷
      */
-    Long report(DefectReportRequest request);
+    DefectReportResult report(DefectReportRequest request);
 
     /**
      * 确认缺陷
@@ -3,7 +3,13 @@ package com.smartsubstation.service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
+import com.smartsubstation.dto.DeviceImportResult;
 import com.smartsubstation.dto.DeviceSaveRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 
 /**
  * 设备服务接口
@@ -39,4 +45,24 @@ public interface IDeviceService {
      * 生成设备二维码
      */
     String generateQrCode(Long deviceId);
+
+    /**
+     * Excel批量导入设备
+     */
+    DeviceImportResult importDevices(MultipartFile file, Long stationId);
+
+    /**
+     * 校验批量生成二维码的设备ID(去重、限制数量)，在写出响应前调用
+     */
+    List<Long> prepareQrCodeBatch(List<Long> deviceIds);
+
+    /**
+     * 批量生成二维码标签并以ZIP写出，同时更新二维码URL
+     */
+    int writeQrCodeZip(List<Long> deviceIds, OutputStream out) throws IOException;
+
+    /**
+     * 渲染设备二维码图片
+     */
+    byte[] renderQrCode(String qrCode);
 }
@@ -0,0 +1,61 @@
+package com.smartsubstation.service;
+
+import com.smartsubstation.dto.ChunkUploadInitRequest;
+import com.smartsubstation.dto.ChunkUploadStatus;
+import com.smartsubstation.dto.FileBatchUploadResult;
+import com.smartsubstation.dto.FileUploadResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 文件服务接口
+ */
+public interface IFileService {
+
+    /**
+     * 上传图片
+     */
+    FileUploadResult uploadImage(MultipartFile file, String businessType, Long businessId);
+
+    /**
+     * 批量上传图片
+     */
+    FileBatchUploadResult uploadImages(List<MultipartFile> files, String businessType, Long businessId);
+
+    /**
+     * 秒传：内容已存在时直接登记，不存在时返回null，客户端再上传文件内容
+     */
+    FileUploadResult instantUpload(String md5, Long fileSize, String fileName, String businessType, Long businessId);
+
+    /**
+     * 分片上传：初始化(提供md5且内容已存在时直接秒传)
+     */
+    ChunkUploadStatus initChunkUpload(ChunkUploadInitRequest request);
+
+    /**
+     * 分片上传：写入第index片
+     *
+     * @param checksum 分片内容的SHA-256(十六进制)
+     */
+    ChunkUploadStatus uploadChunk(String uploadId, int index, String checksum, InputStream in);
+
+    /**
+     * 分片上传：查询已收到的分片
+     */
+    ChunkUploadStatus getChunkUpload(String uploadId);
+
+    /**
+     * 分片上传：全部分片收到后完成，登记文件
+     */
+    FileUploadResult completeChunkUpload(String uploadId);
+
+    /**
+     * 定位已存储的文件，不存在时抛出FILE_NOT_FOUND
+     *
+     * @param relativePath 相对存储根目录的路径(ab/cd/文件名)
+     */
+    Path locate(String relativePath);
+}
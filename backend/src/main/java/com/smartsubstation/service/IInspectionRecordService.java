@@ -2,7 +2,9 @@ package com.smartsubstation.service;
 
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
+import com.smartsubstation.dto.RecordBatchResult;
 import com.smartsubstation.dto.RecordSubmitRequest;
+import com.smartsubstation.dto.RecordSubmitResult;
 
 /**
  * 巡检记录服务接口
@@ -10,14 +12,14 @@ import com.smartsubstation.dto.RecordSubmitRequest;
 public interface IInspectionRecordService {
 
     /**
-     * 提交巡检记录
+     * 提交巡检记录(启用异步写入时入队即返回)
      */
-    Long submit(RecordSubmitRequest request);
+    RecordSubmitResult submit(RecordSubmitRequest request);
 
     /**
-     * 批量提交记录
+     * 批量提交记录(分块提交，部分成功时返回失败明细)
      */
-    java.util.List<Long> batchSubmit(java.util.List<RecordSubmitRequest> requests);
+    RecordBatchResult batchSubmit(java.util.List<RecordSubmitRequest> requests);
 
     /**
      * 查询任务的巡检记录
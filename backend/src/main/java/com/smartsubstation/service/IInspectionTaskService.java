@@ -20,9 +20,11 @@ public interface IInspectionTaskService {
     Object getDetailById(Long taskId);
 
     /**
-     * 获取我的任务列表
+     * 获取当前用户(执行人)的任务列表
+     *
+     * @param status 任务状态，为空时不限，active表示全部未结束状态
      */
-    PageResult<?> getMyTasks(PageQuery pageQuery);
+    PageResult<?> getMyTasks(PageQuery pageQuery, String status);
 
     /**
      * 开始任务
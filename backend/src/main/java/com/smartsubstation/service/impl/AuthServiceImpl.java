@@ -3,23 +3,23 @@ package com.smartsubstation.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.smartsubstation.common.exception.BusinessException;
 import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.JwtClaims;
 import com.smartsubstation.common.util.JwtUtil;
 import com.smartsubstation.dto.LoginRequest;
 import com.smartsubstation.dto.LoginResponse;
 import com.smartsubstation.entity.SysUser;
 import com.smartsubstation.mapper.SysUserMapper;
+import com.smartsubstation.security.AuthMetrics;
+import com.smartsubstation.security.PasswordVerifier;
+import com.smartsubstation.security.TokenRevocationService;
 import com.smartsubstation.service.IAuthService;
+import com.smartsubstation.service.support.LastLoginWriter;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.time.LocalDateTime;
-import java.util.concurrent.TimeUnit;
-
 /**
  * 认证服务实现
  */
@@ -29,115 +29,142 @@ import java.util.concurrent.TimeUnit;
 public class AuthServiceImpl implements IAuthService {
 
     private final SysUserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerifier passwordVerifier;
     private final JwtUtil jwtUtil;
-    private final RedisTemplate<String, Object> redisTemplate;
-
-    private static final String TOKEN_BLACKLIST_PREFIX = "token:blacklist:";
-    private static final String USER_TOKEN_PREFIX = "user:token:";
-    private static final int TOKEN_EXPIRE_HOURS = 2;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuthMetrics authMetrics;
+    private final LastLoginWriter lastLoginWriter;
 
+    /**
+     * 登录不开启事务：查询用户后立即归还连接，密码校验在独立线程池执行
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
-    public LoginResponse login(LoginRequest request) {
-        // 查询用户
-        SysUser user = userMapper.selectOne(
-                new LambdaQueryWrapper<SysUser>()
-                        .eq(SysUser::getUsername, request.getUsername())
-        );
-
-        if (user == null) {
-            throw new BusinessException(ResultCode.USER_NOT_FOUND);
-        }
-
-        // 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new BusinessException(ResultCode.USER_PASSWORD_ERROR);
-        }
-
-        // 检查状态
-        if (user.getStatus() == 0) {
-            throw new BusinessException(ResultCode.USER_ACCOUNT_DISABLED);
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        Timer.Sample sample = authMetrics.start();
+        boolean success = false;
+        try {
+            // 查询用户
+            SysUser user = userMapper.selectOne(
+                    new LambdaQueryWrapper<SysUser>()
+                            .eq(SysUser::getUsername, request.getUsername())
+            );
+
+            if (user == null) {
+                throw new BusinessException(ResultCode.USER_NOT_FOUND);
+            }
+
+            // 验证密码
+            if (!passwordVerifier.matches(request.getPassword(), user.getPassword())) {
+                throw new BusinessException(ResultCode.USER_PASSWORD_ERROR);
+            }
+
+            // 检查状态
+            if (user.getStatus() == 0) {
+                throw new BusinessException(ResultCode.USER_ACCOUNT_DISABLED);
+            }
+
+            // 生成Token(携带用户当前代数)
+            long generation = tokenRevocationService.currentGeneration(user.getUserId());
+            String token = jwtUtil.generateToken(user.getUsername(), user.getUserId(), user.getRoleId(), generation);
+
+            // 记录最后登录时间和IP(后台批量写库)
+            lastLoginWriter.record(user.getUserId(), clientIp);
+
+            log.info("用户登录成功: userId={}, username={}", user.getUserId(), user.getUsername());
+
+            success = true;
+            return LoginResponse.builder()
+                    .token(token)
+                    .tokenType("Bearer")
+                    .userId(user.getUserId())
+                    .username(user.getUsername())
+                    .realName(user.getRealName())
+                    .roleId(user.getRoleId())
+                    .avatar(user.getAvatar())
+                    .build();
+        } finally {
+            authMetrics.stop(sample, "login", success);
         }
-
-        // 生成Token
-        String token = jwtUtil.generateToken(user.getUsername(), user.getUserId(), user.getRoleId());
-
-        // 存储Token到Redis
-        String tokenKey = USER_TOKEN_PREFIX + user.getUserId();
-        redisTemplate.opsForValue().set(tokenKey, token, TOKEN_EXPIRE_HOURS, TimeUnit.HOURS);
-
-        // 更新最后登录时间
-        user.setLastLoginTime(LocalDateTime.now());
-        userMapper.updateById(user);
-
-        log.info("用户登录成功: userId={}, username={}", user.getUserId(), user.getUsername());
-
-        return LoginResponse.builder()
-                .token(token)
-                .tokenType("Bearer")
-                .userId(user.getUserId())
-                .username(user.getUsername())
-                .realName(user.getRealName())
-                .roleId(user.getRoleId())
-                .avatar(user.getAvatar())
-                .build();
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public void logout(String token) {
         if (!StringUtils.hasText(token)) {
             return;
         }
 
+        Timer.Sample sample = authMetrics.start();
+        boolean success = false;
         try {
-            String username = jwtUtil.extractUsername(token);
-            Long userId = jwtUtil.extractUserId(token);
-
-            // 将Token加入黑名单
-            String blacklistKey = TOKEN_BLACKLIST_PREFIX + token;
-            redisTemplate.opsForValue().set(blacklistKey, "1", TOKEN_EXPIRE_HOURS, TimeUnit.HOURS);
+            JwtClaims claims = jwtUtil.parseToken(token);
 
-            // 删除用户Token
-            String tokenKey = USER_TOKEN_PREFIX + userId;
-            redisTemplate.delete(tokenKey);
+            // 只吊销当前Token，同一用户在其他设备上的会话不受影响(单次脚本调用)
+            tokenRevocationService.revokeToken(claims);
 
-            log.info("用户登出: userId={}, username={}", userId, username);
+            log.info("用户登出: userId={}, username={}", claims.getUserId(), claims.getUsername());
+            success = true;
         } catch (Exception e) {
             log.warn("登出处理失败: {}", e.getMessage());
+        } finally {
+            authMetrics.stop(sample, "logout", success);
         }
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
-    public String refreshToken(String token) {
+    public void logoutAll(String token) {
         if (!StringUtils.hasText(token)) {
             throw new BusinessException(ResultCode.TOKEN_INVALID);
         }
 
-        String username = jwtUtil.extractUsername(token);
+        Timer.Sample sample = authMetrics.start();
+        boolean success = false;
+        try {
+            JwtClaims claims = jwtUtil.parseToken(token);
+            if (tokenRevocationService.isRevoked(claims)) {
+                throw new BusinessException(ResultCode.TOKEN_INVALID);
+            }
+
+            // 代数加一，该用户已签发的全部Token失效(单次脚本调用)
+            tokenRevocationService.revoke(claims.getUserId());
+
+            log.info("用户全部登出: userId={}, username={}", claims.getUserId(), claims.getUsername());
+            success = true;
+        } finally {
+            authMetrics.stop(sample, "logout_all", success);
+        }
+    }
 
-        // 检查Token是否在黑名单中
-        String blacklistKey = TOKEN_BLACKLIST_PREFIX + token;
-        Boolean isBlacklisted = redisTemplate.hasKey(blacklistKey);
-        if (Boolean.TRUE.equals(isBlacklisted)) {
+    @Override
+    public String refreshToken(String token) {
+        if (!StringUtils.hasText(token)) {
             throw new BusinessException(ResultCode.TOKEN_INVALID);
         }
 
-        // 刷新Token
-        String newToken = jwtUtil.refreshToken(token);
-
-        // 更新Redis中的Token
-        Long userId = jwtUtil.extractUserId(token);
-        String tokenKey = USER_TOKEN_PREFIX + userId;
-        redisTemplate.opsForValue().set(tokenKey, newToken, TOKEN_EXPIRE_HOURS, TimeUnit.HOURS);
-
-        // 将旧Token加入黑名单
-        redisTemplate.opsForValue().set(blacklistKey, "1", TOKEN_EXPIRE_HOURS, TimeUnit.HOURS);
-
-        log.info("Token刷新成功: userId={}, username={}", userId, username);
-
-        return newToken;
+        Timer.Sample sample = authMetrics.start();
+        boolean success = false;
+        try {
+            JwtClaims claims = jwtUtil.parseToken(token);
+            String username = claims.getUsername();
+
+            // 检查Token是否已吊销
+            if (tokenRevocationService.isRevoked(claims)) {
+                throw new BusinessException(ResultCode.TOKEN_INVALID);
+            }
+
+            // 只吊销当前Token，并发刷新同一Token时只有一个成功(单次脚本调用)；
+            // 不改变用户代数，其他设备上的会话不受影响
+            if (!tokenRevocationService.revokeToken(claims)) {
+                throw new BusinessException(ResultCode.TOKEN_INVALID);
+            }
+            Long userId = claims.getUserId();
+            String newToken = jwtUtil.generateToken(username, userId, claims.getRoleId(), claims.getGeneration());
+
+            log.info("Token刷新成功: userId={}, username={}", userId, username);
+
+            success = true;
+            return newToken;
+        } finally {
+            authMetrics.stop(sample, "refresh", success);
+        }
     }
 }
@@ -5,12 +5,19 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.smartsubstation.common.exception.BusinessException;
 import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.BusinessCodeGenerator;
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
 import com.smartsubstation.dto.DefectReportRequest;
+import com.smartsubstation.dto.DefectReportResult;
 import com.smartsubstation.entity.DefectInfo;
 import com.smartsubstation.mapper.DefectInfoMapper;
 import com.smartsubstation.service.IDefectService;
+import com.smartsubstation.service.support.IngestWal;
+import com.smartsubstation.service.support.KeywordSearchIndex;
+import com.smartsubstation.service.support.KeysetPager;
+import com.smartsubstation.service.support.PageTotalResolver;
+import com.smartsubstation.service.support.ThumbnailGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -18,6 +25,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 缺陷服务实现
@@ -28,30 +36,55 @@ import java.time.LocalDateTime;
 public class DefectServiceImpl implements IDefectService {
 
     private final DefectInfoMapper defectInfoMapper;
+    private final BusinessCodeGenerator businessCodeGenerator;
+    private final PageTotalResolver pageTotalResolver;
+    private final KeywordSearchIndex keywordSearchIndex;
+    private final IngestWal ingestWal;
+    private final ThumbnailGenerator thumbnailGenerator;
 
     @Override
     public PageResult<?> pageQuery(PageQuery pageQuery) {
-        Page<DefectInfo> page = new Page<>(pageQuery.getPage(), pageQuery.getPageSize());
+        PageResult<DefectInfo> result = queryPage(pageQuery);
+        thumbnailGenerator.fillThumbnailUrls(result.getRecords(), DefectInfo::getPhotoUrls, DefectInfo::setThumbnailUrls);
+        return result;
+    }
 
-        LambdaQueryWrapper<DefectInfo> wrapper = new LambdaQueryWrapper<>();
+    private PageResult<DefectInfo> queryPage(PageQuery pageQuery) {
+        LambdaQueryWrapper<DefectInfo> wrapper = buildFilter(pageQuery);
 
-        if (StrUtil.isNotBlank(pageQuery.getKeyword())) {
-            wrapper.and(w -> w.like(DefectInfo::getDefectCode, pageQuery.getKeyword())
-                    .or()
-                    .like(DefectInfo::getDefectDescription, pageQuery.getKeyword()));
+        if (pageQuery.isCursorMode()) {
+            return KeysetPager.page(defectInfoMapper, wrapper, pageQuery, DefectInfo::getDiscoverTime, DefectInfo::getDefectId);
         }
 
+        Page<DefectInfo> page = pageTotalResolver.newPage(pageQuery);
         wrapper.orderByDesc(DefectInfo::getDiscoverTime);
 
         Page<DefectInfo> result = defectInfoMapper.selectPage(page, wrapper);
 
-        return PageResult.<DefectInfo>builder()
-                .records(result.getRecords())
-                .total(result.getTotal())
-                .page(result.getCurrent())
-                .pageSize(result.getSize())
-                .pages(result.getPages())
-                .build();
+        return pageTotalResolver.build(result, pageQuery,
+                PageTotalResolver.filterKey("defect", pageQuery.getKeyword()),
+                () -> defectInfoMapper.selectCount(buildFilter(pageQuery)));
+    }
+
+    /**
+     * 列表过滤条件(不含排序)
+     */
+    private LambdaQueryWrapper<DefectInfo> buildFilter(PageQuery pageQuery) {
+        LambdaQueryWrapper<DefectInfo> wrapper = new LambdaQueryWrapper<>();
+        if (StrUtil.isNotBlank(pageQuery.getKeyword())) {
+            // 先由检索索引缩小到候选主键，LIKE只在候选行上复核
+            List<Long> candidates = keywordSearchIndex.search(KeywordSearchIndex.Scope.DEFECT, pageQuery.getKeyword());
+            if (candidates != null) {
+                if (candidates.isEmpty()) {
+                    return wrapper.apply("1 = 0");
+                }
+                wrapper.in(DefectInfo::getDefectId, candidates);
+            }
+            wrapper.and(w -> w.like(DefectInfo::getDefectCode, pageQuery.getKeyword())
+                    .or()
+                    .like(DefectInfo::getDefectDescription, pageQuery.getKeyword()));
+        }
+        return wrapper;
     }
 
     @Override
@@ -60,21 +93,43 @@ public class DefectServiceImpl implements IDefectService {
         if (defect == null) {
             throw new BusinessException(ResultCode.DEFECT_NOT_FOUND);
         }
+        defect.setThumbnailUrls(thumbnailGenerator.thumbnailUrls(defect.getPhotoUrls()));
         return defect;
     }
 
+    /**
+     * 单条插入；数据库不可用或写前日志有积压时写入日志，落盘后返回
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
-    public Long report(DefectReportRequest request) {
+    public DefectReportResult report(DefectReportRequest request) {
         DefectInfo defect = new DefectInfo();
         BeanUtils.copyProperties(request, defect);
 
-        defect.setDefectCode("DEF" + System.currentTimeMillis());
+        defect.setDefectCode(businessCodeGenerator.next(BusinessCodeGenerator.CodeType.DEFECT));
         defect.setStatus("pending");
         defect.setDiscoverTime(LocalDateTime.now());
 
-        defectInfoMapper.insert(defect);
-        return defect.getDefectId();
+        if (!ingestWal.isBuffering()) {
+            try {
+                defectInfoMapper.insert(defect);
+                keywordSearchIndex.changed(KeywordSearchIndex.Scope.DEFECT, defect.getDefectId());
+                return DefectReportResult.builder()
+                        .defectId(defect.getDefectId())
+                        .defectCode(defect.getDefectCode())
+                        .queued(false)
+                        .build();
+            } catch (RuntimeException e) {
+                if (!ingestWal.isEnabled() || !IngestWal.isDatabaseUnavailable(e)) {
+                    throw e;
+                }
+                log.warn("数据库不可用，缺陷写入写前日志: defectCode={}", defect.getDefectCode());
+            }
+        }
+        ingestWal.appendDefect(defect);
+        return DefectReportResult.builder()
+                .defectCode(defect.getDefectCode())
+                .queued(true)
+                .build();
     }
 
     @Override
@@ -5,17 +5,41 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.smartsubstation.common.exception.BusinessException;
 import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.BusinessCodeGenerator;
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
+import com.smartsubstation.dto.DeviceImportResult;
 import com.smartsubstation.dto.DeviceSaveRequest;
+import com.smartsubstation.dto.DeviceSnapshot;
 import com.smartsubstation.entity.DeviceInfo;
 import com.smartsubstation.mapper.DeviceInfoMapper;
+import com.smartsubstation.mapper.SubStationMapper;
 import com.smartsubstation.service.IDeviceService;
+import com.smartsubstation.service.support.DeviceExcelImporter;
+import com.smartsubstation.service.support.DeviceQrIndex;
+import com.smartsubstation.service.support.KeywordSearchIndex;
+import com.smartsubstation.service.support.KeysetPager;
+import com.smartsubstation.service.support.PageTotalResolver;
+import com.smartsubstation.service.support.SortColumns;
+import com.smartsubstation.service.support.QrCodeRenderer;
+import com.smartsubstation.service.support.QrCodeZipWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * 设备服务实现
@@ -26,35 +50,66 @@ import org.springframework.transaction.annotation.Transactional;
 public class DeviceServiceImpl implements IDeviceService {
 
     private final DeviceInfoMapper deviceInfoMapper;
+    private final DeviceQrIndex deviceQrIndex;
+    private final DeviceExcelImporter deviceExcelImporter;
+    private final SubStationMapper subStationMapper;
+    private final QrCodeZipWriter qrCodeZipWriter;
+    private final QrCodeRenderer qrCodeRenderer;
+    private final BusinessCodeGenerator businessCodeGenerator;
+    private final PageTotalResolver pageTotalResolver;
+    private final KeywordSearchIndex keywordSearchIndex;
+
+    /**
+     * 二维码图片访问地址前缀
+     */
+    private static final String QR_CODE_URL_PREFIX = "/api/qrcode/";
+
+    @Value("${device.qrcode.batch-max:20000}")
+    private Integer qrCodeBatchMax;
 
     @Override
     public PageResult<?> pageQuery(PageQuery pageQuery) {
-        Page<DeviceInfo> page = new Page<>(pageQuery.getPage(), pageQuery.getPageSize());
-
-        LambdaQueryWrapper<DeviceInfo> wrapper = new LambdaQueryWrapper<>();
+        LambdaQueryWrapper<DeviceInfo> wrapper = buildFilter(pageQuery);
 
-        if (StrUtil.isNotBlank(pageQuery.getKeyword())) {
-            wrapper.and(w -> w.like(DeviceInfo::getDeviceCode, pageQuery.getKeyword())
-                    .or()
-                    .like(DeviceInfo::getDeviceName, pageQuery.getKeyword()));
+        // 游标分页固定按创建时间倒序
+        if (pageQuery.isCursorMode()) {
+            return KeysetPager.page(deviceInfoMapper, wrapper, pageQuery, DeviceInfo::getCreateTime, DeviceInfo::getDeviceId);
         }
 
+        Page<DeviceInfo> page = pageTotalResolver.newPage(pageQuery);
+
         if (StrUtil.isNotBlank(pageQuery.getSortField())) {
-            boolean isAsc = "asc".equalsIgnoreCase(pageQuery.getSortOrder());
-            wrapper.orderBy(true, isAsc, pageQuery.getSortField());
+            page.addOrder(SortColumns.orderItem(DeviceInfo.class, pageQuery.getSortField(), pageQuery.getSortOrder()));
         } else {
             wrapper.orderByDesc(DeviceInfo::getCreateTime);
         }
 
         Page<DeviceInfo> result = deviceInfoMapper.selectPage(page, wrapper);
 
-        return PageResult.<DeviceInfo>builder()
-                .records(result.getRecords())
-                .total(result.getTotal())
-                .page(result.getCurrent())
-                .pageSize(result.getSize())
-                .pages(result.getPages())
-                .build();
+        return pageTotalResolver.build(result, pageQuery,
+                PageTotalResolver.filterKey("device", pageQuery.getKeyword()),
+                () -> deviceInfoMapper.selectCount(buildFilter(pageQuery)));
+    }
+
+    /**
+     * 列表过滤条件(不含排序)
+     */
+    private LambdaQueryWrapper<DeviceInfo> buildFilter(PageQuery pageQuery) {
+        LambdaQueryWrapper<DeviceInfo> wrapper = new LambdaQueryWrapper<>();
+        if (StrUtil.isNotBlank(pageQuery.getKeyword())) {
+            // 先由检索索引缩小到候选主键，LIKE只在候选行上复核
+            List<Long> candidates = keywordSearchIndex.search(KeywordSearchIndex.Scope.DEVICE, pageQuery.getKeyword());
+            if (candidates != null) {
+                if (candidates.isEmpty()) {
+                    return wrapper.apply("1 = 0");
+                }
+                wrapper.in(DeviceInfo::getDeviceId, candidates);
+            }
+            wrapper.and(w -> w.like(DeviceInfo::getDeviceCode, pageQuery.getKeyword())
+                    .or()
+                    .like(DeviceInfo::getDeviceName, pageQuery.getKeyword()));
+        }
+        return wrapper;
     }
 
     @Override
@@ -68,10 +123,7 @@ public class DeviceServiceImpl implements IDeviceService {
 
     @Override
     public Object getByQrCode(String qrCode) {
-        DeviceInfo device = deviceInfoMapper.selectOne(
-                new LambdaQueryWrapper<DeviceInfo>()
-                        .eq(DeviceInfo::getQrCode, qrCode)
-        );
+        DeviceSnapshot device = deviceQrIndex.get(qrCode);
         if (device == null) {
             throw new BusinessException("设备不存在或已停用");
         }
@@ -103,7 +155,13 @@ public class DeviceServiceImpl implements IDeviceService {
             }
         }
 
-        deviceInfoMapper.insertOrUpdate(device);
+        if (device.getDeviceId() == null) {
+            deviceInfoMapper.insert(device);
+        } else {
+            deviceInfoMapper.updateById(device);
+        }
+        deviceQrIndex.changed(device.getDeviceId());
+        keywordSearchIndex.changed(KeywordSearchIndex.Scope.DEVICE, device.getDeviceId());
         return device.getDeviceId();
     }
 
@@ -111,6 +169,10 @@ public class DeviceServiceImpl implements IDeviceService {
     @Transactional(rollbackFor = Exception.class)
     public Boolean delete(Long deviceId) {
         int rows = deviceInfoMapper.deleteById(deviceId);
+        if (rows > 0) {
+            deviceQrIndex.changed(deviceId);
+            keywordSearchIndex.changed(KeywordSearchIndex.Scope.DEVICE, deviceId);
+        }
         return rows > 0;
     }
 
@@ -121,18 +183,90 @@ public class DeviceServiceImpl implements IDeviceService {
             throw new BusinessException(ResultCode.DEVICE_NOT_FOUND);
         }
 
-        // 生成二维码URL（实际应使用二维码生成库）
-        String qrCodeUrl = "/api/qrcode/" + device.getQrCode();
+        // 图片由二维码接口按需渲染
+        String qrCodeUrl = QR_CODE_URL_PREFIX + device.getQrCode();
         device.setQrCodeUrl(qrCodeUrl);
         deviceInfoMapper.updateById(device);
+        deviceQrIndex.changed(deviceId);
 
         return qrCodeUrl;
     }
 
+    @Override
+    public DeviceImportResult importDevices(MultipartFile file, Long stationId) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "请选择导入文件");
+        }
+        String filename = file.getOriginalFilename();
+        if (filename == null || !filename.toLowerCase().endsWith(".xlsx")) {
+            throw new BusinessException(ResultCode.FILE_TYPE_NOT_ALLOWED, "仅支持.xlsx格式");
+        }
+        if (subStationMapper.selectById(stationId) == null) {
+            throw new BusinessException(ResultCode.STATION_NOT_FOUND);
+        }
+
+        // 落盘后按文件读取，避免整个压缩包加载到内存
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("device-import-", ".xlsx");
+            file.transferTo(temp);
+            File source = temp.toFile();
+            DeviceImportResult result = deviceExcelImporter.importFile(source, stationId);
+            if (result.getSuccessCount() > 0) {
+                deviceQrIndex.changedAll();
+                keywordSearchIndex.changedAll(KeywordSearchIndex.Scope.DEVICE);
+            }
+            log.info("设备导入完成: stationId={}, success={}, fail={}",
+                    stationId, result.getSuccessCount(), result.getFailCount());
+            return result;
+        } catch (IOException e) {
+            throw new BusinessException(ResultCode.FILE_UPLOAD_ERROR);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("导入临时文件删除失败: {}", temp);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Long> prepareQrCodeBatch(List<Long> deviceIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(deviceIds));
+        ids.removeIf(Objects::isNull);
+        if (ids.isEmpty()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "设备ID不能为空");
+        }
+        if (ids.size() > qrCodeBatchMax) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "单次最多生成" + qrCodeBatchMax + "个二维码");
+        }
+        return ids;
+    }
+
+    @Override
+    public int writeQrCodeZip(List<Long> deviceIds, OutputStream out) throws IOException {
+        List<Long> written = qrCodeZipWriter.write(deviceIds, out);
+        if (!written.isEmpty()) {
+            deviceInfoMapper.batchUpdateQrCodeUrl(written, QR_CODE_URL_PREFIX);
+        }
+        log.info("批量生成二维码完成: requested={}, written={}", deviceIds.size(), written.size());
+        return written.size();
+    }
+
+    @Override
+    public byte[] renderQrCode(String qrCode) {
+        if (deviceQrIndex.get(qrCode) == null) {
+            throw new BusinessException(ResultCode.DEVICE_NOT_FOUND);
+        }
+        return qrCodeRenderer.render(qrCode);
+    }
+
     /**
      * 生成二维码字符串
      */
     private String generateQrCodeStr() {
-        return "DEV" + System.currentTimeMillis();
+        return businessCodeGenerator.next(BusinessCodeGenerator.CodeType.DEVICE);
     }
 }
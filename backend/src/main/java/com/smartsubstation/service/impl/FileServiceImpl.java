@@ -0,0 +1,450 @@
+package com.smartsubstation.service.impl;
+
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.BusinessCodeGenerator;
+import com.smartsubstation.dto.ChunkUploadInitRequest;
+import com.smartsubstation.dto.ChunkUploadStatus;
+import com.smartsubstation.dto.FileBatchUploadResult;
+import com.smartsubstation.dto.FileUploadResult;
+import com.smartsubstation.entity.SysFile;
+import com.smartsubstation.mapper.SysFileMapper;
+import com.smartsubstation.service.IFileService;
+import com.smartsubstation.service.support.ChunkedUploadStore;
+import com.smartsubstation.service.support.ContentStore;
+import com.smartsubstation.service.support.ThumbnailGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * 文件服务实现
+ *
+ * 上传时先流式计算MD5，按 md5+大小 查 sys_file：同一业务已登记过的直接返回原记录(离线重试重复上传)，
+ * 其他业务引用相同内容时只新增记录、共用存储文件
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileServiceImpl implements IFileService {
+
+    private static final String TYPE_IMAGE = "image";
+
+    /**
+     * 存储路径: 两级哈希目录 + 以哈希开头的文件名
+     */
+    private static final Pattern STORED_PATH = Pattern.compile("([0-9a-f]{2})/([0-9a-f]{2})/\\1\\2[0-9a-f]{28}[\\w-]*(\\.[0-9a-z]+)?");
+
+    private final SysFileMapper sysFileMapper;
+    private final ContentStore contentStore;
+    private final BusinessCodeGenerator businessCodeGenerator;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final ChunkedUploadStore chunkedUploadStore;
+
+    @Value("${file.access-url:/files}")
+    private String accessUrl;
+
+    @Value("${file.image-extensions:jpg,jpeg,png,gif,bmp,webp}")
+    private List<String> imageExtensions;
+
+    @Value("${file.batch-max:20}")
+    private Integer batchMax;
+
+    @Value("${file.chunk.default-size:1MB}")
+    private DataSize chunkDefaultSize;
+
+    @Value("${file.chunk.min-size:256KB}")
+    private DataSize chunkMinSize;
+
+    @Value("${file.chunk.max-size:4MB}")
+    private DataSize chunkMaxSize;
+
+    @Value("${file.chunk.max-file-size:100MB}")
+    private DataSize chunkMaxFileSize;
+
+    @Override
+    public FileUploadResult uploadImage(MultipartFile file, String businessType, Long businessId) {
+        return store(file, businessType, businessId);
+    }
+
+    @Override
+    public FileBatchUploadResult uploadImages(List<MultipartFile> files, String businessType, Long businessId) {
+        if (files == null || files.isEmpty()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "上传文件不能为空");
+        }
+        if (files.size() > batchMax) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "单次最多上传" + batchMax + "个文件");
+        }
+        FileBatchUploadResult result = new FileBatchUploadResult();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            try {
+                result.addSuccess(store(file, businessType, businessId));
+            } catch (BusinessException e) {
+                result.addFail(i, file.getOriginalFilename(), e.getMessage());
+            } catch (Exception e) {
+                log.error("文件上传失败: fileName={}, error={}", file.getOriginalFilename(), e.getMessage(), e);
+                result.addFail(i, file.getOriginalFilename(), ResultCode.FILE_UPLOAD_ERROR.getMessage());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public FileUploadResult instantUpload(String md5, Long fileSize, String fileName, String businessType, Long businessId) {
+        if (md5 == null || !md5.matches("[0-9a-fA-F]{32}") || fileSize == null || fileSize <= 0) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "md5或文件大小无效");
+        }
+        return link(md5.toLowerCase(Locale.ROOT), fileSize, fileName, checkImageExtension(fileName),
+                businessType, businessId, null);
+    }
+
+    @Override
+    public ChunkUploadStatus initChunkUpload(ChunkUploadInitRequest request) {
+        String extension = checkImageExtension(request.getFileName());
+        if (request.getFileSize() > chunkMaxFileSize.toBytes()) {
+            throw new BusinessException(ResultCode.FILE_SIZE_EXCEEDED);
+        }
+        String md5 = request.getMd5() == null ? null : request.getMd5().toLowerCase(Locale.ROOT);
+        if (md5 != null) {
+            FileUploadResult existing = link(md5, request.getFileSize(), request.getFileName(), extension,
+                    request.getBusinessType(), request.getBusinessId(), request.getOfflineCreateTime());
+            if (existing != null) {
+                return ChunkUploadStatus.builder().file(existing).build();
+            }
+        }
+        int requested = request.getChunkSize() == null ? (int) chunkDefaultSize.toBytes() : request.getChunkSize();
+        int chunkSize = (int) Math.max(chunkMinSize.toBytes(), Math.min(chunkMaxSize.toBytes(), requested));
+        try {
+            ChunkedUploadStore.Session session = chunkedUploadStore.create(currentUser(), request.getFileName(),
+                    request.getFileSize(), chunkSize, md5, request.getBusinessType(), request.getBusinessId(),
+                    request.getOfflineCreateTime());
+            return toStatus(session, new BitSet());
+        } catch (IOException e) {
+            log.error("分片上传初始化失败: fileName={}, error={}", request.getFileName(), e.getMessage(), e);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_ERROR);
+        }
+    }
+
+    @Override
+    public ChunkUploadStatus uploadChunk(String uploadId, int index, String checksum, InputStream in) {
+        ChunkedUploadStore.Session session = requireSession(uploadId);
+        if (index < 0 || index >= session.chunkCount()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "分片下标超出范围");
+        }
+        try {
+            int length = session.lengthOf(index);
+            byte[] data = in.readNBytes(length);
+            if (data.length != length || in.read() != -1) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "分片大小不正确，应为" + length + "字节");
+            }
+            if (checksum == null || !checksum.equalsIgnoreCase(sha256(data))) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "分片校验失败");
+            }
+            chunkedUploadStore.write(session, index, data);
+            return toStatus(session, chunkedUploadStore.received(session));
+        } catch (NoSuchFileException e) {
+            throw new BusinessException(ResultCode.CONFLICT, "上传已完成或已取消");
+        } catch (IOException e) {
+            log.error("分片写入失败: uploadId={}, index={}, error={}", uploadId, index, e.getMessage());
+            throw new BusinessException(ResultCode.FILE_UPLOAD_ERROR);
+        }
+    }
+
+    @Override
+    public ChunkUploadStatus getChunkUpload(String uploadId) {
+        ChunkedUploadStore.Session session = requireSession(uploadId);
+        try {
+            ChunkUploadStatus status = toStatus(session, chunkedUploadStore.received(session));
+            status.setFile(chunkedUploadStore.result(session, FileUploadResult.class));
+            return status;
+        } catch (IOException e) {
+            throw new BusinessException(ResultCode.FILE_NOT_FOUND);
+        }
+    }
+
+    @Override
+    public FileUploadResult completeChunkUpload(String uploadId) {
+        ChunkedUploadStore.Session session = requireSession(uploadId);
+        String extension = checkImageExtension(session.fileName());
+        Path data;
+        try {
+            // 完成请求的响应丢失后重试，直接返回已完成的结果
+            FileUploadResult completed = chunkedUploadStore.result(session, FileUploadResult.class);
+            if (completed != null) {
+                return completed;
+            }
+            if (chunkedUploadStore.received(session).cardinality() < session.chunkCount()) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "分片未全部上传");
+            }
+            data = chunkedUploadStore.claim(session);
+        } catch (IOException e) {
+            log.error("分片上传会话读取失败: uploadId={}, error={}", uploadId, e.getMessage());
+            throw new BusinessException(ResultCode.FILE_UPLOAD_ERROR);
+        }
+        if (data == null) {
+            throw new BusinessException(ResultCode.CONFLICT, "上传正在完成，请稍后查询");
+        }
+        // 数据文件已取走：成功时保留结果供重试查询，失败时删除会话，客户端重新上传
+        boolean success = false;
+        try {
+            String md5;
+            try (InputStream in = Files.newInputStream(data)) {
+                md5 = contentStore.md5(in);
+            }
+            if (session.md5() != null && !session.md5().equals(md5)) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "文件校验失败，请重新上传");
+            }
+            String mimeType = MediaTypeFactory.getMediaType(session.fileName()).map(Object::toString).orElse(null);
+            FileUploadResult result = save(md5, session.fileSize(), session.fileName(), extension, mimeType,
+                    session.businessType(), session.businessId(), session.offlineCreateTime(),
+                    path -> contentStore.put(data, path));
+            Files.deleteIfExists(data);
+            chunkedUploadStore.complete(session, result);
+            success = true;
+            return result;
+        } catch (IOException e) {
+            log.error("分片上传完成失败: uploadId={}, error={}", uploadId, e.getMessage(), e);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_ERROR);
+        } finally {
+            if (!success) {
+                chunkedUploadStore.delete(uploadId);
+            }
+        }
+    }
+
+    @Override
+    public Path locate(String relativePath) {
+        if (!STORED_PATH.matcher(relativePath).matches()) {
+            throw new BusinessException(ResultCode.FILE_NOT_FOUND);
+        }
+        Path path = contentStore.resolve(relativePath);
+        if (!Files.isRegularFile(path)) {
+            throw new BusinessException(ResultCode.FILE_NOT_FOUND);
+        }
+        return path;
+    }
+
+    private FileUploadResult store(MultipartFile file, String businessType, Long businessId) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "上传文件不能为空");
+        }
+        String fileName = file.getOriginalFilename();
+        String extension = checkImageExtension(fileName);
+
+        try {
+            String md5;
+            try (InputStream in = file.getInputStream()) {
+                md5 = contentStore.md5(in);
+            }
+            String mimeType = file.getContentType() != null ? file.getContentType()
+                    : MediaTypeFactory.getMediaType(fileName).map(Object::toString).orElse(null);
+            return save(md5, file.getSize(), fileName, extension, mimeType, businessType, businessId, null,
+                    path -> contentStore.put(file, path));
+        } catch (IOException e) {
+            log.error("文件存储失败: fileName={}, error={}", fileName, e.getMessage(), e);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_ERROR);
+        }
+    }
+
+    /**
+     * 按内容去重后登记：同一业务已登记过的直接返回原记录，否则写入内容(已存在则共用)并新增记录
+     */
+    private FileUploadResult save(String md5, long size, String fileName, String extension, String mimeType,
+                                  String businessType, Long businessId, LocalDateTime offlineCreateTime,
+                                  ContentWriter writer) throws IOException {
+        List<SysFile> existing = sysFileMapper.selectByContent(md5, size);
+        SysFile same = findSameBusiness(existing, businessType, businessId);
+        if (same != null && contentStore.exists(same.getFilePath())) {
+            return toResult(same, true);
+        }
+
+        String path = existing.isEmpty() ? contentStore.pathOf(md5, extension) : existing.get(0).getFilePath();
+        boolean written = writer.write(path);
+
+        SysFile sysFile = newFile(fileName, extension, size, md5, path, mimeType, businessType, businessId, offlineCreateTime);
+        register(sysFile, existing);
+        log.debug("文件已上传: fileCode={}, md5={}, deduplicated={}", sysFile.getFileCode(), md5, !written);
+        return toResult(sysFile, !written);
+    }
+
+    /**
+     * 内容已存在时直接登记(秒传)，不存在时返回null
+     */
+    private FileUploadResult link(String md5, long size, String fileName, String extension,
+                                  String businessType, Long businessId, LocalDateTime offlineCreateTime) {
+        List<SysFile> existing = sysFileMapper.selectByContent(md5, size);
+        if (existing.isEmpty() || !contentStore.exists(existing.get(0).getFilePath())) {
+            return null;
+        }
+        SysFile same = findSameBusiness(existing, businessType, businessId);
+        if (same != null) {
+            return toResult(same, true);
+        }
+        SysFile sysFile = newFile(fileName, extension, size, md5, existing.get(0).getFilePath(),
+                existing.get(0).getMimeType(), businessType, businessId, offlineCreateTime);
+        register(sysFile, existing);
+        return toResult(sysFile, true);
+    }
+
+    /**
+     * 登记文件；相同内容已有派生图时直接沿用，否则提交后台生成
+     */
+    private void register(SysFile sysFile, List<SysFile> existing) {
+        SysFile derived = existing.stream().filter(f -> f.getThumbnailUrl() != null).findFirst().orElse(null);
+        if (derived != null) {
+            sysFile.setThumbnailUrl(derived.getThumbnailUrl());
+            sysFile.setPreviewUrl(derived.getPreviewUrl());
+        } else {
+            String[] derivatives = thumbnailGenerator.existingDerivatives(sysFile.getMd5());
+            if (derivatives != null) {
+                sysFile.setThumbnailUrl(derivatives[0]);
+                sysFile.setPreviewUrl(derivatives[1]);
+            }
+        }
+        sysFileMapper.insert(sysFile);
+        if (sysFile.getThumbnailUrl() == null) {
+            thumbnailGenerator.submit(sysFile.getMd5(), sysFile.getFilePath(), sysFile.getFileUrl());
+        }
+    }
+
+    private String checkImageExtension(String fileName) {
+        String extension = extensionOf(fileName);
+        if (extension.isEmpty() || !imageExtensions.contains(extension)) {
+            throw new BusinessException(ResultCode.FILE_TYPE_NOT_ALLOWED);
+        }
+        return extension;
+    }
+
+    private SysFile findSameBusiness(List<SysFile> files, String businessType, Long businessId) {
+        for (SysFile file : files) {
+            if (Objects.equals(file.getBusinessType(), businessType) && Objects.equals(file.getBusinessId(), businessId)) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    private SysFile newFile(String fileName, String extension, long size, String md5, String path,
+                            String mimeType, String businessType, Long businessId, LocalDateTime offlineCreateTime) {
+        SysFile sysFile = new SysFile();
+        sysFile.setFileCode(businessCodeGenerator.next(BusinessCodeGenerator.CodeType.FILE));
+        sysFile.setFileName(fileName);
+        sysFile.setFileType(TYPE_IMAGE);
+        sysFile.setFileExtension(extension);
+        sysFile.setFileSize(size);
+        sysFile.setFilePath(path);
+        sysFile.setFileUrl(accessUrl + "/" + path);
+        sysFile.setMimeType(mimeType);
+        sysFile.setMd5(md5);
+        sysFile.setBusinessType(businessType);
+        sysFile.setBusinessId(businessId);
+        sysFile.setUploadUserName(currentUser());
+        sysFile.setIsOffline(offlineCreateTime != null ? 1 : 0);
+        sysFile.setOfflineCreateTime(offlineCreateTime);
+        sysFile.setStatus(1);
+        return sysFile;
+    }
+
+    private FileUploadResult toResult(SysFile file, boolean deduplicated) {
+        return FileUploadResult.builder()
+                .fileId(file.getFileId())
+                .fileCode(file.getFileCode())
+                .fileName(file.getFileName())
+                .fileType(file.getFileType())
+                .fileExtension(file.getFileExtension())
+                .fileSize(file.getFileSize())
+                .md5(file.getMd5())
+                .fileUrl(file.getFileUrl())
+                .thumbnailUrl(file.getThumbnailUrl())
+                .previewUrl(file.getPreviewUrl())
+                .deduplicated(deduplicated)
+                .build();
+    }
+
+    private ChunkedUploadStore.Session requireSession(String uploadId) {
+        ChunkedUploadStore.Session session;
+        try {
+            session = chunkedUploadStore.load(uploadId);
+        } catch (IOException e) {
+            log.error("分片上传会话读取失败: uploadId={}, error={}", uploadId, e.getMessage());
+            throw new BusinessException(ResultCode.FILE_UPLOAD_ERROR);
+        }
+        if (session == null || !Objects.equals(session.owner(), currentUser())) {
+            throw new BusinessException(ResultCode.FILE_NOT_FOUND, "上传会话不存在或已过期");
+        }
+        return session;
+    }
+
+    private ChunkUploadStatus toStatus(ChunkedUploadStore.Session session, BitSet received) {
+        List<int[]> ranges = new ArrayList<>();
+        List<Integer> missing = new ArrayList<>();
+        int start = received.nextSetBit(0);
+        while (start >= 0 && start < session.chunkCount()) {
+            int end = Math.min(received.nextClearBit(start), session.chunkCount()) - 1;
+            ranges.add(new int[]{start, end});
+            start = received.nextSetBit(end + 1);
+        }
+        for (int i = received.nextClearBit(0); i < session.chunkCount(); i = received.nextClearBit(i + 1)) {
+            missing.add(i);
+        }
+        return ChunkUploadStatus.builder()
+                .uploadId(session.uploadId())
+                .chunkSize(session.chunkSize())
+                .chunkCount(session.chunkCount())
+                .receivedRanges(ranges)
+                .missingChunks(missing)
+                .build();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String extensionOf(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    /**
+     * 把内容写入存储的指定路径，返回是否写入了新文件
+     */
+    @FunctionalInterface
+    private interface ContentWriter {
+        boolean write(String path) throws IOException;
+    }
+}
@@ -2,20 +2,41 @@ package com.smartsubstation.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.BusinessCodeGenerator;
+import com.smartsubstation.common.util.PageCursor;
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
+import com.smartsubstation.dto.RecordBatchResult;
 import com.smartsubstation.dto.RecordSubmitRequest;
+import com.smartsubstation.dto.RecordSubmitResult;
 import com.smartsubstation.entity.InspectionRecord;
+import com.smartsubstation.entity.InspectionTask;
 import com.smartsubstation.mapper.InspectionRecordMapper;
+import com.smartsubstation.mapper.InspectionTaskMapper;
 import com.smartsubstation.service.IInspectionRecordService;
+import com.smartsubstation.service.support.IngestWal;
+import com.smartsubstation.service.support.KeysetPager;
+import com.smartsubstation.service.support.MyTaskCache;
+import com.smartsubstation.service.support.PageTotalResolver;
+import com.smartsubstation.service.support.RecordArchiver;
+import com.smartsubstation.service.support.RecordBatchWriter;
+import com.smartsubstation.service.support.RecordIngestPipeline;
+import com.smartsubstation.service.support.ThumbnailGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 巡检记录服务实现
@@ -26,52 +47,256 @@ import java.util.List;
 public class InspectionRecordServiceImpl implements IInspectionRecordService {
 
     private final InspectionRecordMapper recordMapper;
+    private final BusinessCodeGenerator businessCodeGenerator;
+    private final PageTotalResolver pageTotalResolver;
+    private final RecordBatchWriter recordBatchWriter;
+    private final RecordIngestPipeline recordIngestPipeline;
+    private final IngestWal ingestWal;
+    private final RecordArchiver recordArchiver;
+    private final InspectionTaskMapper taskMapper;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final MyTaskCache myTaskCache;
 
-    @Override
-    @Transactional(rollbackFor = Exception.class)
-    public Long submit(RecordSubmitRequest request) {
-        InspectionRecord record = new InspectionRecord();
-        record.setRecordCode("REC" + System.currentTimeMillis());
-        record.setDeviceId(request.getDeviceId());
-        record.setItemId(request.getItemId());
-        record.setCheckValue(request.getCheckValue());
-        record.setCheckResult(request.getCheckResult());
-        record.setDescription(request.getDescription());
-        record.setPhotoUrls(request.getPhotoUrls());
-        record.setCheckTime(LocalDateTime.now());
-        record.setIsOffline(0);
+    @Value("${inspection.record.batch-chunk-size:200}")
+    private Integer chunkSize;
+
+    @Value("${inspection.record.batch-max:5000}")
+    private Integer batchMax;
 
-        recordMapper.insert(record);
-        return record.getRecordId();
+    /**
+     * 启用异步写入时入队后立即返回记录编码，否则同步插入；
+     * 数据库不可用或写前日志有积压时写入日志，落盘后返回
+     */
+    @Override
+    public RecordSubmitResult submit(RecordSubmitRequest request) {
+        InspectionRecord record = buildRecord(request);
+        if (recordIngestPipeline.isEnabled()) {
+            recordIngestPipeline.enqueue(record);
+            return queued(record, false);
+        }
+        if (!ingestWal.isBuffering()) {
+            try {
+                recordMapper.insert(record);
+                myTaskCache.evictByTasks(Collections.singletonList(record.getTaskId()));
+                return RecordSubmitResult.builder()
+                        .recordId(record.getRecordId())
+                        .recordCode(record.getRecordCode())
+                        .queued(false)
+                        .persisted(true)
+                        .build();
+            } catch (RuntimeException e) {
+                if (!ingestWal.isEnabled() || !IngestWal.isDatabaseUnavailable(e)) {
+                    throw e;
+                }
+                log.warn("数据库不可用，巡检记录写入写前日志: recordCode={}", record.getRecordCode());
+            }
+        }
+        ingestWal.appendRecords(List.of(record));
+        return queued(record, true);
     }
 
+    /**
+     * 分块批量写入：每块一条多行INSERT并单独提交，已提交的块不受后续失败影响；
+     * 数据库不可用时剩余分块写入写前日志
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
-    public List<Long> batchSubmit(List<RecordSubmitRequest> requests) {
-        List<Long> ids = new ArrayList<>();
-        for (RecordSubmitRequest request : requests) {
-            Long id = submit(request);
-            ids.add(id);
+    public RecordBatchResult batchSubmit(List<RecordSubmitRequest> requests) {
+        if (requests.size() > batchMax) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "单次最多提交" + batchMax + "条记录");
         }
-        return ids;
+        RecordBatchResult result = new RecordBatchResult();
+        Long[] ids = new Long[requests.size()];
+        String[] codes = new String[requests.size()];
+        boolean unavailable = false;
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, requests.size());
+            List<InspectionRecord> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(buildRecord(requests.get(i)));
+            }
+            boolean written = false;
+            if (!unavailable && !ingestWal.isBuffering()) {
+                try {
+                    for (Integer failed : recordBatchWriter.write(chunk)) {
+                        result.addFail(from + failed, "写入失败");
+                    }
+                    written = true;
+                } catch (RuntimeException e) {
+                    if (!IngestWal.isDatabaseUnavailable(e)) {
+                        throw e;
+                    }
+                    unavailable = true;
+                }
+            }
+            // 数据库不可用或日志有积压：本块及后续块转存写前日志，未启用时标记失败
+            if (!written) {
+                if (!ingestWal.isEnabled()) {
+                    for (int i = from; i < to; i++) {
+                        result.addFail(i, "数据库不可用");
+                    }
+                    continue;
+                }
+                ingestWal.appendRecords(chunk);
+                result.setQueuedCount(result.getQueuedCount() + chunk.size());
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                ids[from + i] = chunk.get(i).getRecordId();
+                codes[from + i] = chunk.get(i).getRecordCode();
+            }
+        }
+        for (RecordBatchResult.FailItem fail : result.getFailList()) {
+            codes[fail.getIndex()] = null;
+        }
+        result.setRecordIds(Arrays.asList(ids));
+        result.setRecordCodes(Arrays.asList(codes));
+        result.setSuccessCount(requests.size() - result.getFailCount() - result.getQueuedCount());
+        return result;
     }
 
     @Override
     public PageResult<?> getRecordsByTask(Long taskId, PageQuery pageQuery) {
-        Page<InspectionRecord> page = new Page<>(pageQuery.getPage(), pageQuery.getPageSize());
+        PageResult<InspectionRecord> result = queryRecordsByTask(taskId, pageQuery);
+        thumbnailGenerator.fillThumbnailUrls(result.getRecords(), InspectionRecord::getPhotoUrls, InspectionRecord::setThumbnailUrls);
+        return result;
+    }
+
+    /**
+     * 按任务时间限定 check_time 下界以裁剪分区；任务早于归档分界时合并归档文件中的记录
+     */
+    private PageResult<InspectionRecord> queryRecordsByTask(Long taskId, PageQuery pageQuery) {
+        LocalDateTime since = taskStartBound(taskId);
+        if (since != null && recordArchiver.isEnabled() && since.isBefore(recordArchiver.cutoff())) {
+            return getArchivedRecordsByTask(taskId, since, pageQuery);
+        }
 
         LambdaQueryWrapper<InspectionRecord> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(InspectionRecord::getTaskId, taskId)
-                .orderByDesc(InspectionRecord::getCheckTime);
+        wrapper.eq(InspectionRecord::getTaskId, taskId);
+        wrapper.ge(since != null, InspectionRecord::getCheckTime, since);
+
+        // 游标分页按 (检查时间, 主键) 倒序，与 idx_task_id(task_id, check_time) 一致，不做文件排序
+        if (pageQuery.isCursorMode()) {
+            return KeysetPager.page(recordMapper, wrapper, pageQuery,
+                    InspectionRecord::getCheckTime, InspectionRecord::getRecordId);
+        }
+
+        Page<InspectionRecord> page = pageTotalResolver.newPage(pageQuery);
+        wrapper.orderByDesc(InspectionRecord::getCheckTime);
 
         Page<InspectionRecord> result = recordMapper.selectPage(page, wrapper);
 
-        return PageResult.<InspectionRecord>builder()
-                .records(result.getRecords())
-                .total(result.getTotal())
-                .page(result.getCurrent())
-                .pageSize(result.getSize())
-                .pages(result.getPages())
+        return pageTotalResolver.build(result, pageQuery,
+                PageTotalResolver.filterKey("record", taskId),
+                () -> recordMapper.selectCount(new LambdaQueryWrapper<InspectionRecord>()
+                        .eq(InspectionRecord::getTaskId, taskId)
+                        .ge(since != null, InspectionRecord::getCheckTime, since)));
+    }
+
+    /**
+     * 任务的记录不早于任务创建/计划开始时间
+     */
+    private LocalDateTime taskStartBound(Long taskId) {
+        InspectionTask task = taskMapper.selectOne(new LambdaQueryWrapper<InspectionTask>()
+                .select(InspectionTask::getTaskId, InspectionTask::getCreateTime, InspectionTask::getPlannedStartTime)
+                .eq(InspectionTask::getTaskId, taskId));
+        if (task == null) {
+            return null;
+        }
+        LocalDateTime created = task.getCreateTime();
+        LocalDateTime planned = task.getPlannedStartTime();
+        if (created == null || planned == null) {
+            return created != null ? created : planned;
+        }
+        return created.isBefore(planned) ? created : planned;
+    }
+
+    /**
+     * 历史任务：库中记录(按任务开始时间限定，不按归档分界)与归档文件合并，按主键去重。
+     * 归档写出到删除分区之间两侧有相同记录，去重后既不重复也不遗漏；
+     * 两侧各取当前位置之后的前N条再合并，不加载任务的全部记录
+     */
+    private PageResult<InspectionRecord> getArchivedRecordsByTask(Long taskId, LocalDateTime since, PageQuery pageQuery) {
+        if (pageQuery.isCursorMode()) {
+            int size = KeysetPager.pageSize(pageQuery);
+            PageCursor cursor = PageCursor.decode(pageQuery.getAfter());
+            LocalDateTime beforeTime = cursor == null ? null : KeysetPager.sortValue(cursor);
+            Long beforeId = cursor == null ? null : cursor.getId();
+
+            PageResult<InspectionRecord> db = KeysetPager.page(recordMapper, taskRecords(taskId, since), pageQuery,
+                    InspectionRecord::getCheckTime, InspectionRecord::getRecordId);
+            List<InspectionRecord> merged = merge(db.getRecords(),
+                    recordArchiver.findByTask(taskId, since, beforeTime, beforeId, size + 1));
+            return KeysetPager.slice(merged, Boolean.TRUE.equals(db.getHasMore()), size,
+                    InspectionRecord::getCheckTime, InspectionRecord::getRecordId);
+        }
+
+        int size = pageQuery.getPageSize();
+        int offset = (pageQuery.getPage() - 1) * size;
+        List<InspectionRecord> dbRows = recordMapper.selectList(taskRecords(taskId, since)
+                .orderByDesc(InspectionRecord::getCheckTime)
+                .orderByDesc(InspectionRecord::getRecordId)
+                .last("LIMIT " + (offset + size)));
+        List<InspectionRecord> merged = merge(dbRows,
+                recordArchiver.findByTask(taskId, since, null, null, offset + size));
+
+        Page<InspectionRecord> page = pageTotalResolver.newPage(pageQuery);
+        page.setRecords(merged.subList(Math.min(offset, merged.size()), Math.min(offset + size, merged.size())));
+        if (pageQuery.isExactTotal()) {
+            page.setTotal(countArchivedRecordsByTask(taskId, since));
+        }
+        return pageTotalResolver.build(page, pageQuery,
+                PageTotalResolver.filterKey("record", taskId, "archived"),
+                () -> countArchivedRecordsByTask(taskId, since));
+    }
+
+    private LambdaQueryWrapper<InspectionRecord> taskRecords(Long taskId, LocalDateTime since) {
+        return new LambdaQueryWrapper<InspectionRecord>()
+                .eq(InspectionRecord::getTaskId, taskId)
+                .ge(InspectionRecord::getCheckTime, since);
+    }
+
+    /**
+     * 合并库中与归档记录，按检查时间、主键倒序，同一主键只保留一条
+     */
+    private static List<InspectionRecord> merge(List<InspectionRecord> dbRows, List<InspectionRecord> archived) {
+        Map<Long, InspectionRecord> byId = new LinkedHashMap<>();
+        dbRows.forEach(r -> byId.putIfAbsent(r.getRecordId(), r));
+        archived.forEach(r -> byId.putIfAbsent(r.getRecordId(), r));
+        List<InspectionRecord> merged = new ArrayList<>(byId.values());
+        merged.sort(RecordArchiver.ORDER);
+        return merged;
+    }
+
+    /**
+     * 归档记录数 + 归档覆盖范围之后的库中记录数(覆盖范围内的库中记录与归档重复)
+     */
+    private long countArchivedRecordsByTask(Long taskId, LocalDateTime since) {
+        RecordArchiver.ArchivedCount archived = recordArchiver.countByTask(taskId, since);
+        LocalDateTime dbFrom = archived.archivedUntil() != null && archived.archivedUntil().isAfter(since)
+                ? archived.archivedUntil() : since;
+        return archived.count() + recordMapper.selectCount(taskRecords(taskId, dbFrom));
+    }
+
+    private RecordSubmitResult queued(InspectionRecord record, boolean persisted) {
+        return RecordSubmitResult.builder()
+                .recordCode(record.getRecordCode())
+                .queued(true)
+                .persisted(persisted)
                 .build();
     }
+
+    private InspectionRecord buildRecord(RecordSubmitRequest request) {
+        InspectionRecord record = new InspectionRecord();
+        record.setRecordCode(businessCodeGenerator.next(BusinessCodeGenerator.CodeType.RECORD));
+        record.setTaskId(request.getTaskId());
+        record.setDeviceId(request.getDeviceId());
+        record.setItemId(request.getItemId());
+        record.setCheckValue(request.getCheckValue());
+        record.setCheckResult(request.getCheckResult());
+        record.setDescription(request.getDescription());
+        record.setPhotoUrls(request.getPhotoUrls());
+        // 与DATETIME列精度一致，按(记录编码, 检查时间)回查时可精确匹配
+        record.setCheckTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        record.setIsOffline(0);
+        return record;
+    }
 }
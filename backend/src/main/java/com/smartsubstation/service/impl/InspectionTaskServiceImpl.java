@@ -4,37 +4,51 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.JwtClaims;
 import com.smartsubstation.dto.PageQuery;
 import com.smartsubstation.dto.PageResult;
 import com.smartsubstation.entity.InspectionTask;
 import com.smartsubstation.mapper.InspectionTaskMapper;
 import com.smartsubstation.service.IInspectionTaskService;
+import com.smartsubstation.service.support.KeysetPager;
+import com.smartsubstation.service.support.MyTaskCache;
+import com.smartsubstation.service.support.PageTotalResolver;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 巡检任务服务实现
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class InspectionTaskServiceImpl extends ServiceImpl<InspectionTaskMapper, InspectionTask>
         implements IInspectionTaskService {
 
+    private final PageTotalResolver pageTotalResolver;
+    private final MyTaskCache myTaskCache;
+
     @Override
     public PageResult<?> pageQuery(PageQuery pageQuery) {
-        Page<InspectionTask> page = new Page<>(pageQuery.getPage(), pageQuery.getPageSize());
+        if (pageQuery.isCursorMode()) {
+            return KeysetPager.page(baseMapper, new LambdaQueryWrapper<>(), pageQuery,
+                    InspectionTask::getCreateTime, InspectionTask::getTaskId);
+        }
+
+        Page<InspectionTask> page = pageTotalResolver.newPage(pageQuery);
         Page<InspectionTask> result = this.page(page, null);
 
-        return PageResult.<InspectionTask>builder()
-                .records(result.getRecords())
-                .total(result.getTotal())
-                .page(result.getCurrent())
-                .pageSize(result.getSize())
-                .pages(result.getPages())
-                .build();
+        return pageTotalResolver.build(result, pageQuery,
+                PageTotalResolver.filterKey("task"),
+                () -> this.count());
     }
 
     @Override
@@ -46,10 +60,69 @@ public class InspectionTaskServiceImpl extends ServiceImpl<InspectionTaskMapper,
         return task;
     }
 
+    /**
+     * 按未结束状态(或active)查询时从执行人缓存分页，其余按 执行人(+状态)+计划开始时间 索引查询
+     */
     @Override
-    public PageResult<?> getMyTasks(PageQuery pageQuery) {
-        // TODO: 实现获取当前用户任务的逻辑
-        return pageQuery(pageQuery);
+    public PageResult<?> getMyTasks(PageQuery pageQuery, String status) {
+        Long assigneeId = currentUserId();
+        if (assigneeId == null) {
+            throw new BusinessException(ResultCode.UNAUTHORIZED);
+        }
+        if (isActive(status) && !pageQuery.isCursorMode()) {
+            return pageActive(assigneeId, status, pageQuery);
+        }
+
+        LambdaQueryWrapper<InspectionTask> wrapper = myTasksFilter(assigneeId, status);
+        if (pageQuery.isCursorMode()) {
+            return KeysetPager.page(baseMapper, wrapper, pageQuery,
+                    InspectionTask::getPlannedStartTime, InspectionTask::getTaskId);
+        }
+
+        Page<InspectionTask> page = pageTotalResolver.newPage(pageQuery);
+        Page<InspectionTask> result = this.page(page, wrapper
+                .orderByDesc(InspectionTask::getPlannedStartTime)
+                .orderByDesc(InspectionTask::getTaskId));
+
+        return pageTotalResolver.build(result, pageQuery,
+                PageTotalResolver.filterKey("task:my", assigneeId, status),
+                () -> this.count(myTasksFilter(assigneeId, status)));
+    }
+
+    private static boolean isActive(String status) {
+        return MyTaskCache.ACTIVE.equals(status) || MyTaskCache.ACTIVE_STATUSES.contains(status);
+    }
+
+    /**
+     * 执行人任务过滤条件(不含排序)
+     */
+    private LambdaQueryWrapper<InspectionTask> myTasksFilter(Long assigneeId, String status) {
+        return new LambdaQueryWrapper<InspectionTask>()
+                .eq(InspectionTask::getAssigneeId, assigneeId)
+                .in(MyTaskCache.ACTIVE.equals(status), InspectionTask::getStatus, MyTaskCache.ACTIVE_STATUSES)
+                .eq(status != null && !status.isBlank() && !MyTaskCache.ACTIVE.equals(status),
+                        InspectionTask::getStatus, status);
+    }
+
+    /**
+     * 从执行人未结束任务缓存中按状态过滤(active不过滤)后内存分页，总数精确
+     */
+    private PageResult<InspectionTask> pageActive(Long assigneeId, String status, PageQuery pageQuery) {
+        List<InspectionTask> tasks = myTaskCache.activeTasks(assigneeId).stream()
+                .filter(task -> MyTaskCache.ACTIVE.equals(status) || status.equals(task.getStatus()))
+                .toList();
+        int pageNum = Math.max(1, pageQuery.getPage());
+        int pageSize = Math.max(1, pageQuery.getPageSize());
+        int from = (int) Math.min((long) (pageNum - 1) * pageSize, tasks.size());
+        int to = Math.min(from + pageSize, tasks.size());
+        return PageResult.<InspectionTask>builder()
+                .records(tasks.subList(from, to))
+                .total((long) tasks.size())
+                .totalExact(true)
+                .page(pageNum)
+                .pageSize(pageSize)
+                .pages((tasks.size() + pageSize - 1) / pageSize)
+                .build();
     }
 
     @Override
@@ -66,7 +139,9 @@ public class InspectionTaskServiceImpl extends ServiceImpl<InspectionTaskMapper,
 
         task.setStatus("in_progress");
         task.setActualStartTime(LocalDateTime.now());
-        return this.updateById(task);
+        boolean updated = this.updateById(task);
+        myTaskCache.evict(task.getAssigneeId());
+        return updated;
     }
 
     @Override
@@ -84,7 +159,9 @@ public class InspectionTaskServiceImpl extends ServiceImpl<InspectionTaskMapper,
         task.setStatus("completed");
         task.setActualEndTime(LocalDateTime.now());
         task.setProgress(100);
-        return this.updateById(task);
+        boolean updated = this.updateById(task);
+        myTaskCache.evict(task.getAssigneeId());
+        return updated;
     }
 
     @Override
@@ -96,12 +173,22 @@ public class InspectionTaskServiceImpl extends ServiceImpl<InspectionTaskMapper,
         }
 
         task.setStatus("cancelled");
-        return this.updateById(task);
+        boolean updated = this.updateById(task);
+        myTaskCache.evict(task.getAssigneeId());
+        return updated;
     }
 
     @Override
     public Long createFromPlan(Long planId) {
-        // TODO: 根据计划创建任务
+        // TODO: 根据计划创建任务(创建后调用 myTaskCache.evict 刷新执行人缓存)
+        return null;
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof JwtClaims claims) {
+            return claims.getUserId();
+        }
         return null;
     }
 }
@@ -11,12 +11,18 @@ import com.smartsubstation.dto.SubStationSaveRequest;
 import com.smartsubstation.entity.SubStation;
 import com.smartsubstation.mapper.SubStationMapper;
 import com.smartsubstation.service.ISubStationService;
+import com.smartsubstation.service.support.KeywordSearchIndex;
+import com.smartsubstation.service.support.KeysetPager;
+import com.smartsubstation.service.support.PageTotalResolver;
+import com.smartsubstation.service.support.SortColumns;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 /**
  * 变电站服务实现
  */
@@ -26,37 +32,53 @@ import org.springframework.transaction.annotation.Transactional;
 public class SubStationServiceImpl implements ISubStationService {
 
     private final SubStationMapper stationMapper;
+    private final PageTotalResolver pageTotalResolver;
+    private final KeywordSearchIndex keywordSearchIndex;
 
     @Override
     public PageResult<?> pageQuery(PageQuery pageQuery) {
-        Page<SubStation> page = new Page<>(pageQuery.getPage(), pageQuery.getPageSize());
-
-        LambdaQueryWrapper<SubStation> wrapper = new LambdaQueryWrapper<>();
+        LambdaQueryWrapper<SubStation> wrapper = buildFilter(pageQuery);
 
-        // 搜索条件
-        if (StrUtil.isNotBlank(pageQuery.getKeyword())) {
-            wrapper.and(w -> w.like(SubStation::getStationCode, pageQuery.getKeyword())
-                    .or()
-                    .like(SubStation::getStationName, pageQuery.getKeyword()));
+        // 游标分页固定按创建时间倒序
+        if (pageQuery.isCursorMode()) {
+            return KeysetPager.page(stationMapper, wrapper, pageQuery, SubStation::getCreateTime, SubStation::getStationId);
         }
 
+        Page<SubStation> page = pageTotalResolver.newPage(pageQuery);
+
         // 排序
         if (StrUtil.isNotBlank(pageQuery.getSortField())) {
-            boolean isAsc = "asc".equalsIgnoreCase(pageQuery.getSortOrder());
-            wrapper.orderBy(true, isAsc, pageQuery.getSortField());
+            page.addOrder(SortColumns.orderItem(SubStation.class, pageQuery.getSortField(), pageQuery.getSortOrder()));
         } else {
             wrapper.orderByDesc(SubStation::getCreateTime);
         }
 
         Page<SubStation> result = stationMapper.selectPage(page, wrapper);
 
-        return PageResult.<SubStation>builder()
-                .records(result.getRecords())
-                .total(result.getTotal())
-                .page(result.getCurrent())
-                .pageSize(result.getSize())
-                .pages(result.getPages())
-                .build();
+        return pageTotalResolver.build(result, pageQuery,
+                PageTotalResolver.filterKey("station", pageQuery.getKeyword()),
+                () -> stationMapper.selectCount(buildFilter(pageQuery)));
+    }
+
+    /**
+     * 列表过滤条件(不含排序)
+     */
+    private LambdaQueryWrapper<SubStation> buildFilter(PageQuery pageQuery) {
+        LambdaQueryWrapper<SubStation> wrapper = new LambdaQueryWrapper<>();
+        // 搜索条件：先由检索索引缩小到候选主键，LIKE只在候选行上复核
+        if (StrUtil.isNotBlank(pageQuery.getKeyword())) {
+            List<Long> candidates = keywordSearchIndex.search(KeywordSearchIndex.Scope.STATION, pageQuery.getKeyword());
+            if (candidates != null) {
+                if (candidates.isEmpty()) {
+                    return wrapper.apply("1 = 0");
+                }
+                wrapper.in(SubStation::getStationId, candidates);
+            }
+            wrapper.and(w -> w.like(SubStation::getStationCode, pageQuery.getKeyword())
+                    .or()
+                    .like(SubStation::getStationName, pageQuery.getKeyword()));
+        }
+        return wrapper;
     }
 
     @Override
@@ -86,7 +108,12 @@ public class SubStationServiceImpl implements ISubStationService {
             }
         }
 
-        stationMapper.insertOrUpdate(station);
+        if (station.getStationId() == null) {
+            stationMapper.insert(station);
+        } else {
+            stationMapper.updateById(station);
+        }
+        keywordSearchIndex.changed(KeywordSearchIndex.Scope.STATION, station.getStationId());
         return station.getStationId();
     }
 
@@ -94,6 +121,9 @@ public class SubStationServiceImpl implements ISubStationService {
     @Transactional(rollbackFor = Exception.class)
     public Boolean delete(Long stationId) {
         int rows = stationMapper.deleteById(stationId);
+        if (rows > 0) {
+            keywordSearchIndex.changed(KeywordSearchIndex.Scope.STATION, stationId);
+        }
         return rows > 0;
     }
 
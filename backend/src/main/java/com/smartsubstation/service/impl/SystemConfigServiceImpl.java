@@ -1,5 +1,6 @@
 package com.smartsubstation.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.smartsubstation.entity.SysConfig;
 import com.smartsubstation.mapper.SysConfigMapper;
 import com.smartsubstation.service.ISystemConfigService;
@@ -25,7 +26,9 @@ public class SystemConfigServiceImpl implements ISystemConfigService {
     @Override
     public String getConfig(String configKey) {
         SysConfig config = configMapper.selectOne(
-                "config_key = #{configKey} and status = 1"
+                new LambdaQueryWrapper<SysConfig>()
+                        .eq(SysConfig::getConfigKey, configKey)
+                        .eq(SysConfig::getStatus, 1)
         );
 
         if (config != null) {
@@ -40,7 +43,8 @@ public class SystemConfigServiceImpl implements ISystemConfigService {
     @Transactional(rollbackFor = Exception.class)
     public Boolean updateConfig(String configKey, String configValue) {
         SysConfig config = configMapper.selectOne(
-                "config_key = #{configKey}"
+                new LambdaQueryWrapper<SysConfig>()
+                        .eq(SysConfig::getConfigKey, configKey)
         );
 
         if (config != null) {
@@ -59,14 +63,18 @@ public class SystemConfigServiceImpl implements ISystemConfigService {
     @Override
     public List<?> getAllConfigs() {
         return configMapper.selectList(
-                "status = 1 order by group_name, config_key"
+                new LambdaQueryWrapper<SysConfig>()
+                        .eq(SysConfig::getStatus, 1)
+                        .orderByAsc(SysConfig::getGroupName, SysConfig::getConfigKey)
         );
     }
 
     @Override
     public Map<String, String> getConfigsByGroup(String groupName) {
         List<SysConfig> configs = configMapper.selectList(
-                "group_name = #{groupName} and status = 1"
+                new LambdaQueryWrapper<SysConfig>()
+                        .eq(SysConfig::getGroupName, groupName)
+                        .eq(SysConfig::getStatus, 1)
         );
 
         Map<String, String> result = new HashMap<>();
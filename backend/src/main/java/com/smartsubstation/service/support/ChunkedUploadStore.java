@@ -0,0 +1,215 @@
+package com.smartsubstation.service.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 分片上传会话存储
+ *
+ * 每个会话一个目录(位于存储根目录的工作目录下，与存储文件同一文件系统)：
+ * data 按文件大小预分配，分片按偏移直接定位写入；received 每个分片一个字节标记是否已收到；
+ * meta.json 记录会话信息。重传只需补发缺少的分片，全部收到后data改名即成为存储文件，不再拼接复制。
+ * 会话状态都在磁盘上，服务重启后可继续上传；完成后只保留结果，过期统一清理
+ */
+@Slf4j
+@Component
+public class ChunkedUploadStore {
+
+    private static final String WORK_DIR = "chunks";
+    private static final String META_FILE = "meta.json";
+    private static final String DATA_FILE = "data";
+    private static final String RECEIVED_FILE = "received";
+    private static final String CLAIMED_FILE = "data.claimed";
+    private static final String RESULT_FILE = "result.json";
+
+    private final ContentStore contentStore;
+    private final ObjectMapper objectMapper;
+    private final Duration expire;
+
+    private Path dir;
+
+    /**
+     * 会话信息
+     */
+    public record Session(String uploadId, String owner, String fileName, long fileSize, int chunkSize,
+                          int chunkCount, String md5, String businessType, Long businessId,
+                          LocalDateTime offlineCreateTime) {
+
+        public long offsetOf(int index) {
+            return (long) index * chunkSize;
+        }
+
+        public int lengthOf(int index) {
+            return (int) Math.min(chunkSize, fileSize - offsetOf(index));
+        }
+    }
+
+    public ChunkedUploadStore(ContentStore contentStore,
+                              ObjectMapper objectMapper,
+                              @Value("${file.chunk.expire:24h}") Duration expire) {
+        this.contentStore = contentStore;
+        this.objectMapper = objectMapper;
+        this.expire = expire;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        dir = contentStore.workDir(WORK_DIR);
+    }
+
+    /**
+     * 创建会话，预分配数据文件
+     */
+    public Session create(String owner, String fileName, long fileSize, int chunkSize, String md5,
+                          String businessType, Long businessId, LocalDateTime offlineCreateTime) throws IOException {
+        int chunkCount = (int) ((fileSize + chunkSize - 1) / chunkSize);
+        Session session = new Session(UUID.randomUUID().toString().replace("-", ""), owner, fileName, fileSize,
+                chunkSize, chunkCount, md5, businessType, businessId, offlineCreateTime);
+        Path sessionDir = dir.resolve(session.uploadId());
+        Files.createDirectories(sessionDir);
+        try (RandomAccessFile data = new RandomAccessFile(sessionDir.resolve(DATA_FILE).toFile(), "rw");
+             RandomAccessFile received = new RandomAccessFile(sessionDir.resolve(RECEIVED_FILE).toFile(), "rw")) {
+            data.setLength(fileSize);
+            received.setLength(chunkCount);
+        }
+        // meta最后写入，有meta即表示会话完整
+        objectMapper.writeValue(sessionDir.resolve(META_FILE).toFile(), session);
+        return session;
+    }
+
+    /**
+     * 加载会话，不存在时返回null
+     */
+    public Session load(String uploadId) throws IOException {
+        if (uploadId == null || !uploadId.matches("[0-9a-f]{32}")) {
+            return null;
+        }
+        Path meta = dir.resolve(uploadId).resolve(META_FILE);
+        if (!Files.exists(meta)) {
+            return null;
+        }
+        return objectMapper.readValue(meta.toFile(), Session.class);
+    }
+
+    /**
+     * 按偏移写入分片并标记已收到；不同分片可并发写入
+     */
+    public void write(Session session, int index, byte[] data) throws IOException {
+        Path sessionDir = dir.resolve(session.uploadId());
+        try (FileChannel channel = FileChannel.open(sessionDir.resolve(DATA_FILE), StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            long position = session.offsetOf(index);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(sessionDir.resolve(RECEIVED_FILE), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1}), index);
+        }
+    }
+
+    /**
+     * 已收到的分片
+     */
+    public BitSet received(Session session) throws IOException {
+        byte[] flags = Files.readAllBytes(dir.resolve(session.uploadId()).resolve(RECEIVED_FILE));
+        BitSet received = new BitSet(session.chunkCount());
+        for (int i = 0; i < flags.length && i < session.chunkCount(); i++) {
+            if (flags[i] != 0) {
+                received.set(i);
+            }
+        }
+        return received;
+    }
+
+    /**
+     * 取走数据文件用于组装，同一会话只有一个请求能取到
+     *
+     * @return 数据文件，已被取走时返回null
+     */
+    public Path claim(Session session) throws IOException {
+        Path sessionDir = dir.resolve(session.uploadId());
+        Path claimed = sessionDir.resolve(CLAIMED_FILE);
+        try {
+            Files.move(sessionDir.resolve(DATA_FILE), claimed, StandardCopyOption.ATOMIC_MOVE);
+            return claimed;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 记录完成结果，会话保留到过期，重复的完成请求直接返回该结果
+     */
+    public void complete(Session session, Object result) throws IOException {
+        objectMapper.writeValue(dir.resolve(session.uploadId()).resolve(RESULT_FILE).toFile(), result);
+    }
+
+    /**
+     * 完成结果，未完成时返回null
+     */
+    public <T> T result(Session session, Class<T> type) throws IOException {
+        Path file = dir.resolve(session.uploadId()).resolve(RESULT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        return objectMapper.readValue(file.toFile(), type);
+    }
+
+    public void delete(String uploadId) {
+        try {
+            FileSystemUtils.deleteRecursively(dir.resolve(uploadId));
+        } catch (IOException e) {
+            log.warn("分片上传会话删除失败: uploadId={}, error={}", uploadId, e.getMessage());
+        }
+    }
+
+    /**
+     * 清理过期会话(按最后一次收到分片的时间)
+     */
+    @Scheduled(fixedDelayString = "${file.chunk.cleanup-interval:3600000}")
+    public void cleanup() {
+        Instant deadline = Instant.now().minus(expire);
+        List<Path> sessions;
+        try (Stream<Path> list = Files.list(dir)) {
+            sessions = list.filter(Files::isDirectory).toList();
+        } catch (IOException e) {
+            log.warn("分片上传会话扫描失败: {}", e.getMessage());
+            return;
+        }
+        for (Path sessionDir : sessions) {
+            try {
+                Path received = sessionDir.resolve(RECEIVED_FILE);
+                Path marker = Files.exists(received) ? received : sessionDir;
+                if (Files.getLastModifiedTime(marker).toInstant().isBefore(deadline)) {
+                    delete(sessionDir.getFileName().toString());
+                    log.info("分片上传会话已过期删除: {}", sessionDir.getFileName());
+                }
+            } catch (IOException e) {
+                log.warn("分片上传会话清理失败: dir={}, error={}", sessionDir, e.getMessage());
+            }
+        }
+    }
+}
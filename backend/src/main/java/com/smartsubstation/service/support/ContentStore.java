@@ -0,0 +1,162 @@
+package com.smartsubstation.service.support;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * 按内容寻址的文件存储
+ *
+ * 文件按MD5存放在 upload-path/ab/cd/&lt;md5&gt;.&lt;ext&gt;，两级目录各256个，单目录文件数可控；
+ * 相同内容只存一份。上传内容先流式读取计算MD5(只读不写)，确认不存在后才转存：
+ * 容器暂存文件与存储目录在同一文件系统时为改名，否则复制一次，最后原子移动到目标路径
+ */
+@Slf4j
+@Component
+public class ContentStore {
+
+    private static final String STAGING_DIR = ".staging";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${file.upload-path:./uploads}")
+    private String uploadPath;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Path.of(uploadPath).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve(STAGING_DIR));
+    }
+
+    /**
+     * 流式计算MD5
+     */
+    public String md5(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            digest.update(buffer, 0, n);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 内容对应的相对路径
+     */
+    public String pathOf(String md5, String extension) {
+        String name = extension == null || extension.isEmpty() ? md5 : md5 + "." + extension;
+        return md5.substring(0, 2) + "/" + md5.substring(2, 4) + "/" + name;
+    }
+
+    /**
+     * 派生文件(缩略图等)的相对路径，与原文件同目录
+     */
+    public String variantPath(String md5, String variant, String extension) {
+        return pathOf(md5 + "_" + variant, extension);
+    }
+
+    public boolean exists(String relativePath) {
+        return Files.isRegularFile(resolve(relativePath));
+    }
+
+    /**
+     * 存入内容，目标已存在时跳过
+     *
+     * @return 本次是否写入了新文件
+     */
+    public boolean put(MultipartFile file, String relativePath) throws IOException {
+        Path target = resolve(relativePath);
+        if (Files.isRegularFile(target)) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        Path staging = root.resolve(STAGING_DIR).resolve(UUID.randomUUID().toString());
+        try {
+            // transferTo(File)走Servlet Part.write，同一文件系统时为改名
+            file.transferTo(staging.toFile());
+            moveInto(staging, target);
+            return true;
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * 移入本地文件(须在workDir中，改名即可)，目标已存在时删除源文件
+     *
+     * @return 本次是否写入了新文件
+     */
+    public boolean put(Path source, String relativePath) throws IOException {
+        Path target = resolve(relativePath);
+        if (Files.isRegularFile(target)) {
+            Files.deleteIfExists(source);
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        moveInto(source, target);
+        return true;
+    }
+
+    /**
+     * 写入小文件(派生图片)，先写暂存文件再原子移动，读取方不会看到半个文件
+     */
+    public void put(String relativePath, byte[] content) throws IOException {
+        Path target = resolve(relativePath);
+        Files.createDirectories(target.getParent());
+        Path staging = root.resolve(STAGING_DIR).resolve(UUID.randomUUID().toString());
+        try {
+            Files.write(staging, content);
+            moveInto(staging, target);
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * 存储根目录下的工作目录(以.开头，不对外访问)，与存储文件在同一文件系统
+     */
+    public Path workDir(String name) throws IOException {
+        Path dir = root.resolve("." + name);
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    /**
+     * 相对路径转绝对路径，拒绝越出存储根目录或指向工作目录的路径
+     */
+    public Path resolve(String relativePath) {
+        Path path = root.resolve(relativePath).normalize();
+        if (!path.startsWith(root) || path.equals(root) || root.relativize(path).getName(0).toString().startsWith(".")) {
+            throw new IllegalArgumentException("非法文件路径: " + relativePath);
+        }
+        return path;
+    }
+
+    private static void moveInto(Path staging, Path target) throws IOException {
+        try {
+            Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(staging, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
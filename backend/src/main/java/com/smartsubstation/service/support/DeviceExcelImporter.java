@@ -0,0 +1,306 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.BusinessCodeGenerator;
+import com.smartsubstation.dto.DeviceImportResult;
+import com.smartsubstation.entity.DeviceInfo;
+import com.smartsubstation.mapper.DeviceInfoMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 设备Excel导入器
+ *
+ * 使用POI事件模型逐行读取.xlsx，内存只保留当前分块；
+ * 每个分块一次查询校验编码唯一性，JDBC批处理插入，单独事务提交
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceExcelImporter {
+
+    private final DeviceInfoMapper deviceInfoMapper;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final BusinessCodeGenerator businessCodeGenerator;
+
+    @Value("${device.import.chunk-size:1000}")
+    private Integer chunkSize;
+
+    @Value("${device.import.max-rows:50000}")
+    private Integer maxRows;
+
+    private static final String COL_CODE = "设备编码";
+    private static final String COL_NAME = "设备名称";
+    private static final String COL_MODEL = "设备型号";
+    private static final String COL_MANUFACTURER = "制造商";
+    private static final String COL_CATEGORY = "设备分类ID";
+    private static final String COL_LOCATION = "安装位置";
+    private static final String COL_VOLTAGE = "额定电压";
+    private static final String COL_CURRENT = "额定电流";
+    private static final String COL_CAPACITY = "额定容量";
+    private static final String COL_COMMISSIONING = "投运日期";
+    private static final String COL_REMARK = "备注";
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("yyyy-M-d"),
+            DateTimeFormatter.ofPattern("yyyy/M/d"),
+            DateTimeFormatter.ofPattern("M/d/yy"));
+
+    /**
+     * 导入设备
+     *
+     * @param file      已落盘的.xlsx文件
+     * @param stationId 所属变电站ID
+     */
+    public DeviceImportResult importFile(File file, Long stationId) {
+        DeviceImportResult result = new DeviceImportResult();
+        RowHandler handler = new RowHandler(stationId, result);
+
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "Excel中没有工作表");
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(), strings, handler, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("设备导入文件解析失败: {}", e.getMessage());
+            throw new BusinessException(ResultCode.BAD_REQUEST, "Excel文件解析失败");
+        }
+        handler.flush();
+        return result;
+    }
+
+    /**
+     * 分块写入：一次查询过滤已存在编码，剩余行批量插入
+     */
+    private void writeChunk(List<PendingRow> chunk, DeviceImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<String> codes = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            codes.add(row.device.getDeviceCode());
+        }
+        Set<String> existing = new HashSet<>(deviceInfoMapper.selectExistingCodes(codes));
+
+        List<PendingRow> toInsert = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            if (existing.contains(row.device.getDeviceCode())) {
+                result.addFail(row.rowNum, "设备编码已存在");
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+                    DeviceInfoMapper batchMapper = session.getMapper(DeviceInfoMapper.class);
+                    for (PendingRow row : toInsert) {
+                        batchMapper.insertForImport(row.device);
+                    }
+                    session.flushStatements();
+                }
+            });
+            result.setSuccessCount(result.getSuccessCount() + toInsert.size());
+        } catch (Exception e) {
+            log.warn("设备导入分块写入失败: rows={}, error={}", toInsert.size(), e.getMessage());
+            for (PendingRow row : toInsert) {
+                result.addFail(row.rowNum, "写入失败，请重试");
+            }
+        }
+    }
+
+    private static final class PendingRow {
+        private final int rowNum;
+        private final DeviceInfo device;
+
+        private PendingRow(int rowNum, DeviceInfo device) {
+            this.rowNum = rowNum;
+            this.device = device;
+        }
+    }
+
+    /**
+     * 行处理：首行为表头，按列名映射字段
+     */
+    private final class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Long stationId;
+        private final DeviceImportResult result;
+
+        private final Map<Integer, String> columns = new HashMap<>();
+        private final Map<String, String> values = new HashMap<>();
+        private final Set<String> seenCodes = new HashSet<>();
+        private final List<PendingRow> chunk = new ArrayList<>();
+
+        private boolean headerRead;
+        private int dataRows;
+
+        private RowHandler(Long stationId, DeviceImportResult result) {
+            this.stationId = stationId;
+            this.result = result;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            values.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null || formattedValue == null) {
+                return;
+            }
+            int col = new CellReference(cellReference).getCol();
+            String value = formattedValue.trim();
+            if (!headerRead) {
+                columns.put(col, value);
+                return;
+            }
+            String column = columns.get(col);
+            if (column != null && !value.isEmpty()) {
+                values.put(column, value);
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!headerRead) {
+                headerRead = true;
+                if (!columns.containsValue(COL_CODE) || !columns.containsValue(COL_NAME)
+                        || !columns.containsValue(COL_CATEGORY)) {
+                    throw new BusinessException(ResultCode.BAD_REQUEST,
+                            "表头缺少必填列: " + COL_CODE + "/" + COL_NAME + "/" + COL_CATEGORY);
+                }
+                return;
+            }
+            if (values.isEmpty()) {
+                return;
+            }
+            int excelRow = rowNum + 1;
+            if (++dataRows > maxRows) {
+                result.addFail(excelRow, "超出单次导入上限" + maxRows + "行");
+                return;
+            }
+            String error = validate();
+            if (error != null) {
+                result.addFail(excelRow, error);
+                return;
+            }
+            chunk.add(new PendingRow(excelRow, toDevice()));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private String validate() {
+            String code = values.get(COL_CODE);
+            if (code == null) {
+                return "设备编码不能为空";
+            }
+            if (code.length() > 50) {
+                return "设备编码长度不能超过50";
+            }
+            if (values.get(COL_NAME) == null) {
+                return "设备名称不能为空";
+            }
+            String category = values.get(COL_CATEGORY);
+            if (category == null) {
+                return "设备分类不能为空";
+            }
+            try {
+                Long.parseLong(category);
+            } catch (NumberFormatException e) {
+                return "设备分类ID格式错误";
+            }
+            String date = values.get(COL_COMMISSIONING);
+            if (date != null && parseDate(date) == null) {
+                return "投运日期格式错误";
+            }
+            if (!seenCodes.add(code)) {
+                return "文件内设备编码重复";
+            }
+            return null;
+        }
+
+        private DeviceInfo toDevice() {
+            DeviceInfo device = new DeviceInfo();
+            device.setDeviceCode(values.get(COL_CODE));
+            device.setDeviceName(values.get(COL_NAME));
+            device.setDeviceModel(values.get(COL_MODEL));
+            device.setManufacturer(values.get(COL_MANUFACTURER));
+            device.setCategoryId(Long.valueOf(values.get(COL_CATEGORY)));
+            device.setStationId(stationId);
+            device.setLocation(values.get(COL_LOCATION));
+            device.setQrCode(businessCodeGenerator.next(BusinessCodeGenerator.CodeType.DEVICE));
+            device.setRatedVoltage(values.get(COL_VOLTAGE));
+            device.setRatedCurrent(values.get(COL_CURRENT));
+            device.setRatedCapacity(values.get(COL_CAPACITY));
+            String date = values.get(COL_COMMISSIONING);
+            device.setCommissioningDate(date == null ? null : parseDate(date));
+            device.setStatus(1);
+            device.setRemark(values.get(COL_REMARK));
+            return device;
+        }
+
+        private void flush() {
+            writeChunk(chunk, result);
+            chunk.clear();
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // 尝试下一种格式
+            }
+        }
+        return null;
+    }
+}
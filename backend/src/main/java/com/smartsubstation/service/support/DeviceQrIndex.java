@@ -0,0 +1,252 @@
+package com.smartsubstation.service.support;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.smartsubstation.dto.DeviceSnapshot;
+import com.smartsubstation.entity.DeviceInfo;
+import com.smartsubstation.mapper.DeviceInfoMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 设备二维码内存索引
+ *
+ * 启动时按主键分批加载全部设备快照，扫码查询直接命中内存；
+ * 设备变更在事务提交后刷新本节点并通过发布订阅通知其他节点，另有定时全量刷新兜底
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceQrIndex implements MessageListener {
+
+    private final DeviceInfoMapper deviceInfoMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String DEVICE_CHANGED_CHANNEL = "device:qr:changed";
+    private static final String RELOAD_ALL = "*";
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    /**
+     * 二维码 -> 设备快照
+     */
+    private volatile Map<String, DeviceSnapshot> byQrCode = new ConcurrentHashMap<>();
+
+    /**
+     * 设备ID -> 二维码(二维码变更或删除时定位旧条目)
+     */
+    private volatile Map<Long, String> qrCodeById = new ConcurrentHashMap<>();
+
+    /**
+     * 全量加载期间发生变更的设备，加载完成后补刷
+     */
+    private final Set<Long> changedDuringReload = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean loaded;
+    private volatile boolean reloading;
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(DEVICE_CHANGED_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("设备二维码索引加载失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按二维码查询设备快照
+     *
+     * 索引加载完成后只查内存，未命中即不存在(二维码接口允许匿名访问，随机二维码不能打到数据库)；
+     * 本节点变更在提交后同步刷新，其他节点通过通知和定时全量刷新追上。
+     * 仅在索引尚未加载完成时回查数据库
+     */
+    public DeviceSnapshot get(String qrCode) {
+        DeviceSnapshot snapshot = byQrCode.get(qrCode);
+        if (snapshot != null || loaded) {
+            return snapshot;
+        }
+        DeviceInfo device = deviceInfoMapper.selectOne(snapshotQuery().eq(DeviceInfo::getQrCode, qrCode));
+        return device == null ? null : DeviceSnapshot.from(device);
+    }
+
+    /**
+     * 设备已变更：事务提交后刷新本节点并通知其他节点
+     */
+    public void changed(Long deviceId) {
+        if (deviceId == null) {
+            return;
+        }
+        Runnable action = () -> {
+            refresh(deviceId);
+            try {
+                stringRedisTemplate.convertAndSend(DEVICE_CHANGED_CHANNEL, String.valueOf(deviceId));
+            } catch (Exception e) {
+                log.warn("设备变更通知发送失败: deviceId={}, error={}", deviceId, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 批量变更(如导入)：本节点全量重新加载并通知其他节点
+     */
+    public void changedAll() {
+        reload();
+        try {
+            stringRedisTemplate.convertAndSend(DEVICE_CHANGED_CHANNEL, RELOAD_ALL);
+        } catch (Exception e) {
+            log.warn("设备变更通知发送失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库刷新单个设备
+     */
+    public void refresh(Long deviceId) {
+        DeviceInfo device = deviceInfoMapper.selectOne(snapshotQuery().eq(DeviceInfo::getDeviceId, deviceId));
+        synchronized (this) {
+            if (reloading) {
+                changedDuringReload.add(deviceId);
+            }
+            remove(deviceId);
+            if (device != null) {
+                put(device);
+            }
+        }
+    }
+
+    /**
+     * 全量重新加载，完成后整体替换
+     */
+    public void reload() {
+        synchronized (this) {
+            reloading = true;
+            changedDuringReload.clear();
+        }
+        try {
+            Map<String, DeviceSnapshot> newByQrCode = new ConcurrentHashMap<>();
+            Map<Long, String> newQrCodeById = new ConcurrentHashMap<>();
+            long lastId = 0L;
+            while (true) {
+                List<DeviceInfo> batch = deviceInfoMapper.selectList(snapshotQuery()
+                        .gt(DeviceInfo::getDeviceId, lastId)
+                        .orderByAsc(DeviceInfo::getDeviceId)
+                        .last("LIMIT " + LOAD_BATCH_SIZE));
+                for (DeviceInfo device : batch) {
+                    if (device.getQrCode() != null) {
+                        newByQrCode.put(device.getQrCode(), DeviceSnapshot.from(device));
+                        newQrCodeById.put(device.getDeviceId(), device.getQrCode());
+                    }
+                }
+                if (batch.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+                lastId = batch.get(batch.size() - 1).getDeviceId();
+            }
+
+            synchronized (this) {
+                byQrCode = newByQrCode;
+                qrCodeById = newQrCodeById;
+                loaded = true;
+            }
+            log.info("设备二维码索引加载完成: count={}", newByQrCode.size());
+        } finally {
+            synchronized (this) {
+                reloading = false;
+            }
+        }
+
+        for (Long deviceId : changedDuringReload) {
+            refresh(deviceId);
+        }
+        changedDuringReload.clear();
+    }
+
+    public int size() {
+        return byQrCode.size();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            if (RELOAD_ALL.equals(body)) {
+                reload();
+            } else {
+                refresh(Long.valueOf(body));
+            }
+        } catch (Exception e) {
+            log.warn("设备二维码索引刷新失败: deviceId={}, error={}", body, e.getMessage());
+        }
+    }
+
+    /**
+     * 定时全量刷新，兜底直接修改数据库或丢失的通知
+     */
+    @Scheduled(fixedDelayString = "${device.qr-index.refresh-interval:1800000}", initialDelayString = "${device.qr-index.refresh-interval:1800000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("设备二维码索引定时刷新失败: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void put(DeviceInfo device) {
+        if (device.getQrCode() == null) {
+            return;
+        }
+        String previous = qrCodeById.put(device.getDeviceId(), device.getQrCode());
+        if (previous != null && !previous.equals(device.getQrCode())) {
+            byQrCode.remove(previous);
+        }
+        byQrCode.put(device.getQrCode(), DeviceSnapshot.from(device));
+    }
+
+    private synchronized void remove(Long deviceId) {
+        String qrCode = qrCodeById.remove(deviceId);
+        if (qrCode != null) {
+            byQrCode.remove(qrCode);
+        }
+    }
+
+    private LambdaQueryWrapper<DeviceInfo> snapshotQuery() {
+        return new LambdaQueryWrapper<DeviceInfo>()
+                .select(DeviceInfo::getDeviceId, DeviceInfo::getDeviceCode, DeviceInfo::getDeviceName,
+                        DeviceInfo::getDeviceModel, DeviceInfo::getCategoryId, DeviceInfo::getStationId,
+                        DeviceInfo::getLocation, DeviceInfo::getQrCode, DeviceInfo::getStatus,
+                        DeviceInfo::getVersion);
+    }
+}
@@ -0,0 +1,137 @@
+package com.smartsubstation.service.support;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * JPEG EXIF方向
+ *
+ * 手机照片通常按传感器方向存储像素，再用EXIF Orientation(1-8)标记显示方向；
+ * ImageIO解码时忽略该标记，生成派生图前需按方向旋转/翻转。只解析APP1中IFD0的方向标签
+ */
+final class ExifOrientation {
+
+    static final int NORMAL = 1;
+
+    private static final int SOI = 0xFFD8;
+    private static final int APP1 = 0xFFE1;
+    private static final int SOS = 0xFFDA;
+    private static final int EOI = 0xFFD9;
+    private static final int ORIENTATION_TAG = 0x0112;
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * 读取方向，非JPEG、无EXIF或格式异常时返回NORMAL
+     */
+    static int read(Path file) {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file))) {
+            DataInputStream in = new DataInputStream(stream);
+            if (in.readUnsignedShort() != SOI) {
+                return NORMAL;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == SOS || marker == EOI) {
+                    return NORMAL;
+                }
+                int length = in.readUnsignedShort();
+                if (length < 2) {
+                    return NORMAL;
+                }
+                if (marker == APP1) {
+                    byte[] data = in.readNBytes(length - 2);
+                    if (startsWith(data, EXIF_HEADER)) {
+                        return parseTiff(data, EXIF_HEADER.length);
+                    }
+                } else {
+                    in.skipNBytes(length - 2);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return NORMAL;
+        }
+    }
+
+    /**
+     * 按方向变换图片，NORMAL或未知值时原样返回
+     */
+    static BufferedImage apply(BufferedImage source, int orientation) {
+        if (orientation <= NORMAL || orientation > 8) {
+            return source;
+        }
+        int w = source.getWidth();
+        int h = source.getHeight();
+        boolean swap = orientation >= 5;
+        BufferedImage target = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int rgb = source.getRGB(x, y);
+                switch (orientation) {
+                    case 2 -> target.setRGB(w - 1 - x, y, rgb);
+                    case 3 -> target.setRGB(w - 1 - x, h - 1 - y, rgb);
+                    case 4 -> target.setRGB(x, h - 1 - y, rgb);
+                    case 5 -> target.setRGB(y, x, rgb);
+                    case 6 -> target.setRGB(h - 1 - y, x, rgb);
+                    case 7 -> target.setRGB(h - 1 - y, w - 1 - x, rgb);
+                    default -> target.setRGB(y, w - 1 - x, rgb);
+                }
+            }
+        }
+        return target;
+    }
+
+    private static int parseTiff(byte[] data, int tiff) {
+        if (data.length < tiff + 8) {
+            return NORMAL;
+        }
+        boolean little = data[tiff] == 'I' && data[tiff + 1] == 'I';
+        long ifd = tiff + readInt(data, tiff + 4, little);
+        if (ifd < 0 || ifd + 2 > data.length) {
+            return NORMAL;
+        }
+        int entries = readShort(data, (int) ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > data.length) {
+                return NORMAL;
+            }
+            if (readShort(data, entry, little) == ORIENTATION_TAG) {
+                return readShort(data, entry + 8, little);
+            }
+        }
+        return NORMAL;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean little) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return little ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static long readInt(byte[] data, int offset, boolean little) {
+        long high = readShort(data, little ? offset + 2 : offset, little);
+        long low = readShort(data, little ? offset : offset + 2, little);
+        return (high << 16) | low;
+    }
+}
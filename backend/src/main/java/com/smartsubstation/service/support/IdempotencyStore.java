@@ -0,0 +1,244 @@
+package com.smartsubstation.service.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 幂等提交(Idempotency-Key)
+ *
+ * 本地有界缓存在前，Redis占位在后：首次请求占位后执行，成功后保存结果；
+ * 重放直接返回首次结果，不再写库。占位TTL较短，执行期间按TTL的1/3续期，
+ * 批量提交耗时超过TTL也不会被重试重复执行；执行中途宕机时占位很快过期，不会长期阻塞重试。
+ * 结果尚未持久化(如仍在内存写入队列中)时不保存，以免之后丢失时重放仍返回成功。
+ * 使用独立连接与较短命令超时，Redis变慢时不拖慢提交；Redis不可用时不做去重，直接执行
+ */
+@Slf4j
+@Component
+public class IdempotencyStore implements DisposableBean {
+
+    /**
+     * 请求头名称
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String PENDING = "PENDING:";
+    private static final int MAX_KEY_LENGTH = 64;
+
+    /**
+     * 一次往返完成占位：已存在时返回现有值(结果或他人的占位)，否则写入占位并返回nil
+     */
+    private static final RedisScript<String> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('GET', KEYS[1]) "
+                    + "if v then return v end "
+                    + "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) "
+                    + "return false",
+            String.class);
+
+    /**
+     * 占位仍属于本次请求时续期
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end "
+                    + "return 0",
+            Long.class);
+
+    /**
+     * 占位仍属于本次请求时删除
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('DEL', KEYS[1]) end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingTtl;
+    private final Map<String, String> localCache;
+    private final ScheduledExecutorService renewExecutor;
+    private LettuceConnectionFactory connectionFactory;
+
+    @Autowired
+    public IdempotencyStore(LettuceConnectionFactory sharedConnectionFactory,
+                            ObjectMapper objectMapper,
+                            @Value("${idempotency.redis-timeout:300ms}") Duration redisTimeout,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.pending-ttl:30s}") Duration pendingTtl,
+                            @Value("${idempotency.local-max-entries:10000}") int localMaxEntries) {
+        this(RedisUtil.dedicatedConnectionFactory(sharedConnectionFactory, redisTimeout),
+                objectMapper, ttl, pendingTtl, localMaxEntries);
+    }
+
+    private IdempotencyStore(LettuceConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                             Duration ttl, Duration pendingTtl, int localMaxEntries) {
+        this(new StringRedisTemplate(connectionFactory), objectMapper, ttl, pendingTtl, localMaxEntries);
+        this.connectionFactory = connectionFactory;
+    }
+
+    IdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                     Duration ttl, Duration pendingTtl, int localMaxEntries) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.pendingTtl = pendingTtl;
+        this.localCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > localMaxEntries;
+            }
+        });
+        this.renewExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "idempotency-renew");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按幂等键执行，未携带幂等键时直接执行
+     *
+     * @param scope 业务类型
+     * @param key   客户端生成的幂等键(UUID)
+     */
+    public <T> T execute(String scope, String key, Class<T> type, Supplier<T> action) {
+        return execute(scope, key, type, action, result -> true);
+    }
+
+    /**
+     * 按幂等键执行，仅保存已持久化的结果
+     *
+     * @param persisted 结果是否已持久化；为false时不保存结果，占位不再续期，
+     *                  过期前的重复请求返回冲突，过期后可重新提交
+     */
+    public <T> T execute(String scope, String key, Class<T> type, Supplier<T> action, Predicate<T> persisted) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, HEADER + "过长");
+        }
+        String cacheKey = KEY_PREFIX + scope + ":" + currentUser() + ":" + key;
+
+        String cached = localCache.get(cacheKey);
+        if (cached != null) {
+            return read(cached, type);
+        }
+
+        String token = PENDING + UUID.randomUUID();
+        String stored;
+        try {
+            stored = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(cacheKey),
+                    token, String.valueOf(pendingTtl.toMillis()));
+        } catch (Exception e) {
+            log.warn("幂等键检查失败，跳过去重: key={}, error={}", cacheKey, e.getMessage());
+            return action.get();
+        }
+        if (stored != null) {
+            if (stored.startsWith(PENDING)) {
+                throw new BusinessException(ResultCode.CONFLICT, "请求正在处理，请稍后重试");
+            }
+            localCache.put(cacheKey, stored);
+            return read(stored, type);
+        }
+
+        T result;
+        ScheduledFuture<?> renewal = scheduleRenewal(cacheKey, token);
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            renewal.cancel(false);
+            release(cacheKey, token);
+            throw e;
+        }
+        renewal.cancel(false);
+        if (!persisted.test(result)) {
+            return result;
+        }
+        String value = write(result);
+        localCache.put(cacheKey, value);
+        try {
+            redisTemplate.opsForValue().set(cacheKey, value, ttl);
+        } catch (Exception e) {
+            log.warn("幂等结果保存失败: key={}, error={}", cacheKey, e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        renewExecutor.shutdownNow();
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    private ScheduledFuture<?> scheduleRenewal(String cacheKey, String token) {
+        long interval = Math.max(pendingTtl.toMillis() / 3, 1);
+        return renewExecutor.scheduleAtFixedRate(() -> {
+            try {
+                redisTemplate.execute(RENEW_SCRIPT, List.of(cacheKey), token, String.valueOf(pendingTtl.toMillis()));
+            } catch (Exception e) {
+                log.warn("幂等占位续期失败: key={}, error={}", cacheKey, e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void release(String cacheKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(cacheKey), token);
+        } catch (Exception e) {
+            log.warn("幂等键释放失败: key={}, error={}", cacheKey, e.getMessage());
+        }
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "anonymous" : authentication.getName();
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("幂等结果序列化失败", e);
+        }
+    }
+
+    private <T> T read(String value, Class<T> type) {
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("幂等结果反序列化失败", e);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.smartsubstation.service.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.entity.DefectInfo;
+import com.smartsubstation.entity.InspectionRecord;
+import com.smartsubstation.mapper.DefectInfoMapper;
+import com.smartsubstation.mapper.InspectionRecordMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 巡检记录/缺陷写前日志(数据库不可用时暂存转发)
+ *
+ * 数据库不可用时提交写入本地分段日志，落盘后即确认；日志有积压期间新的提交也写日志，保持顺序。
+ * 后台按顺序重放到数据库，按记录编码/缺陷编号跳过已存在的数据，重放可重复执行；
+ * 重放完成后提交消费位置并删除已消费的段。损坏或无法解析的条目隔离后跳过；
+ * 积压时长超过阈值时记录错误日志并在健康检查中报告DEGRADED
+ */
+@Slf4j
+@Component
+public class IngestWal {
+
+    private static final byte TYPE_RECORD = 1;
+    private static final byte TYPE_DEFECT = 2;
+
+    private final InspectionRecordMapper recordMapper;
+    private final DefectInfoMapper defectInfoMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final KeywordSearchIndex keywordSearchIndex;
+    private final MyTaskCache myTaskCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ingest.wal.enabled:false}")
+    private Boolean enabled;
+
+    @Value("${ingest.wal.dir:./data/wal}")
+    private String dir;
+
+    @Value("${ingest.wal.segment-size:67108864}")
+    private Integer segmentSize;
+
+    @Value("${ingest.wal.sync-timeout:5000}")
+    private Long syncTimeout;
+
+    @Value("${ingest.wal.replay-batch-size:200}")
+    private Integer replayBatchSize;
+
+    @Value("${ingest.wal.backlog-alert-age:600000}")
+    private Long backlogAlertAge;
+
+    private SegmentLog segmentLog;
+    private Counter appendedCounter;
+    private Counter replayedCounter;
+    private Counter skippedCounter;
+    private long lastAlertMillis;
+
+    public IngestWal(InspectionRecordMapper recordMapper,
+                     DefectInfoMapper defectInfoMapper,
+                     TransactionTemplate transactionTemplate,
+                     KeywordSearchIndex keywordSearchIndex,
+                     MyTaskCache myTaskCache,
+                     ObjectMapper objectMapper,
+                     MeterRegistry meterRegistry) {
+        this.recordMapper = recordMapper;
+        this.defectInfoMapper = defectInfoMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.keywordSearchIndex = keywordSearchIndex;
+        this.myTaskCache = myTaskCache;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        segmentLog = new SegmentLog(Path.of(dir), segmentSize);
+        Gauge.builder("ingest.wal.backlog", segmentLog, l -> l.hasBacklog() ? 1 : 0)
+                .description("写前日志是否有未重放数据")
+                .register(meterRegistry);
+        Gauge.builder("ingest.wal.segments", segmentLog, SegmentLog::segmentCount)
+                .description("写前日志段数")
+                .register(meterRegistry);
+        TimeGauge.builder("ingest.wal.backlog.age", segmentLog, TimeUnit.MILLISECONDS, SegmentLog::backlogAgeMillis)
+                .description("写前日志最早未重放数据的积压时长")
+                .register(meterRegistry);
+        FunctionCounter.builder("ingest.wal.corrupt", segmentLog, SegmentLog::corruptCount)
+                .description("校验失败被隔离到死信文件的条目数")
+                .register(meterRegistry);
+        appendedCounter = Counter.builder("ingest.wal.appended").description("写入日志的条目数").register(meterRegistry);
+        replayedCounter = Counter.builder("ingest.wal.replayed").description("重放入库的条目数").register(meterRegistry);
+        skippedCounter = Counter.builder("ingest.wal.skipped").description("无法入库被跳过的条目数").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (segmentLog != null) {
+            segmentLog.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return segmentLog != null;
+    }
+
+    /**
+     * 日志中有未重放的数据，新的提交应继续写日志
+     */
+    public boolean isBuffering() {
+        return segmentLog != null && segmentLog.hasBacklog();
+    }
+
+    /**
+     * 积压时长(毫秒)，未启用或无积压时为0
+     */
+    public long backlogAgeMillis() {
+        return segmentLog == null ? 0 : segmentLog.backlogAgeMillis();
+    }
+
+    /**
+     * 积压时长是否超过告警阈值
+     */
+    public boolean isBacklogStale() {
+        return backlogAgeMillis() > backlogAlertAge;
+    }
+
+    /**
+     * 是否为数据库不可用(连接失败、超时、主从切换等)，业务数据错误不算
+     */
+    public static boolean isDatabaseUnavailable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataAccessResourceFailureException
+                    || t instanceof TransientDataAccessException
+                    || t instanceof CannotCreateTransactionException
+                    || t instanceof SQLTransientException
+                    || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入巡检记录，落盘后返回
+     */
+    public void appendRecords(List<InspectionRecord> records) {
+        long position = 0;
+        for (InspectionRecord record : records) {
+            record.setRecordId(null);
+            position = append(TYPE_RECORD, record);
+        }
+        awaitDurable(position, records.size());
+    }
+
+    /**
+     * 写入缺陷，落盘后返回
+     */
+    public void appendDefect(DefectInfo defect) {
+        defect.setDefectId(null);
+        awaitDurable(append(TYPE_DEFECT, defect), 1);
+    }
+
+    /**
+     * 按顺序重放到数据库，数据库仍不可用时等待下次
+     */
+    @Scheduled(fixedDelayString = "${ingest.wal.replay-interval:1000}")
+    public void replay() {
+        if (segmentLog == null || !segmentLog.hasBacklog()) {
+            return;
+        }
+        try {
+            while (true) {
+                SegmentLog.Batch batch = segmentLog.read(replayBatchSize);
+                if (!batch.entries().isEmpty()) {
+                    apply(batch.entries());
+                }
+                segmentLog.commit(batch.next());
+                if (batch.entries().size() < replayBatchSize) {
+                    break;
+                }
+            }
+            if (!segmentLog.hasBacklog()) {
+                log.info("写前日志已全部重放");
+            }
+        } catch (Exception e) {
+            if (isDatabaseUnavailable(e)) {
+                log.debug("数据库仍不可用，稍后重放: {}", e.getMessage());
+            } else {
+                log.error("写前日志重放失败: {}", e.getMessage(), e);
+            }
+        }
+        alertIfStale();
+    }
+
+    /**
+     * 积压超过阈值时每分钟最多记录一次错误日志
+     */
+    private void alertIfStale() {
+        long age = backlogAgeMillis();
+        long now = System.currentTimeMillis();
+        if (age > backlogAlertAge && now - lastAlertMillis >= TimeUnit.MINUTES.toMillis(1)) {
+            lastAlertMillis = now;
+            log.error("写前日志积压超过告警阈值: age={}s, segments={}, corrupt={}",
+                    TimeUnit.MILLISECONDS.toSeconds(age), segmentLog.segmentCount(), segmentLog.corruptCount());
+        }
+    }
+
+    private long append(byte type, Object value) {
+        try {
+            long position = segmentLog.append(type, objectMapper.writeValueAsBytes(value));
+            appendedCounter.increment();
+            return position;
+        } catch (IOException e) {
+            log.error("写前日志写入失败: {}", e.getMessage(), e);
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private void awaitDurable(long position, int count) {
+        try {
+            segmentLog.awaitDurable(position, syncTimeout);
+        } catch (IOException e) {
+            log.error("写前日志刷盘失败: count={}, error={}", count, e.getMessage());
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * 连续的同类条目一批写入
+     */
+    private void apply(List<SegmentLog.Entry> entries) {
+        int from = 0;
+        while (from < entries.size()) {
+            byte type = entries.get(from).type();
+            int to = from;
+            while (to < entries.size() && entries.get(to).type() == type) {
+                to++;
+            }
+            List<SegmentLog.Entry> run = entries.subList(from, to);
+            if (type == TYPE_RECORD) {
+                List<InspectionRecord> records = new ArrayList<>(run.size());
+                for (SegmentLog.Entry entry : run) {
+                    InspectionRecord record = decode(entry, InspectionRecord.class);
+                    if (record != null) {
+                        records.add(record);
+                    }
+                }
+                if (!records.isEmpty()) {
+                    applyRecords(records);
+                }
+            } else if (type == TYPE_DEFECT) {
+                for (SegmentLog.Entry entry : run) {
+                    DefectInfo defect = decode(entry, DefectInfo.class);
+                    if (defect != null) {
+                        applyDefect(defect);
+                    }
+                }
+            } else {
+                log.error("未知的写前日志条目类型: {}", type);
+                skippedCounter.increment(run.size());
+            }
+            from = to;
+        }
+    }
+
+    /**
+     * 解析条目，无法解析时跳过(重试也不会成功)，返回null
+     */
+    private <T> T decode(SegmentLog.Entry entry, Class<T> type) {
+        try {
+            return objectMapper.readValue(entry.payload(), type);
+        } catch (IOException e) {
+            skippedCounter.increment();
+            log.error("写前日志条目无法解析，已跳过: type={}, bytes={}, error={}",
+                    entry.type(), entry.payload().length, e.getMessage());
+            return null;
+        }
+    }
+
+    private void applyRecords(List<InspectionRecord> records) {
+        // 早期日志中的检查时间带小数秒，按DATETIME的舍入规则对齐后再回查
+        records.forEach(r -> r.setCheckTime(roundToSeconds(r.getCheckTime())));
+        Set<String> existing = new HashSet<>();
+        recordMapper.selectIdsByCodeAndTime(records)
+                .forEach(r -> existing.add(RecordBatchWriter.recordKey(r)));
+        List<InspectionRecord> missing = records.stream()
+                .filter(r -> !existing.contains(RecordBatchWriter.recordKey(r)))
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> recordMapper.insertBatch(missing));
+            replayedCounter.increment(missing.size());
+            myTaskCache.evictByTasks(missing.stream().map(InspectionRecord::getTaskId).toList());
+        } catch (RuntimeException e) {
+            if (isDatabaseUnavailable(e)) {
+                throw e;
+            }
+            // 批量失败时逐条写入，跳过无法入库的记录
+            for (InspectionRecord record : missing) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> recordMapper.insert(record));
+                    replayedCounter.increment();
+                    myTaskCache.evictByTasks(Collections.singletonList(record.getTaskId()));
+                } catch (RuntimeException ex) {
+                    if (isDatabaseUnavailable(ex)) {
+                        throw ex;
+                    }
+                    skippedCounter.increment();
+                    log.error("写前日志记录无法入库，已跳过: recordCode={}, error={}", record.getRecordCode(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static LocalDateTime roundToSeconds(LocalDateTime time) {
+        return time == null ? null : time.plusNanos(500_000_000L).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private void applyDefect(DefectInfo defect) {
+        if (!defectInfoMapper.selectExistingCodes(List.of(defect.getDefectCode())).isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> defectInfoMapper.insert(defect));
+            replayedCounter.increment();
+            keywordSearchIndex.changed(KeywordSearchIndex.Scope.DEFECT, defect.getDefectId());
+        } catch (RuntimeException e) {
+            if (isDatabaseUnavailable(e)) {
+                throw e;
+            }
+            skippedCounter.increment();
+            log.error("写前日志缺陷无法入库，已跳过: defectCode={}, error={}", defect.getDefectCode(), e.getMessage());
+        }
+    }
+}
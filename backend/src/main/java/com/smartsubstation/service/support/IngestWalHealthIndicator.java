@@ -0,0 +1,33 @@
+package com.smartsubstation.service.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * 写前日志健康检查
+ *
+ * 积压超过告警阈值时报告DEGRADED：提交仍可用(写入本地日志)，但数据迟迟未入库
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestWalHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "写前日志积压超过告警阈值");
+
+    private final IngestWal ingestWal;
+
+    @Override
+    public Health health() {
+        if (!ingestWal.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        Health.Builder builder = ingestWal.isBacklogStale() ? Health.status(DEGRADED) : Health.up();
+        return builder
+                .withDetail("buffering", ingestWal.isBuffering())
+                .withDetail("backlogAgeMillis", ingestWal.backlogAgeMillis())
+                .build();
+    }
+}
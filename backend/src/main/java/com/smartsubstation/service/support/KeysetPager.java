@@ -0,0 +1,107 @@
+package com.smartsubstation.service.support;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.PageCursor;
+import com.smartsubstation.dto.PageQuery;
+import com.smartsubstation.dto.PageResult;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页(Keyset)
+ *
+ * 按 (排序键, 主键) 倒序，从上一页最后一条之后走索引范围扫描，不做COUNT，
+ * 多取一条判断是否还有下一页；耗时与翻页深度无关
+ */
+public final class KeysetPager {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private KeysetPager() {
+    }
+
+    /**
+     * 按时间列 + 主键倒序分页
+     *
+     * @param sortColumn 排序时间列(须非空)，为null时仅按主键
+     */
+    public static <T> PageResult<T> page(BaseMapper<T> mapper, LambdaQueryWrapper<T> wrapper, PageQuery pageQuery,
+                                         SFunction<T, LocalDateTime> sortColumn, SFunction<T, Long> idColumn) {
+        int size = pageSize(pageQuery);
+
+        PageCursor cursor = PageCursor.decode(pageQuery.getAfter());
+        if (cursor != null) {
+            if (sortColumn == null) {
+                wrapper.lt(idColumn, cursor.getId());
+            } else {
+                LocalDateTime sortValue = sortValue(cursor);
+                wrapper.and(w -> w.lt(sortColumn, sortValue)
+                        .or(o -> o.eq(sortColumn, sortValue).lt(idColumn, cursor.getId())));
+            }
+        }
+        if (sortColumn != null) {
+            wrapper.orderByDesc(sortColumn);
+        }
+        wrapper.orderByDesc(idColumn);
+        wrapper.last("LIMIT " + (size + 1));
+
+        return slice(mapper.selectList(wrapper), false, size, sortColumn, idColumn);
+    }
+
+    /**
+     * 从已按 (排序键, 主键) 倒序排列的候选行截取一页；候选多于size条或more为true时还有下一页。
+     * 用于数据库之外的数据源(如归档文件)与数据库结果合并后分页
+     */
+    public static <T> PageResult<T> slice(List<T> candidates, boolean more, int size,
+                                          Function<T, LocalDateTime> sortColumn, Function<T, Long> idColumn) {
+        List<T> rows = candidates;
+        boolean hasMore = more || rows.size() > size;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+        }
+
+        String nextCursor = null;
+        if (hasMore && !rows.isEmpty()) {
+            T last = rows.get(rows.size() - 1);
+            String sortValue = sortColumn == null ? null : String.valueOf(sortColumn.apply(last));
+            nextCursor = new PageCursor(sortValue, idColumn.apply(last)).encode();
+        }
+
+        return PageResult.<T>builder()
+                .records(rows)
+                .pageSize(size)
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * 游标模式的每页条数(限制在1到上限之间)
+     */
+    public static int pageSize(PageQuery pageQuery) {
+        return Math.max(1, Math.min(pageQuery.getPageSize(), MAX_PAGE_SIZE));
+    }
+
+    /**
+     * 游标中的时间排序键
+     */
+    public static LocalDateTime sortValue(PageCursor cursor) {
+        String value = cursor.getSortValue();
+        if (value == null) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "无效的分页游标");
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "无效的分页游标");
+        }
+    }
+}
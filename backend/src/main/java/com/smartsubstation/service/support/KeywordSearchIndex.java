@@ -0,0 +1,287 @@
+package com.smartsubstation.service.support;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.smartsubstation.entity.DefectInfo;
+import com.smartsubstation.entity.DeviceInfo;
+import com.smartsubstation.entity.SubStation;
+import com.smartsubstation.mapper.DefectInfoMapper;
+import com.smartsubstation.mapper.DeviceInfoMapper;
+import com.smartsubstation.mapper.SubStationMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 关键词检索索引(设备、变电站、缺陷)
+ *
+ * 启动时全量构建n-gram索引，保存后增量追加、删除后标记移除，并通过发布订阅通知其他节点，
+ * 定时全量重建清理过期条目。关键词先在索引中解析为候选ID，再按主键查询复核
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KeywordSearchIndex implements MessageListener {
+
+    /**
+     * 索引范围
+     */
+    public enum Scope {
+        DEVICE, STATION, DEFECT
+    }
+
+    private final DeviceInfoMapper deviceInfoMapper;
+    private final SubStationMapper subStationMapper;
+    private final DefectInfoMapper defectInfoMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String INDEX_CHANGED_CHANNEL = "search:index:changed";
+    private static final String REBUILD_ALL = "*";
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    @Value("${search.index.max-candidates:2000}")
+    private Integer maxCandidates;
+
+    @Value("${search.index.max-docs:500000}")
+    private Integer maxDocs;
+
+    /**
+     * 已就绪的索引，缺失时检索回退到LIKE
+     */
+    private final Map<Scope, NgramIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * 重建期间发生变更的文档，重建完成后补加
+     */
+    private final Map<Scope, Set<Long>> changedDuringRebuild = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INDEX_CHANGED_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuildAll();
+    }
+
+    /**
+     * 检索候选ID
+     *
+     * @return 候选ID；索引未就绪、关键词过短或候选过多时返回null，调用方按原LIKE条件查询
+     */
+    public List<Long> search(Scope scope, String keyword) {
+        NgramIndex index = indexes.get(scope);
+        return index == null ? null : index.search(keyword, maxCandidates);
+    }
+
+    /**
+     * 文档已变更：事务提交后更新本节点并通知其他节点
+     */
+    public void changed(Scope scope, Long id) {
+        if (id == null) {
+            return;
+        }
+        afterCommit(() -> {
+            refresh(scope, id);
+            publish(scope + ":" + id);
+        });
+    }
+
+    /**
+     * 批量变更(如导入)：重建该范围并通知其他节点
+     */
+    public void changedAll(Scope scope) {
+        afterCommit(() -> {
+            rebuild(scope);
+            publish(scope + ":" + REBUILD_ALL);
+        });
+    }
+
+    /**
+     * 从数据库读取单个文档追加到索引
+     */
+    public void refresh(Scope scope, Long id) {
+        Set<Long> pending = changedDuringRebuild.get(scope);
+        if (pending != null) {
+            pending.add(id);
+        }
+        NgramIndex index = indexes.get(scope);
+        if (index != null) {
+            addFromDatabase(index, scope, id);
+        }
+    }
+
+    /**
+     * 全量重建单个范围，完成后整体替换
+     */
+    public synchronized void rebuild(Scope scope) {
+        Set<Long> pending = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild.put(scope, pending);
+        try {
+            NgramIndex index = new NgramIndex();
+            if (!load(index, scope)) {
+                indexes.remove(scope);
+                log.warn("检索索引文档数超过上限，关闭索引使用LIKE查询: scope={}, maxDocs={}", scope, maxDocs);
+                return;
+            }
+            indexes.put(scope, index);
+            log.info("检索索引构建完成: scope={}, docs={}", scope, index.docCount());
+        } finally {
+            changedDuringRebuild.remove(scope, pending);
+        }
+        NgramIndex index = indexes.get(scope);
+        if (index != null) {
+            for (Long id : pending) {
+                addFromDatabase(index, scope, id);
+            }
+        }
+    }
+
+    /**
+     * 定时全量重建，清理旧n-gram和已删除文档的倒排项
+     */
+    @Scheduled(fixedDelayString = "${search.index.rebuild-interval:1800000}", initialDelayString = "${search.index.rebuild-interval:1800000}")
+    public void rebuildAll() {
+        for (Scope scope : Scope.values()) {
+            try {
+                rebuild(scope);
+            } catch (Exception e) {
+                log.error("检索索引构建失败: scope={}, error={}", scope, e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int idx = body.indexOf(':');
+        try {
+            Scope scope = Scope.valueOf(body.substring(0, idx));
+            String target = body.substring(idx + 1);
+            if (REBUILD_ALL.equals(target)) {
+                rebuild(scope);
+            } else {
+                refresh(scope, Long.valueOf(target));
+            }
+        } catch (Exception e) {
+            log.warn("检索索引更新失败: message={}, error={}", body, e.getMessage());
+        }
+    }
+
+    /**
+     * 按主键分批加载，超过文档上限返回false
+     */
+    private boolean load(NgramIndex index, Scope scope) {
+        long lastId = 0L;
+        while (true) {
+            int size;
+            switch (scope) {
+                case DEVICE -> {
+                    List<DeviceInfo> batch = deviceInfoMapper.selectList(new LambdaQueryWrapper<DeviceInfo>()
+                            .select(DeviceInfo::getDeviceId, DeviceInfo::getDeviceCode, DeviceInfo::getDeviceName)
+                            .gt(DeviceInfo::getDeviceId, lastId)
+                            .orderByAsc(DeviceInfo::getDeviceId)
+                            .last("LIMIT " + LOAD_BATCH_SIZE));
+                    batch.forEach(d -> index.add(d.getDeviceId(), d.getDeviceCode(), d.getDeviceName()));
+                    size = batch.size();
+                    lastId = size == 0 ? lastId : batch.get(size - 1).getDeviceId();
+                }
+                case STATION -> {
+                    List<SubStation> batch = subStationMapper.selectList(new LambdaQueryWrapper<SubStation>()
+                            .select(SubStation::getStationId, SubStation::getStationCode, SubStation::getStationName)
+                            .gt(SubStation::getStationId, lastId)
+                            .orderByAsc(SubStation::getStationId)
+                            .last("LIMIT " + LOAD_BATCH_SIZE));
+                    batch.forEach(s -> index.add(s.getStationId(), s.getStationCode(), s.getStationName()));
+                    size = batch.size();
+                    lastId = size == 0 ? lastId : batch.get(size - 1).getStationId();
+                }
+                default -> {
+                    List<DefectInfo> batch = defectInfoMapper.selectList(new LambdaQueryWrapper<DefectInfo>()
+                            .select(DefectInfo::getDefectId, DefectInfo::getDefectCode, DefectInfo::getDefectDescription)
+                            .gt(DefectInfo::getDefectId, lastId)
+                            .orderByAsc(DefectInfo::getDefectId)
+                            .last("LIMIT " + LOAD_BATCH_SIZE));
+                    batch.forEach(d -> index.add(d.getDefectId(), d.getDefectCode(), d.getDefectDescription()));
+                    size = batch.size();
+                    lastId = size == 0 ? lastId : batch.get(size - 1).getDefectId();
+                }
+            }
+            if (index.docCount() > maxDocs) {
+                return false;
+            }
+            if (size < LOAD_BATCH_SIZE) {
+                return true;
+            }
+        }
+    }
+
+    private void addFromDatabase(NgramIndex index, Scope scope, Long id) {
+        switch (scope) {
+            case DEVICE -> {
+                DeviceInfo device = deviceInfoMapper.selectById(id);
+                if (device != null) {
+                    index.add(id, device.getDeviceCode(), device.getDeviceName());
+                } else {
+                    index.remove(id);
+                }
+            }
+            case STATION -> {
+                SubStation station = subStationMapper.selectById(id);
+                if (station != null) {
+                    index.add(id, station.getStationCode(), station.getStationName());
+                } else {
+                    index.remove(id);
+                }
+            }
+            default -> {
+                DefectInfo defect = defectInfoMapper.selectById(id);
+                if (defect != null) {
+                    index.add(id, defect.getDefectCode(), defect.getDefectDescription());
+                } else {
+                    index.remove(id);
+                }
+            }
+        }
+    }
+
+    private void publish(String message) {
+        try {
+            stringRedisTemplate.convertAndSend(INDEX_CHANGED_CHANNEL, message);
+        } catch (Exception e) {
+            log.warn("检索索引变更通知发送失败: message={}, error={}", message, e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
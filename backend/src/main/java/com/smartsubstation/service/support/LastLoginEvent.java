@@ -0,0 +1,29 @@
+package com.smartsubstation.service.support;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 登录事件(最后登录时间与IP)
+ */
+@Getter
+@AllArgsConstructor
+public class LastLoginEvent {
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 登录时间
+     */
+    private final LocalDateTime loginTime;
+
+    /**
+     * 登录IP
+     */
+    private final String loginIp;
+}
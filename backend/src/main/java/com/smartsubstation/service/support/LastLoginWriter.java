@@ -0,0 +1,96 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.mapper.SysUserMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 最后登录信息合并写入器
+ *
+ * 登录时只在内存中记录事件，同一用户的多次登录合并为最新一条，
+ * 后台定时批量写库(单条 UPDATE ... CASE)，停机时写完剩余事件
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LastLoginWriter {
+
+    private final SysUserMapper userMapper;
+
+    @Value("${auth.last-login.batch-size:500}")
+    private Integer batchSize;
+
+    /**
+     * 用户ID -> 最新登录事件
+     */
+    private final Map<Long, LastLoginEvent> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录登录事件(无IO)
+     */
+    public void record(Long userId, String loginIp) {
+        pending.put(userId, new LastLoginEvent(userId, LocalDateTime.now(), loginIp));
+    }
+
+    /**
+     * 定时刷写
+     */
+    @Scheduled(fixedDelayString = "${auth.last-login.flush-interval:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Long> userIds = new ArrayList<>(pending.keySet());
+        List<LastLoginEvent> batch = new ArrayList<>(Math.min(userIds.size(), batchSize));
+        for (Long userId : userIds) {
+            LastLoginEvent event = pending.remove(userId);
+            if (event == null) {
+                continue;
+            }
+            batch.add(event);
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        write(batch);
+    }
+
+    private void write(List<LastLoginEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            userMapper.batchUpdateLastLogin(batch);
+            log.debug("最后登录信息已写入: count={}", batch.size());
+        } catch (Exception e) {
+            // 放回队列等待下次写入，已有更新的事件时保留较新的
+            for (LastLoginEvent event : batch) {
+                pending.merge(event.getUserId(), event,
+                        (current, failed) -> current.getLoginTime().isAfter(failed.getLoginTime()) ? current : failed);
+            }
+            log.warn("最后登录信息写入失败: count={}, error={}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 停机时写入剩余事件
+     */
+    @PreDestroy
+    public void shutdown() {
+        int remaining = pending.size();
+        flush();
+        log.info("最后登录信息写入器已停止: flushed={}, left={}", remaining, pending.size());
+    }
+}
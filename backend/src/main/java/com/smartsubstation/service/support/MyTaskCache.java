@@ -0,0 +1,136 @@
+package com.smartsubstation.service.support;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsubstation.entity.InspectionTask;
+import com.smartsubstation.mapper.InspectionTaskMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 执行人未结束任务缓存
+ *
+ * 移动端反复刷新"我的任务"，未结束的任务(待执行/进行中/已逾期)每人通常只有几十条，
+ * 按执行人整体缓存到Redis并设置较短过期时间；任务状态、执行人变更或提交巡检记录后在事务提交后删除。
+ * 排序与数据库分页一致(计划开始时间、任务ID倒序)。Redis不可用时直接查库
+ */
+@Slf4j
+@Component
+public class MyTaskCache {
+
+    /**
+     * 未结束的任务状态
+     */
+    public static final List<String> ACTIVE_STATUSES = List.of("pending", "in_progress", "overdue");
+
+    /**
+     * 查询参数：全部未结束状态
+     */
+    public static final String ACTIVE = "active";
+
+    private static final String KEY_PREFIX = "task:my:";
+
+    private final InspectionTaskMapper inspectionTaskMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final JavaType listType;
+    private final Duration ttl;
+
+    public MyTaskCache(InspectionTaskMapper inspectionTaskMapper,
+                       StringRedisTemplate stringRedisTemplate,
+                       ObjectMapper objectMapper,
+                       @Value("${task.my-cache.ttl:60s}") Duration ttl) {
+        this.inspectionTaskMapper = inspectionTaskMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.listType = objectMapper.getTypeFactory().constructCollectionType(List.class, InspectionTask.class);
+        this.ttl = ttl;
+    }
+
+    /**
+     * 执行人未结束的任务，按计划开始时间、任务ID倒序
+     */
+    public List<InspectionTask> activeTasks(Long assigneeId) {
+        String key = KEY_PREFIX + assigneeId;
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return objectMapper.readValue(cached, listType);
+            }
+        } catch (Exception e) {
+            log.warn("我的任务缓存读取失败: assigneeId={}, error={}", assigneeId, e.getMessage());
+        }
+
+        List<InspectionTask> tasks = inspectionTaskMapper.selectList(new LambdaQueryWrapper<InspectionTask>()
+                .eq(InspectionTask::getAssigneeId, assigneeId)
+                .in(InspectionTask::getStatus, ACTIVE_STATUSES)
+                .orderByDesc(InspectionTask::getPlannedStartTime)
+                .orderByDesc(InspectionTask::getTaskId));
+        try {
+            stringRedisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(tasks), ttl);
+        } catch (Exception e) {
+            log.warn("我的任务缓存写入失败: assigneeId={}, error={}", assigneeId, e.getMessage());
+        }
+        return tasks;
+    }
+
+    /**
+     * 任务下提交了巡检记录：按任务查出执行人后删除其缓存(事务提交后)
+     */
+    public void evictByTasks(Collection<Long> taskIds) {
+        Set<Long> ids = taskIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            inspectionTaskMapper.selectList(new LambdaQueryWrapper<InspectionTask>()
+                            .select(InspectionTask::getTaskId, InspectionTask::getAssigneeId)
+                            .in(InspectionTask::getTaskId, ids))
+                    .stream()
+                    .map(InspectionTask::getAssigneeId)
+                    .distinct()
+                    .forEach(this::evict);
+        } catch (Exception e) {
+            log.warn("我的任务缓存删除失败: taskIds={}, error={}", ids, e.getMessage());
+        }
+    }
+
+    /**
+     * 执行人的任务已变更：事务提交后删除缓存
+     */
+    public void evict(Long assigneeId) {
+        if (assigneeId == null) {
+            return;
+        }
+        Runnable action = () -> {
+            try {
+                stringRedisTemplate.delete(KEY_PREFIX + assigneeId);
+            } catch (Exception e) {
+                // 删除失败时最多在过期时间内看到旧数据
+                log.warn("我的任务缓存删除失败: assigneeId={}, error={}", assigneeId, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
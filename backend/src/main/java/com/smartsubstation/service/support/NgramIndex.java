@@ -0,0 +1,191 @@
+package com.smartsubstation.service.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * N-gram倒排索引(二元/三元组，int有序倒排表)
+ *
+ * 只作为候选过滤：检索结果是包含关键词所有n-gram的ID集合(超集)，
+ * 调用方仍需用原条件在数据库中按主键复核。因此文档更新只追加新n-gram，
+ * 旧n-gram留在索引中只影响效率，由定时全量重建清理；已删除文档记入删除集合，
+ * 检索时直接跳过，不再占用候选名额
+ */
+public class NgramIndex {
+
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 3;
+
+    /**
+     * n-gram(打包为long) -> 有序ID列表
+     */
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Set<Integer> removed = new HashSet<>();
+
+    /**
+     * 已索引的文档ID，重复添加(更新)不重复计数
+     */
+    private final BitSet indexed = new BitSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int docCount;
+
+    /**
+     * 添加文档，各字段分别切分，不跨字段组合
+     */
+    public void add(long id, String... fields) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ID超出索引范围: " + id);
+        }
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String field : fields) {
+            collectGrams(normalize(field), grams, MIN_GRAM, MAX_GRAM);
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long gram : grams) {
+                postings.computeIfAbsent(gram, k -> new Postings()).add((int) id);
+            }
+            removed.remove((int) id);
+            if (!indexed.get((int) id)) {
+                indexed.set((int) id);
+                docCount++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档：倒排表保持不变，检索时跳过
+     */
+    public void remove(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removed.add((int) id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 检索候选ID
+     *
+     * @param limit 候选数上限
+     * @return 候选ID(降序)；关键词过短或候选超过上限时返回null，由调用方回退到原查询
+     */
+    public List<Long> search(String keyword, int limit) {
+        String text = normalize(keyword);
+        if (text.length() < MIN_GRAM) {
+            return null;
+        }
+        // 三元组选择性更好，关键词够长时只用三元组
+        int n = text.length() >= MAX_GRAM ? MAX_GRAM : MIN_GRAM;
+        Set<Long> grams = new LinkedHashSet<>();
+        collectGrams(text, grams, n, n);
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(grams.size());
+            for (Long gram : grams) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(p -> p.size));
+
+            Postings smallest = lists.get(0);
+            List<Long> result = new ArrayList<>();
+            for (int i = smallest.size - 1; i >= 0; i--) {
+                int id = smallest.ids[i];
+                if (removed.contains(id)) {
+                    continue;
+                }
+                boolean all = true;
+                for (int j = 1; j < lists.size() && all; j++) {
+                    all = lists.get(j).contains(id);
+                }
+                if (all) {
+                    if (result.size() >= limit) {
+                        return null;
+                    }
+                    result.add((long) id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已索引的文档数(按ID去重)
+     */
+    public int docCount() {
+        return docCount;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase();
+    }
+
+    private static void collectGrams(String text, Set<Long> grams, int minN, int maxN) {
+        for (int n = minN; n <= maxN; n++) {
+            for (int i = 0; i + n <= text.length(); i++) {
+                long key = n;
+                for (int k = 0; k < n; k++) {
+                    key = (key << 16) | text.charAt(i + k);
+                }
+                grams.add(key);
+            }
+        }
+    }
+
+    /**
+     * 有序int倒排表，按ID升序追加时O(1)
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            int insertAt = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.smartsubstation.service.support;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.smartsubstation.dto.PageQuery;
+import com.smartsubstation.dto.PageResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 分页总数处理
+ *
+ * exact 由分页插件同步COUNT；approx 返回按过滤条件缓存的计数，过期或缺失时交给后台线程重算，
+ * 请求线程只执行一次列表查询；none 不计数
+ */
+@Slf4j
+@Component
+public class PageTotalResolver {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final long ttlMillis;
+    private final Map<String, CachedCount> counts;
+
+    /**
+     * 正在后台计数的过滤条件，同一条件只计算一次
+     */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PageTotalResolver(@Qualifier("pageCountExecutor") ThreadPoolTaskExecutor executor,
+                             @Value("${page.approx-total.ttl:60s}") Duration ttl,
+                             @Value("${page.approx-total.max-entries:1000}") int maxEntries) {
+        this.executor = executor;
+        this.ttlMillis = ttl.toMillis();
+        this.counts = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * 按PageQuery的总数模式准备分页参数
+     */
+    public <T> Page<T> newPage(PageQuery pageQuery) {
+        Page<T> page = new Page<>(pageQuery.getPage(), pageQuery.getPageSize());
+        page.setSearchCount(pageQuery.isExactTotal());
+        return page;
+    }
+
+    /**
+     * 组装分页结果
+     *
+     * @param filterKey 过滤条件标识(业务类型 + 条件)，用于缓存近似总数
+     * @param counter   后台计数(需自行构造查询条件，不能复用已追加排序的wrapper)
+     */
+    public <T> PageResult<T> build(Page<T> result, PageQuery pageQuery, String filterKey, Supplier<Long> counter) {
+        PageResult.PageResultBuilder<T> builder = PageResult.<T>builder()
+                .records(result.getRecords())
+                .page((int) result.getCurrent())
+                .pageSize((int) result.getSize());
+
+        if (pageQuery.isExactTotal()) {
+            counts.put(filterKey, new CachedCount(result.getTotal(), System.currentTimeMillis()));
+            return builder.total(result.getTotal())
+                    .pages((int) result.getPages())
+                    .totalExact(true)
+                    .build();
+        }
+        if (PageQuery.TOTAL_NONE.equalsIgnoreCase(pageQuery.getTotal())) {
+            return builder.build();
+        }
+
+        Long total = approxTotal(filterKey, counter);
+        if (total != null) {
+            builder.total(total).pages((int) ((total + result.getSize() - 1) / result.getSize()));
+        }
+        return builder.totalExact(false).build();
+    }
+
+    /**
+     * 近似总数：返回缓存值(可能为null)，过期或缺失时后台刷新
+     */
+    private Long approxTotal(String key, Supplier<Long> counter) {
+        CachedCount cached = counts.get(key);
+        if (cached == null || System.currentTimeMillis() - cached.computedAt > ttlMillis) {
+            refreshAsync(key, counter);
+        }
+        return cached == null ? null : cached.count;
+    }
+
+    private void refreshAsync(String key, Supplier<Long> counter) {
+        if (!inFlight.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    Long count = counter.get();
+                    counts.put(key, new CachedCount(count == null ? 0L : count, System.currentTimeMillis()));
+                } catch (Exception e) {
+                    log.warn("近似总数计算失败: key={}, error={}", key, e.getMessage());
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (Exception e) {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * 构造过滤条件标识
+     */
+    public static String filterKey(String scope, Object... filters) {
+        StringBuilder key = new StringBuilder(scope);
+        for (Object filter : filters) {
+            key.append('|').append(filter == null ? "" : filter.toString().trim().toLowerCase());
+        }
+        return key.toString();
+    }
+
+    private static final class CachedCount {
+        private final long count;
+        private final long computedAt;
+
+        private CachedCount(long count, long computedAt) {
+            this.count = count;
+            this.computedAt = computedAt;
+        }
+    }
+}
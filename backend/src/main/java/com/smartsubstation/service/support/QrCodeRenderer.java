@@ -0,0 +1,107 @@
+package com.smartsubstation.service.support;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 二维码图片渲染器(无状态，可并发调用)
+ */
+@Component
+public class QrCodeRenderer {
+
+    private static final Map<EncodeHintType, Object> HINTS = Map.of(
+            EncodeHintType.CHARACTER_SET, StandardCharsets.UTF_8.name(),
+            EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M,
+            EncodeHintType.MARGIN, 1);
+
+    private static final int LABEL_HEIGHT = 40;
+
+    @Value("${device.qrcode.size:300}")
+    private Integer size;
+
+    /**
+     * 渲染二维码PNG
+     */
+    public byte[] render(String content) {
+        return toPng(draw(content));
+    }
+
+    /**
+     * 渲染带文字的设备标签PNG(二维码下方为设备编码和名称)
+     */
+    public byte[] renderLabel(String content, String title, String subtitle) {
+        BufferedImage qr = draw(content);
+        BufferedImage label = new BufferedImage(size, size + LABEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = label.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, label.getWidth(), label.getHeight());
+            g.drawImage(qr, 0, 0, null);
+            g.setColor(Color.BLACK);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 14));
+            drawCentered(g, title, size + 16);
+            g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+            drawCentered(g, subtitle, size + 34);
+        } finally {
+            g.dispose();
+        }
+        return toPng(label);
+    }
+
+    private BufferedImage draw(String content) {
+        BitMatrix matrix;
+        try {
+            matrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size, HINTS);
+        } catch (WriterException e) {
+            throw new IllegalArgumentException("二维码内容无法编码: " + content, e);
+        }
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
+            }
+        }
+        return image;
+    }
+
+    private void drawCentered(Graphics2D g, String text, int baseline) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        FontMetrics metrics = g.getFontMetrics();
+        int x = Math.max(0, (size - metrics.stringWidth(text)) / 2);
+        g.drawString(text, x, baseline);
+    }
+
+    private byte[] toPng(BufferedImage image) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,120 @@
+package com.smartsubstation.service.support;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.smartsubstation.entity.DeviceInfo;
+import com.smartsubstation.mapper.DeviceInfoMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 二维码标签批量打包
+ *
+ * 设备按分块查询，分块内在渲染线程池上并行出图；写出当前分块时下一分块已在渲染，
+ * 内存中最多保留两个分块的图片，直接写入响应流
+ */
+@Slf4j
+@Component
+public class QrCodeZipWriter {
+
+    private final DeviceInfoMapper deviceInfoMapper;
+    private final QrCodeRenderer qrCodeRenderer;
+    private final ForkJoinPool renderPool;
+
+    @Value("${device.qrcode.chunk-size:200}")
+    private Integer chunkSize;
+
+    public QrCodeZipWriter(DeviceInfoMapper deviceInfoMapper,
+                           QrCodeRenderer qrCodeRenderer,
+                           @Qualifier("qrRenderPool") ForkJoinPool renderPool) {
+        this.deviceInfoMapper = deviceInfoMapper;
+        this.qrCodeRenderer = qrCodeRenderer;
+        this.renderPool = renderPool;
+    }
+
+    /**
+     * 渲染并写出ZIP，返回实际写出的设备ID
+     */
+    public List<Long> write(List<Long> deviceIds, OutputStream out) throws IOException {
+        List<Long> written = new ArrayList<>(deviceIds.size());
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PNG本身已压缩
+        zip.setLevel(Deflater.NO_COMPRESSION);
+
+        Future<List<Label>> next = submit(chunk(deviceIds, 0));
+        for (int from = 0; from < deviceIds.size(); from += chunkSize) {
+            List<Label> labels = await(next);
+            int nextFrom = from + chunkSize;
+            next = nextFrom < deviceIds.size() ? submit(chunk(deviceIds, nextFrom)) : null;
+
+            for (Label label : labels) {
+                zip.putNextEntry(new ZipEntry(label.fileName));
+                zip.write(label.png);
+                zip.closeEntry();
+                written.add(label.deviceId);
+            }
+            zip.flush();
+        }
+        zip.finish();
+        return written;
+    }
+
+    private List<Long> chunk(List<Long> deviceIds, int from) {
+        return deviceIds.subList(from, Math.min(from + chunkSize, deviceIds.size()));
+    }
+
+    private Future<List<Label>> submit(List<Long> ids) {
+        List<DeviceInfo> devices = deviceInfoMapper.selectList(new LambdaQueryWrapper<DeviceInfo>()
+                .select(DeviceInfo::getDeviceId, DeviceInfo::getDeviceCode, DeviceInfo::getDeviceName,
+                        DeviceInfo::getQrCode)
+                .in(DeviceInfo::getDeviceId, ids));
+        return renderPool.submit(() -> devices.parallelStream()
+                .filter(device -> device.getQrCode() != null)
+                .map(this::render)
+                .toList());
+    }
+
+    private Label render(DeviceInfo device) {
+        byte[] png = qrCodeRenderer.renderLabel(device.getQrCode(), device.getDeviceCode(), device.getDeviceName());
+        return new Label(device.getDeviceId(), safeFileName(device.getDeviceCode()) + ".png", png);
+    }
+
+    private List<Label> await(Future<List<Label>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("二维码渲染被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("二维码渲染失败", e.getCause());
+        }
+    }
+
+    private static String safeFileName(String name) {
+        return name.replaceAll("[\\\\/:*?\"<>|\\s]", "_");
+    }
+
+    private static final class Label {
+        private final Long deviceId;
+        private final String fileName;
+        private final byte[] png;
+
+        private Label(Long deviceId, String fileName, byte[] png) {
+            this.deviceId = deviceId;
+            this.fileName = fileName;
+            this.png = png;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.entity.InspectionRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 巡检记录归档文件(按行组列式存储，GZIP压缩)
+ *
+ * 文件: 魔数 + 列名 + 若干行组 + 结束标记(行数0)。行组内按列依次存放，每列带字节长度，读取时先解码过滤列，无匹配行的行组不解码其他列。
+ * 数值列(ID、时间)存空值位图 + 差值变长编码；字符串列存空值位图 + 字典 + 字典下标
+ */
+public final class RecordArchiveFile {
+
+    private static final int MAGIC = 0x52434131;
+    private static final int ROW_GROUP_SIZE = 50000;
+
+    private enum Type {
+        LONG, STRING
+    }
+
+    /**
+     * 列定义：数值列统一按long存储(时间为UTC毫秒)
+     */
+    private record Column(String name, Type type,
+                          Function<InspectionRecord, Object> getter,
+                          BiConsumer<InspectionRecord, Object> setter) {
+    }
+
+    private static final List<Column> COLUMNS = List.of(
+            longColumn("record_id", InspectionRecord::getRecordId, InspectionRecord::setRecordId),
+            stringColumn("record_code", InspectionRecord::getRecordCode, InspectionRecord::setRecordCode),
+            longColumn("task_id", InspectionRecord::getTaskId, InspectionRecord::setTaskId),
+            longColumn("device_id", InspectionRecord::getDeviceId, InspectionRecord::setDeviceId),
+            stringColumn("device_code", InspectionRecord::getDeviceCode, InspectionRecord::setDeviceCode),
+            stringColumn("device_name", InspectionRecord::getDeviceName, InspectionRecord::setDeviceName),
+            longColumn("item_id", InspectionRecord::getItemId, InspectionRecord::setItemId),
+            stringColumn("item_name", InspectionRecord::getItemName, InspectionRecord::setItemName),
+            stringColumn("item_type", InspectionRecord::getItemType, InspectionRecord::setItemType),
+            stringColumn("check_value", InspectionRecord::getCheckValue, InspectionRecord::setCheckValue),
+            stringColumn("check_result", InspectionRecord::getCheckResult, InspectionRecord::setCheckResult),
+            stringColumn("photo_urls", InspectionRecord::getPhotoUrls, InspectionRecord::setPhotoUrls),
+            stringColumn("description", InspectionRecord::getDescription, InspectionRecord::setDescription),
+            longColumn("defect_id", InspectionRecord::getDefectId, InspectionRecord::setDefectId),
+            longColumn("inspector_id", InspectionRecord::getInspectorId, InspectionRecord::setInspectorId),
+            stringColumn("inspector_name", InspectionRecord::getInspectorName, InspectionRecord::setInspectorName),
+            timeColumn("check_time", InspectionRecord::getCheckTime, InspectionRecord::setCheckTime),
+            intColumn("is_offline", InspectionRecord::getIsOffline, InspectionRecord::setIsOffline),
+            timeColumn("offline_create_time", InspectionRecord::getOfflineCreateTime, InspectionRecord::setOfflineCreateTime),
+            intColumn("version", InspectionRecord::getVersion, InspectionRecord::setVersion),
+            timeColumn("last_sync_time", InspectionRecord::getLastSyncTime, InspectionRecord::setLastSyncTime),
+            timeColumn("create_time", InspectionRecord::getCreateTime, InspectionRecord::setCreateTime),
+            timeColumn("update_time", InspectionRecord::getUpdateTime, InspectionRecord::setUpdateTime)
+    );
+
+    private static final int TASK_ID_COLUMN = 2;
+
+    private RecordArchiveFile() {
+    }
+
+    /**
+     * 写入器，按行组缓冲
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final List<InspectionRecord> group = new ArrayList<>(ROW_GROUP_SIZE);
+        private long rowCount;
+
+        public Writer(Path file) throws IOException {
+            this.out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), 65536));
+            out.writeInt(MAGIC);
+            out.writeInt(COLUMNS.size());
+            for (Column column : COLUMNS) {
+                out.writeUTF(column.name());
+            }
+        }
+
+        public void write(InspectionRecord record) throws IOException {
+            group.add(record);
+            rowCount++;
+            if (group.size() >= ROW_GROUP_SIZE) {
+                flushGroup();
+            }
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushGroup();
+            out.writeInt(0);
+            out.close();
+        }
+
+        private void flushGroup() throws IOException {
+            if (group.isEmpty()) {
+                return;
+            }
+            out.writeInt(group.size());
+            for (Column column : COLUMNS) {
+                byte[] block = encode(column, group);
+                out.writeInt(block.length);
+                out.write(block);
+            }
+            group.clear();
+        }
+    }
+
+    /**
+     * 读取指定任务的记录
+     */
+    public static List<InspectionRecord> readByTask(Path file, long taskId) throws IOException {
+        List<InspectionRecord> result = new ArrayList<>();
+        scanByTask(file, taskId, result);
+        return result;
+    }
+
+    /**
+     * 统计指定任务的记录数，只解码任务ID列
+     */
+    public static long countByTask(Path file, long taskId) throws IOException {
+        return scanByTask(file, taskId, null);
+    }
+
+    /**
+     * 按任务扫描，result为null时只计数
+     */
+    private static long scanByTask(Path file, long taskId, List<InspectionRecord> result) throws IOException {
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)), 65536))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是巡检记录归档文件: " + file);
+            }
+            if (in.readInt() != COLUMNS.size()) {
+                throw new IOException("归档文件列定义不匹配: " + file);
+            }
+            for (Column column : COLUMNS) {
+                if (!column.name().equals(in.readUTF())) {
+                    throw new IOException("归档文件列定义不匹配: " + file);
+                }
+            }
+            int rows;
+            while ((rows = in.readInt()) > 0) {
+                byte[][] blocks = new byte[COLUMNS.size()][];
+                for (int c = 0; c < COLUMNS.size(); c++) {
+                    blocks[c] = in.readNBytes(in.readInt());
+                }
+                Object[] taskIds = decode(COLUMNS.get(TASK_ID_COLUMN), blocks[TASK_ID_COLUMN], rows);
+                List<Integer> matched = new ArrayList<>();
+                for (int r = 0; r < rows; r++) {
+                    if (taskIds[r] != null && (Long) taskIds[r] == taskId) {
+                        matched.add(r);
+                    }
+                }
+                count += matched.size();
+                if (matched.isEmpty() || result == null) {
+                    continue;
+                }
+                List<InspectionRecord> records = new ArrayList<>(matched.size());
+                matched.forEach(r -> records.add(new InspectionRecord()));
+                for (int c = 0; c < COLUMNS.size(); c++) {
+                    Column column = COLUMNS.get(c);
+                    Object[] values = c == TASK_ID_COLUMN ? taskIds : decode(column, blocks[c], rows);
+                    for (int i = 0; i < matched.size(); i++) {
+                        column.setter().accept(records.get(i), values[matched.get(i)]);
+                    }
+                }
+                result.addAll(records);
+            }
+        }
+        return count;
+    }
+
+    private static byte[] encode(Column column, List<InspectionRecord> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        byte[] nulls = new byte[(rows.size() + 7) / 8];
+        List<Object> values = new ArrayList<>(rows.size());
+        for (int r = 0; r < rows.size(); r++) {
+            Object value = column.getter().apply(rows.get(r));
+            if (value == null) {
+                nulls[r >> 3] |= (byte) (1 << (r & 7));
+            } else {
+                values.add(value);
+            }
+        }
+        out.write(nulls);
+
+        if (column.type() == Type.LONG) {
+            long previous = 0;
+            for (Object value : values) {
+                long v = (Long) value;
+                writeVarLong(out, zigZag(v - previous));
+                previous = v;
+            }
+        } else {
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<String> entries = new ArrayList<>();
+            int[] indexes = new int[values.size()];
+            for (int i = 0; i < values.size(); i++) {
+                String v = (String) values.get(i);
+                Integer index = dictionary.get(v);
+                if (index == null) {
+                    index = entries.size();
+                    dictionary.put(v, index);
+                    entries.add(v);
+                }
+                indexes[i] = index;
+            }
+            writeVarLong(out, entries.size());
+            for (String entry : entries) {
+                byte[] utf8 = entry.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, utf8.length);
+                out.write(utf8);
+            }
+            for (int index : indexes) {
+                writeVarLong(out, index);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Object[] decode(Column column, byte[] block, int rows) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(block));
+        byte[] nulls = in.readNBytes((rows + 7) / 8);
+        Object[] values = new Object[rows];
+        if (column.type() == Type.LONG) {
+            long previous = 0;
+            for (int r = 0; r < rows; r++) {
+                if ((nulls[r >> 3] & (1 << (r & 7))) == 0) {
+                    previous += unZigZag(readVarLong(in));
+                    values[r] = previous;
+                }
+            }
+        } else {
+            int size = (int) readVarLong(in);
+            String[] entries = new String[size];
+            for (int i = 0; i < size; i++) {
+                entries[i] = new String(in.readNBytes((int) readVarLong(in)), StandardCharsets.UTF_8);
+            }
+            for (int r = 0; r < rows; r++) {
+                if ((nulls[r >> 3] & (1 << (r & 7))) == 0) {
+                    values[r] = entries[(int) readVarLong(in)];
+                }
+            }
+        }
+        return values;
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("变长整数格式错误");
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static Column longColumn(String name, Function<InspectionRecord, Long> getter,
+                                     BiConsumer<InspectionRecord, Long> setter) {
+        return new Column(name, Type.LONG, getter::apply, (r, v) -> setter.accept(r, (Long) v));
+    }
+
+    private static Column intColumn(String name, Function<InspectionRecord, Integer> getter,
+                                    BiConsumer<InspectionRecord, Integer> setter) {
+        return new Column(name, Type.LONG,
+                r -> {
+                    Integer v = getter.apply(r);
+                    return v == null ? null : v.longValue();
+                },
+                (r, v) -> setter.accept(r, v == null ? null : ((Long) v).intValue()));
+    }
+
+    private static Column timeColumn(String name, Function<InspectionRecord, LocalDateTime> getter,
+                                     BiConsumer<InspectionRecord, LocalDateTime> setter) {
+        return new Column(name, Type.LONG,
+                r -> {
+                    LocalDateTime v = getter.apply(r);
+                    return v == null ? null : v.toInstant(ZoneOffset.UTC).toEpochMilli();
+                },
+                (r, v) -> setter.accept(r, v == null ? null
+                        : LocalDateTime.ofEpochSecond(Math.floorDiv((Long) v, 1000L),
+                        (int) Math.floorMod((Long) v, 1000L) * 1_000_000, ZoneOffset.UTC)));
+    }
+
+    private static Column stringColumn(String name, Function<InspectionRecord, String> getter,
+                                       BiConsumer<InspectionRecord, String> setter) {
+        return new Column(name, Type.STRING, getter::apply, (r, v) -> setter.accept(r, (String) v));
+    }
+}
@@ -0,0 +1,295 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.entity.InspectionRecord;
+import com.smartsubstation.mapper.InspectionRecordMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 巡检记录分区维护与冷数据归档
+ *
+ * inspection_record 按 check_time 月分区(pYYYYMM + p_future)。定时任务提前拆出后续月份的分区，
+ * 使p_future保持为空；开启归档时把早于保留期的分区导出为列式归档文件后删除分区。
+ * 归档目录须为各节点共享的存储，历史查询由 findByTask 读取归档文件，与库中记录按主键去重合并
+ */
+@Slf4j
+@Component
+public class RecordArchiver {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("p(\\d{6})");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String LOCK_KEY = "record-archive:lock";
+    private static final String FILE_SUFFIX = ".rca";
+    private static final int EXPORT_BATCH_SIZE = 5000;
+    private static final String FUTURE_PARTITION = "p_future";
+
+    /**
+     * 记录排序：检查时间倒序，相同时主键倒序(与游标分页一致)
+     */
+    public static final Comparator<InspectionRecord> ORDER = Comparator
+            .comparing(InspectionRecord::getCheckTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(InspectionRecord::getRecordId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .reversed();
+
+    private final InspectionRecordMapper recordMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${record.partition.enabled:true}")
+    private Boolean partitionEnabled;
+
+    @Value("${record.partition.premake-months:3}")
+    private Integer premakeMonths;
+
+    @Value("${record.partition.max-reorganize-rows:100000}")
+    private Integer maxReorganizeRows;
+
+    @Value("${record.archive.enabled:false}")
+    private Boolean enabled;
+
+    @Value("${record.archive.dir:/mnt/shared/record-archive}")
+    private String dir;
+
+    @Value("${record.archive.horizon-months:12}")
+    private Integer horizonMonths;
+
+    public RecordArchiver(InspectionRecordMapper recordMapper, StringRedisTemplate stringRedisTemplate) {
+        this.recordMapper = recordMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @PostConstruct
+    public void checkDir() {
+        if (enabled && !Files.isDirectory(Path.of(dir))) {
+            log.error("巡检记录归档目录不存在，请挂载各节点共享的存储: dir={}", dir);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 归档分界：早于该时间的分区会被归档；已过分界但尚未归档的记录仍在库中
+     */
+    public LocalDateTime cutoff() {
+        return YearMonth.now().minusMonths(horizonMonths).atDay(1).atStartOfDay();
+    }
+
+    /**
+     * 从归档文件读取任务自from起的记录中，按ORDER排在(beforeTime, beforeId)之后的前limit条
+     *
+     * 从最近的月份往前读，每月读完后已满limit条即停止，更早的月份不可能排在前面；
+     * 内存中只保留limit条
+     */
+    public List<InspectionRecord> findByTask(Long taskId, LocalDateTime from,
+                                             LocalDateTime beforeTime, Long beforeId, int limit) {
+        PriorityQueue<InspectionRecord> top = new PriorityQueue<>(limit + 1, ORDER.reversed());
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = beforeTime == null ? YearMonth.now() : YearMonth.from(beforeTime);
+        for (YearMonth month = last; !month.isBefore(first); month = month.minusMonths(1)) {
+            Path file = archiveFile(month);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try {
+                for (InspectionRecord record : RecordArchiveFile.readByTask(file, taskId)) {
+                    if (isAfter(record, beforeTime, beforeId)) {
+                        top.add(record);
+                        if (top.size() > limit) {
+                            top.poll();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.error("归档文件读取失败: file={}, error={}", file, e.getMessage());
+            }
+            if (top.size() >= limit) {
+                break;
+            }
+        }
+        List<InspectionRecord> records = new ArrayList<>(top);
+        records.sort(ORDER);
+        return records;
+    }
+
+    /**
+     * 统计任务自from起在归档文件中的记录数，并返回归档覆盖到的时间(最后一个归档月的下月初，无归档时为null)；
+     * 库中早于该时间的记录与归档重复，不应再计数
+     */
+    public ArchivedCount countByTask(Long taskId, LocalDateTime from) {
+        long count = 0;
+        LocalDateTime archivedUntil = null;
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            Path file = archiveFile(month);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try {
+                count += RecordArchiveFile.countByTask(file, taskId);
+                archivedUntil = month.plusMonths(1).atDay(1).atStartOfDay();
+            } catch (IOException e) {
+                log.error("归档文件读取失败: file={}, error={}", file, e.getMessage());
+            }
+        }
+        return new ArchivedCount(count, archivedUntil);
+    }
+
+    /**
+     * 归档记录数与归档覆盖到的时间
+     */
+    public record ArchivedCount(long count, LocalDateTime archivedUntil) {
+    }
+
+    /**
+     * 分区维护与归档，多节点时只有一个节点执行
+     */
+    @Scheduled(cron = "${record.partition.cron:0 30 2 * * ?}")
+    public void run() {
+        if (!partitionEnabled && !enabled) {
+            return;
+        }
+        String owner = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, owner, Duration.ofHours(6));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            List<String> partitions = recordMapper.selectPartitionNames();
+            if (partitions.isEmpty()) {
+                log.warn("inspection_record 未分区，跳过分区维护与归档");
+                return;
+            }
+            if (partitionEnabled) {
+                ensurePartitions(partitions);
+            }
+            if (enabled) {
+                archiveExpired(partitions);
+            }
+        } catch (Exception e) {
+            log.error("巡检记录分区维护失败: {}", e.getMessage(), e);
+        } finally {
+            if (owner.equals(stringRedisTemplate.opsForValue().get(LOCK_KEY))) {
+                stringRedisTemplate.delete(LOCK_KEY);
+            }
+        }
+    }
+
+    /**
+     * 提前拆出当前月及后续premake-months个月的分区
+     *
+     * 拆分p_future会重写其中的全部数据；p_future本应为空，行数超过上限时不拆分并报错，需人工处理
+     */
+    private void ensurePartitions(List<String> partitions) {
+        YearMonth latest = partitions.stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(m -> YearMonth.parse(m.group(1), MONTH))
+                .max(YearMonth::compareTo)
+                .orElse(YearMonth.now().minusMonths(1));
+        YearMonth target = YearMonth.now().plusMonths(premakeMonths);
+        if (!latest.isBefore(target)) {
+            return;
+        }
+        long futureRows = recordMapper.countPartitionRows(FUTURE_PARTITION, maxReorganizeRows + 1);
+        if (futureRows > maxReorganizeRows) {
+            log.error("p_future中记录数超过{}，拆分分区会重写全部数据，已跳过: 最新分区={}",
+                    maxReorganizeRows, partitionName(latest));
+            return;
+        }
+        for (YearMonth month = latest.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+            String partition = partitionName(month);
+            recordMapper.addPartition(partition, month.plusMonths(1).atDay(1).toString());
+            log.info("巡检记录分区已创建: {}", partition);
+        }
+    }
+
+    /**
+     * 导出并删除早于保留期的分区
+     */
+    private void archiveExpired(List<String> partitions) throws IOException {
+        YearMonth end = YearMonth.from(cutoff());
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(matcher.group(1), MONTH);
+            if (!month.isBefore(end)) {
+                continue;
+            }
+            long rows = export(partition, month);
+            recordMapper.dropPartition(partition);
+            log.info("巡检记录分区已归档: partition={}, rows={}", partition, rows);
+        }
+    }
+
+    /**
+     * 分批导出到临时文件，落盘后原子替换为归档文件；重复执行会覆盖同月文件
+     */
+    private long export(String partition, YearMonth month) throws IOException {
+        Path target = archiveFile(month);
+        if (!Files.isDirectory(target.getParent())) {
+            // 不在本地自动创建，避免未挂载共享存储时归档写到单个节点
+            throw new IOException("归档目录不存在: " + target.getParent());
+        }
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        long rows;
+        try (RecordArchiveFile.Writer writer = new RecordArchiveFile.Writer(tmp)) {
+            long lastId = 0L;
+            while (true) {
+                List<InspectionRecord> batch = recordMapper.selectPartitionBatch(partition, lastId, EXPORT_BATCH_SIZE);
+                for (InspectionRecord record : batch) {
+                    writer.write(record);
+                }
+                if (batch.size() < EXPORT_BATCH_SIZE) {
+                    break;
+                }
+                lastId = batch.get(batch.size() - 1).getRecordId();
+            }
+            rows = writer.getRowCount();
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    private static boolean isAfter(InspectionRecord record, LocalDateTime beforeTime, Long beforeId) {
+        if (beforeTime == null) {
+            return true;
+        }
+        int cmp = record.getCheckTime().compareTo(beforeTime);
+        return cmp < 0 || (cmp == 0 && record.getRecordId() < beforeId);
+    }
+
+    private Path archiveFile(YearMonth month) {
+        return Path.of(dir, "inspection_record_" + month.format(MONTH) + FILE_SUFFIX);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "p" + month.format(MONTH);
+    }
+}
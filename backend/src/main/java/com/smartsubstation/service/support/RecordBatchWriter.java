@@ -0,0 +1,88 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.entity.InspectionRecord;
+import com.smartsubstation.mapper.InspectionRecordMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 巡检记录批量写入
+ *
+ * 一批一条多行INSERT、一个事务；主键按(记录编码, 检查时间)回查，不依赖自增值连续。
+ * 整批失败时逐条重试，定位失败记录；数据库不可用时不逐条重试，直接抛出。
+ * 写入后删除相关任务执行人的"我的任务"缓存
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecordBatchWriter {
+
+    private final InspectionRecordMapper recordMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MyTaskCache myTaskCache;
+
+    /**
+     * 写入一批记录，成功的记录回填主键
+     *
+     * @return 写入失败的记录在批内的下标
+     */
+    public List<Integer> write(List<InspectionRecord> batch) {
+        try {
+            insertBatch(batch);
+            evictTaskCaches(batch);
+            return List.of();
+        } catch (RuntimeException e) {
+            if (IngestWal.isDatabaseUnavailable(e)) {
+                batch.forEach(r -> r.setRecordId(null));
+                throw e;
+            }
+            log.warn("巡检记录批量写入失败，逐条重试: size={}, error={}", batch.size(), e.getMessage());
+        }
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            InspectionRecord record = batch.get(i);
+            try {
+                record.setRecordId(null);
+                transactionTemplate.executeWithoutResult(status -> recordMapper.insert(record));
+            } catch (Exception e) {
+                record.setRecordId(null);
+                failed.add(i);
+                log.warn("巡检记录写入失败: recordCode={}, error={}", record.getRecordCode(), e.getMessage());
+            }
+        }
+        if (failed.size() < batch.size()) {
+            evictTaskCaches(batch);
+        }
+        return failed;
+    }
+
+    private void evictTaskCaches(List<InspectionRecord> batch) {
+        myTaskCache.evictByTasks(batch.stream().map(InspectionRecord::getTaskId).toList());
+    }
+
+    private void insertBatch(List<InspectionRecord> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            recordMapper.insertBatch(batch);
+            Map<String, Long> idByKey = recordMapper.selectIdsByCodeAndTime(batch)
+                    .stream()
+                    .collect(Collectors.toMap(RecordBatchWriter::recordKey, InspectionRecord::getRecordId));
+            for (InspectionRecord record : batch) {
+                record.setRecordId(idByKey.get(recordKey(record)));
+            }
+        });
+    }
+
+    /**
+     * 记录唯一标识：分区表上记录编码只在同一检查时间内唯一
+     */
+    static String recordKey(InspectionRecord record) {
+        return record.getRecordCode() + "@" + record.getCheckTime();
+    }
+}
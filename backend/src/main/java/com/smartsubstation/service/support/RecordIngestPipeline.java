@@ -0,0 +1,251 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.entity.InspectionRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 巡检记录异步写入管道(组提交)
+ *
+ * 请求线程校验后入有界队列立即返回；单个写线程攒够batch-size条或等待max-wait后一次提交。
+ * 队列满时等待offer-timeout，仍满则拒绝(429)形成背压；停机时先停止接收，再写完队列中的记录
+ */
+@Slf4j
+@Component
+public class RecordIngestPipeline implements SmartLifecycle {
+
+    private final RecordBatchWriter recordBatchWriter;
+    private final IngestWal ingestWal;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxWaitNanos;
+    private final long offerTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+    private final BlockingQueue<InspectionRecord> queue;
+
+    private final Timer commitTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread writer;
+
+    public RecordIngestPipeline(RecordBatchWriter recordBatchWriter,
+                                IngestWal ingestWal,
+                                MeterRegistry meterRegistry,
+                                @Value("${inspection.record.ingest.enabled:false}") boolean enabled,
+                                @Value("${inspection.record.ingest.queue-capacity:10000}") int queueCapacity,
+                                @Value("${inspection.record.ingest.batch-size:200}") int batchSize,
+                                @Value("${inspection.record.ingest.max-wait:50ms}") Duration maxWait,
+                                @Value("${inspection.record.ingest.offer-timeout:200ms}") Duration offerTimeout,
+                                @Value("${inspection.record.ingest.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.recordBatchWriter = recordBatchWriter;
+        this.ingestWal = ingestWal;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.offerTimeoutMillis = offerTimeout.toMillis();
+        this.shutdownTimeoutMillis = shutdownTimeout.toMillis();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("record.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("巡检记录写入队列长度")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("record.ingest.commit.latency")
+                .description("巡检记录组提交耗时")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("record.ingest.batch.size")
+                .description("巡检记录组提交条数")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("record.ingest.rejected")
+                .description("队列满被拒绝的巡检记录数")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("record.ingest.failed")
+                .description("写入失败的巡检记录数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 是否启用异步写入
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 入队，队列满且等待超时时抛出繁忙
+     */
+    public void enqueue(InspectionRecord record) {
+        if (!accepting) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE);
+        }
+        boolean offered;
+        try {
+            offered = queue.offer(record, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        }
+        if (!offered) {
+            rejectedCounter.increment();
+            throw new BusinessException(ResultCode.TOO_MANY_REQUESTS);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        accepting = true;
+        writer = new Thread(this::runWriter, "record-ingest-writer");
+        writer.start();
+        log.info("巡检记录异步写入已启动: batchSize={}, maxWait={}ms", batchSize, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+    }
+
+    @Override
+    public void stop() {
+        if (!enabled || writer == null) {
+            return;
+        }
+        accepting = false;
+        running = false;
+        try {
+            writer.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.error("巡检记录写入队列未能在停机前写完: remaining={}", queue.size());
+            return;
+        }
+        // 停止接收前已通过检查的入队请求，由停机线程补写
+        List<InspectionRecord> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            commit(rest);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 在Web优雅停机之后停止：连接器已不再接收新请求、处理中的请求已完成，
+     * 此时队列不再增长；仍在数据源等基础组件之前
+     */
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1;
+    }
+
+    private void runWriter() {
+        List<InspectionRecord> batch = new ArrayList<>(batchSize);
+        // 停止后继续处理，直到队列清空
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+        log.info("巡检记录写入队列已清空");
+    }
+
+    /**
+     * 等待首条记录，然后在max-wait内攒批，满batch-size立即返回
+     */
+    private void collect(List<InspectionRecord> batch) throws InterruptedException {
+        InspectionRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                return;
+            }
+            InspectionRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<InspectionRecord> batch) {
+        long start = System.nanoTime();
+        List<Integer> failed;
+        try {
+            if (ingestWal.isBuffering()) {
+                ingestWal.appendRecords(batch);
+                failed = List.of();
+            } else {
+                failed = recordBatchWriter.write(batch);
+            }
+        } catch (Exception e) {
+            failed = spill(batch, e) ? List.of() : null;
+        }
+        commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+
+        if (failed == null) {
+            failedCounter.increment(batch.size());
+            batch.forEach(r -> log.error("巡检记录丢失: recordCode={}", r.getRecordCode()));
+        } else if (!failed.isEmpty()) {
+            failedCounter.increment(failed.size());
+            failed.forEach(i -> log.error("巡检记录丢失: recordCode={}", batch.get(i).getRecordCode()));
+        }
+    }
+
+    /**
+     * 数据库不可用时转存写前日志，成功返回true
+     */
+    private boolean spill(List<InspectionRecord> batch, Exception cause) {
+        if (ingestWal.isEnabled() && IngestWal.isDatabaseUnavailable(cause)) {
+            try {
+                ingestWal.appendRecords(batch);
+                log.warn("数据库不可用，巡检记录写入写前日志: size={}", batch.size());
+                return true;
+            } catch (Exception e) {
+                log.error("巡检记录写入写前日志失败: size={}, error={}", batch.size(), e.getMessage());
+                return false;
+            }
+        }
+        log.error("巡检记录组提交异常: size={}, error={}", batch.size(), cause.getMessage(), cause);
+        return false;
+    }
+}
@@ -0,0 +1,435 @@
+package com.smartsubstation.service.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 内存映射分段日志(只追加)
+ *
+ * 条目格式: [长度int][CRC32 int][类型byte][内容]，段文件预分配固定大小，长度为0表示段尾。
+ * 追加只写映射内存，刷盘线程把一段时间内的追加合并为一次force(组提交)，调用方等待刷盘后确认。
+ * 位置为 段序号&lt;&lt;32 | 段内偏移；消费位置写入checkpoint文件，之前的段整段删除。
+ * 已落盘范围内校验失败的条目原样写入dead-letter目录后跳过，避免一条坏数据卡住整个日志
+ */
+@Slf4j
+public class SegmentLog implements Closeable {
+
+    private static final int HEADER_SIZE = 9;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String DEAD_LETTER_DIR = "dead-letter";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Thread flusher;
+
+    private Segment active;
+    private volatile long appended;
+    private volatile long durable;
+    private volatile long checkpoint;
+    private volatile boolean closed;
+    private volatile long corruptCount;
+    private long quarantinedUpTo;
+
+    /**
+     * 最早未消费数据的写入时间(毫秒)，无积压时为0
+     */
+    private volatile long backlogSince;
+
+    private final Object flushMonitor = new Object();
+
+    /**
+     * 日志条目
+     */
+    public record Entry(byte type, byte[] payload) {
+    }
+
+    /**
+     * 一次读取的条目和读取后的位置
+     */
+    public record Batch(List<Entry> entries, long next) {
+    }
+
+    public SegmentLog(Path dir, int segmentSize) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+        this.checkpoint = loadCheckpoint();
+        recover();
+        this.flusher = new Thread(this::runFlusher, "segment-log-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 追加条目，返回条目结束位置；需调用awaitDurable等待落盘
+     */
+    public synchronized long append(byte type, byte[] payload) throws IOException {
+        if (closed) {
+            throw new IOException("日志已关闭");
+        }
+        int size = HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IOException("条目超过段大小: " + size);
+        }
+        if (active.writePos + size > segmentSize) {
+            roll();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+
+        MappedByteBuffer buffer = active.buffer;
+        int pos = active.writePos;
+        buffer.putInt(pos + 4, (int) crc.getValue());
+        buffer.put(pos + 8, type);
+        buffer.put(pos + HEADER_SIZE, payload);
+        // 长度最后写入，读到非0长度即表示条目完整
+        buffer.putInt(pos, payload.length + 1);
+        active.writePos = pos + size;
+
+        if (checkpoint >= appended) {
+            backlogSince = System.currentTimeMillis();
+        }
+        appended = position(active.seq, active.writePos);
+        synchronized (flushMonitor) {
+            flushMonitor.notifyAll();
+        }
+        return appended;
+    }
+
+    /**
+     * 等待指定位置之前的条目落盘
+     */
+    public void awaitDurable(long position, long timeoutMillis) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (flushMonitor) {
+            while (durable < position) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || closed) {
+                    throw new IOException("日志刷盘超时");
+                }
+                try {
+                    flushMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("日志刷盘等待被中断", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从checkpoint开始读取已落盘的条目
+     */
+    public synchronized Batch read(int maxEntries) {
+        List<Entry> entries = new ArrayList<>();
+        long pos = checkpoint;
+        long durableEnd = durable;
+        while (entries.size() < maxEntries) {
+            Segment segment = segments.get(segmentOf(pos));
+            if (segment == null) {
+                break;
+            }
+            int offset = offsetOf(pos);
+            boolean sealed = segment.seq < segmentOf(durableEnd);
+            int limit = sealed ? segmentSize
+                    : segment.seq == segmentOf(durableEnd) ? offsetOf(durableEnd) : 0;
+            int end = readAt(segment, offset, limit, entries);
+            if (end < 0 && offset < limit
+                    && (!sealed || (limit - offset >= HEADER_SIZE && segment.buffer.getInt(offset) != 0))) {
+                // 已落盘范围内无法解析(长度损坏)，之后的条目无法定位，整段剩余部分隔离
+                end = quarantine(segment, offset, limit, "长度无效");
+            }
+            if (end < 0) {
+                // 已封闭的段读到结尾后进入下一段
+                if (segment != active && segments.containsKey(segment.seq + 1)) {
+                    pos = position(segment.seq + 1, 0);
+                    continue;
+                }
+                break;
+            }
+            pos = position(segment.seq, end);
+        }
+        return new Batch(entries, pos);
+    }
+
+    /**
+     * 提交消费位置，并删除之前的段
+     */
+    public synchronized void commit(long position) throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(tmp, Long.toString(position), StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = position;
+        if (position >= appended) {
+            backlogSince = 0;
+        }
+
+        long keepFrom = segmentOf(position);
+        while (!segments.isEmpty() && segments.firstKey() < keepFrom) {
+            Segment segment = segments.pollFirstEntry().getValue();
+            Files.deleteIfExists(segment.path);
+            log.info("日志段已消费并删除: {}", segment.path.getFileName());
+        }
+    }
+
+    /**
+     * 是否还有未消费的条目
+     */
+    public boolean hasBacklog() {
+        return checkpoint < appended;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 积压时长(毫秒)，无积压时为0
+     */
+    public long backlogAgeMillis() {
+        long since = backlogSince;
+        return since == 0 || !hasBacklog() ? 0 : System.currentTimeMillis() - since;
+    }
+
+    /**
+     * 已隔离的损坏条目数
+     */
+    public long corruptCount() {
+        return corruptCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            active.buffer.force();
+            durable = appended;
+            closed = true;
+        }
+        synchronized (flushMonitor) {
+            flushMonitor.notifyAll();
+        }
+        try {
+            flusher.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 刷盘线程：有新追加就force，force期间到达的追加由下一次force一并落盘
+     */
+    private void runFlusher() {
+        while (!closed) {
+            long target;
+            synchronized (flushMonitor) {
+                while (appended <= durable && !closed) {
+                    try {
+                        flushMonitor.wait(1000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                target = appended;
+            }
+            if (closed) {
+                return;
+            }
+            Segment segment;
+            synchronized (this) {
+                segment = segments.get(segmentOf(target));
+            }
+            if (segment != null) {
+                segment.buffer.force();
+            }
+            synchronized (flushMonitor) {
+                durable = Math.max(durable, target);
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        // 换段前旧段同步落盘，刷盘线程只需处理当前段
+        active.buffer.force();
+        active = openSegment(active.seq + 1);
+        segments.put(active.seq, active);
+        log.info("日志换段: {}", active.path.getFileName());
+    }
+
+    /**
+     * 读取offset处的条目加入entries，返回条目结束偏移；到达段尾或条目不完整时返回-1。
+     * 校验失败的条目跳过：读取时(entries非空)写入死信文件，启动扫描时只越过
+     */
+    private int readAt(Segment segment, int offset, int limit, List<Entry> entries) {
+        if (limit - offset < HEADER_SIZE) {
+            return -1;
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > limit - offset - 8) {
+            return -1;
+        }
+        int crcValue = buffer.getInt(offset + 4);
+        byte type = buffer.get(offset + 8);
+        byte[] payload = new byte[length - 1];
+        buffer.get(offset + HEADER_SIZE, payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        int end = offset + 8 + length;
+        if ((int) crc.getValue() != crcValue) {
+            return entries == null ? end : quarantine(segment, offset, end, "校验失败");
+        }
+        if (entries != null) {
+            entries.add(new Entry(type, payload));
+        }
+        return end;
+    }
+
+    /**
+     * 把[offset, end)原样写入死信文件，返回end使读取越过该范围；
+     * 死信文件写入失败时同样越过，避免日志永久积压。重放失败后重读同一范围不重复隔离
+     */
+    private int quarantine(Segment segment, int offset, int end, String reason) {
+        if (position(segment.seq, offset) < quarantinedUpTo) {
+            return end;
+        }
+        quarantinedUpTo = position(segment.seq, end);
+        corruptCount++;
+        Path target = dir.resolve(DEAD_LETTER_DIR).resolve(
+                String.format("%020d-%010d.bad", segment.seq, offset));
+        byte[] bytes = new byte[end - offset];
+        segment.buffer.get(offset, bytes);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.write(target, bytes);
+            log.error("日志条目{}，已隔离并跳过: segment={}, offset={}, bytes={}, deadLetter={}",
+                    reason, segment.path.getFileName(), offset, bytes.length, target);
+        } catch (IOException e) {
+            log.error("日志条目{}，死信文件写入失败，直接跳过: segment={}, offset={}, bytes={}, error={}",
+                    reason, segment.path.getFileName(), offset, bytes.length, e.getMessage());
+        }
+        return end;
+    }
+
+    /**
+     * 启动恢复：加载现有段，扫描最后一段确定写入位置，清除残缺的尾部
+     */
+    private void recover() throws IOException {
+        List<Long> seqs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> seqs.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        seqs.sort(null);
+        for (Long seq : seqs) {
+            if (seq < segmentOf(checkpoint)) {
+                Files.deleteIfExists(segmentPath(seq));
+                continue;
+            }
+            segments.put(seq, openSegment(seq));
+        }
+        if (segments.isEmpty()) {
+            long seq = segmentOf(checkpoint);
+            segments.put(seq, openSegment(seq));
+        }
+        active = segments.lastEntry().getValue();
+
+        int pos = active.seq == segmentOf(checkpoint) ? offsetOf(checkpoint) : 0;
+        int end;
+        while ((end = readAt(active, pos, segmentSize, null)) >= 0) {
+            pos = end;
+        }
+        active.writePos = pos;
+        for (int i = pos; i < segmentSize; i++) {
+            active.buffer.put(i, (byte) 0);
+        }
+        active.buffer.force();
+
+        appended = position(active.seq, active.writePos);
+        durable = appended;
+        if (checkpoint > appended) {
+            checkpoint = appended;
+        }
+        if (hasBacklog()) {
+            // 无法得知停机前的积压时长，从最早段文件的修改时间算起
+            backlogSince = Files.getLastModifiedTime(segments.firstEntry().getValue().path).toMillis();
+        }
+        log.info("日志已加载: dir={}, segments={}, backlog={}", dir, segments.size(), hasBacklog());
+    }
+
+    private long loadCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0L;
+        }
+        return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+    }
+
+    private Segment openSegment(long seq) throws IOException {
+        Path path = segmentPath(seq);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (file.length() < segmentSize) {
+                file.setLength(segmentSize);
+            }
+            // 映射在文件关闭后仍然有效
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new Segment(seq, path, buffer);
+        }
+    }
+
+    private Path segmentPath(long seq) {
+        return dir.resolve(String.format("%020d%s", seq, SEGMENT_SUFFIX));
+    }
+
+    private static long position(long seq, int offset) {
+        return (seq << 32) | offset;
+    }
+
+    private static long segmentOf(long position) {
+        return position >>> 32;
+    }
+
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    private static final class Segment {
+        private final long seq;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int writePos;
+
+        private Segment(long seq, Path path, MappedByteBuffer buffer) {
+            this.seq = seq;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
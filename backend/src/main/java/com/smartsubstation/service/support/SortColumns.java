@@ -0,0 +1,46 @@
+package com.smartsubstation.service.support;
+
+import com.baomidou.mybatisplus.core.metadata.OrderItem;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+
+/**
+ * 列表排序字段解析
+ *
+ * 前端传实体属性名，只接受实体映射的列，转成列名后作为排序项，避免拼接任意SQL
+ */
+public final class SortColumns {
+
+    private SortColumns() {
+    }
+
+    /**
+     * 属性名转排序项，属性不存在时抛出参数错误
+     */
+    public static OrderItem orderItem(Class<?> entityClass, String sortField, String sortOrder) {
+        String column = columnOf(entityClass, sortField);
+        if (column == null) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "不支持的排序字段: " + sortField);
+        }
+        return "asc".equalsIgnoreCase(sortOrder) ? OrderItem.asc(column) : OrderItem.desc(column);
+    }
+
+    private static String columnOf(Class<?> entityClass, String property) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null) {
+            return null;
+        }
+        if (property.equals(tableInfo.getKeyProperty())) {
+            return tableInfo.getKeyColumn();
+        }
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            if (property.equals(field.getProperty())) {
+                return field.getColumn();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,306 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.entity.SysFile;
+import com.smartsubstation.mapper.SysFileMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 图片派生(缩略图/预览图)后台生成
+ *
+ * 上传后按内容哈希提交到有界线程池，同一哈希同时只处理一次，派生图与原图同目录按哈希命名，
+ * 相同内容只生成一份。解码时按预览尺寸做源下采样，不把整张大图解码到内存，并按EXIF方向旋转。
+ * 生成结果登记到 sys_file，列表接口按页批量读取登记的缩略图URL，不访问文件系统；
+ * 启动后及定时扫描未登记的图片重新提交，重启或队列满时不会丢失
+ */
+@Slf4j
+@Component
+public class ThumbnailGenerator {
+
+    private static final String THUMB = "thumb";
+    private static final String PREVIEW = "preview";
+    private static final String FORMAT = "jpg";
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    private final SysFileMapper sysFileMapper;
+    private final ContentStore contentStore;
+    private final ThreadPoolTaskExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scanning = new AtomicBoolean();
+    private final String accessUrl;
+    private final Pattern storedUrl;
+
+    @Value("${file.thumbnail.thumb-size:240}")
+    private Integer thumbSize;
+
+    @Value("${file.thumbnail.preview-size:1280}")
+    private Integer previewSize;
+
+    @Value("${file.thumbnail.quality:0.8}")
+    private Float quality;
+
+    public ThumbnailGenerator(SysFileMapper sysFileMapper,
+                              ContentStore contentStore,
+                              @Qualifier("thumbnailExecutor") ThreadPoolTaskExecutor executor,
+                              @Value("${file.access-url:/files}") String accessUrl) {
+        this.sysFileMapper = sysFileMapper;
+        this.contentStore = contentStore;
+        this.executor = executor;
+        this.accessUrl = accessUrl;
+        // 原图URL: access-url/ab/cd/<md5>.<ext>
+        this.storedUrl = Pattern.compile(Pattern.quote(accessUrl) + "/[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{32})\\.[0-9a-z]+");
+    }
+
+    /**
+     * 提交生成任务，已在处理中或队列已满时跳过(由补偿扫描处理)
+     */
+    public void submit(String md5, String filePath, String fileUrl) {
+        if (!inFlight.add(md5)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(md5, filePath, fileUrl);
+                } catch (Exception e) {
+                    log.error("图片派生失败: md5={}, error={}", md5, e.getMessage(), e);
+                } finally {
+                    inFlight.remove(md5);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(md5);
+            log.debug("图片派生队列已满，等待补偿扫描: md5={}", md5);
+        }
+    }
+
+    /**
+     * 内容对应的派生图已存在时返回 [缩略图URL, 预览图URL]，否则返回null
+     */
+    public String[] existingDerivatives(String md5) {
+        String thumb = contentStore.variantPath(md5, THUMB, FORMAT);
+        String preview = contentStore.variantPath(md5, PREVIEW, FORMAT);
+        if (!contentStore.exists(thumb) || !contentStore.exists(preview)) {
+            return null;
+        }
+        return new String[]{accessUrl + "/" + thumb, accessUrl + "/" + preview};
+    }
+
+    /**
+     * 照片URL(逗号分隔)转缩略图URL，缩略图未生成或非本地存储的照片保持原URL
+     */
+    public String thumbnailUrls(String photoUrls) {
+        Set<String> md5s = new HashSet<>();
+        collectMd5s(photoUrls, md5s);
+        return replaceWithThumbnails(photoUrls, registeredThumbnails(md5s));
+    }
+
+    /**
+     * 为一页数据填充缩略图URL：收集整页照片的内容哈希，一次查询 sys_file 中登记的缩略图
+     */
+    public <T> void fillThumbnailUrls(List<T> rows, Function<T, String> photoUrls, BiConsumer<T, String> setter) {
+        Set<String> md5s = new HashSet<>();
+        rows.forEach(row -> collectMd5s(photoUrls.apply(row), md5s));
+        Map<String, String> thumbnails = registeredThumbnails(md5s);
+        rows.forEach(row -> setter.accept(row, replaceWithThumbnails(photoUrls.apply(row), thumbnails)));
+    }
+
+    private void collectMd5s(String photoUrls, Set<String> md5s) {
+        if (photoUrls == null || photoUrls.isBlank()) {
+            return;
+        }
+        for (String url : photoUrls.split(",")) {
+            Matcher matcher = storedUrl.matcher(url.trim());
+            if (matcher.matches()) {
+                md5s.add(matcher.group(1));
+            }
+        }
+    }
+
+    private Map<String, String> registeredThumbnails(Set<String> md5s) {
+        if (md5s.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> thumbnails = new HashMap<>();
+        for (SysFile file : sysFileMapper.selectThumbnails(md5s)) {
+            thumbnails.putIfAbsent(file.getMd5(), file.getThumbnailUrl());
+        }
+        return thumbnails;
+    }
+
+    private String replaceWithThumbnails(String photoUrls, Map<String, String> thumbnails) {
+        if (photoUrls == null || photoUrls.isBlank()) {
+            return photoUrls;
+        }
+        StringJoiner joiner = new StringJoiner(",");
+        for (String url : photoUrls.split(",")) {
+            String trimmed = url.trim();
+            Matcher matcher = storedUrl.matcher(trimmed);
+            String thumbnail = matcher.matches() ? thumbnails.get(matcher.group(1)) : null;
+            joiner.add(thumbnail != null ? thumbnail : trimmed);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * 启动后及定时补偿：扫描未登记派生图的图片并提交，队列满时停止本轮
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${file.thumbnail.rescan-interval:600000}", initialDelayString = "${file.thumbnail.rescan-interval:600000}")
+    public void rescan() {
+        if (!scanning.compareAndSet(false, true)) {
+            return;
+        }
+        int submitted = 0;
+        try {
+            long lastId = 0L;
+            while (true) {
+                List<SysFile> batch = sysFileMapper.selectPendingDerivatives(lastId, SCAN_BATCH_SIZE);
+                for (SysFile file : batch) {
+                    if (executor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0) {
+                        log.info("图片派生队列已满，剩余待生成的图片下次扫描: submitted={}", submitted);
+                        return;
+                    }
+                    submit(file.getMd5(), file.getFilePath(), file.getFileUrl());
+                    submitted++;
+                }
+                if (batch.size() < SCAN_BATCH_SIZE) {
+                    break;
+                }
+                lastId = batch.get(batch.size() - 1).getFileId();
+            }
+            if (submitted > 0) {
+                log.info("图片派生补偿提交: {}", submitted);
+            }
+        } catch (Exception e) {
+            log.error("图片派生补偿扫描失败: {}", e.getMessage(), e);
+        } finally {
+            scanning.set(false);
+        }
+    }
+
+    void generate(String md5, String filePath, String fileUrl) throws IOException {
+        String[] existing = existingDerivatives(md5);
+        if (existing != null) {
+            sysFileMapper.updateDerivatives(md5, existing[0], existing[1]);
+            return;
+        }
+        Path source = contentStore.resolve(filePath);
+        BufferedImage image = read(source, previewSize);
+        if (image == null) {
+            // 无法解码(格式不支持或文件损坏)时以原图代替，补偿扫描不再反复提交
+            log.warn("图片无法解码，使用原图: md5={}, path={}", md5, filePath);
+            sysFileMapper.updateDerivatives(md5, fileUrl, fileUrl);
+            return;
+        }
+        BufferedImage preview = ExifOrientation.apply(scale(image, previewSize), ExifOrientation.read(source));
+        BufferedImage thumb = scale(preview, thumbSize);
+
+        String previewPath = contentStore.variantPath(md5, PREVIEW, FORMAT);
+        String thumbPath = contentStore.variantPath(md5, THUMB, FORMAT);
+        contentStore.put(previewPath, encode(preview));
+        contentStore.put(thumbPath, encode(thumb));
+        sysFileMapper.updateDerivatives(md5, accessUrl + "/" + thumbPath, accessUrl + "/" + previewPath);
+        log.debug("图片派生完成: md5={}, source={}x{}", md5, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * 按目标尺寸下采样解码，无法识别或解码失败(文件损坏)时返回null；打开文件失败时抛出，由补偿扫描重试
+     */
+    private static BufferedImage read(Path source, int maxSide) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, longSide / maxSide);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                // 损坏的图片可能抛出IIOException或解码器内部的运行时异常，重试也不会成功
+                log.warn("图片解码失败: path={}, error={}", source, e.toString());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxSide) {
+        double ratio = Math.min(1.0, maxSide / (double) Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // 透明背景(PNG)转JPEG时填白色
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+package com.smartsubstation.common.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * 业务编码生成吞吐基准(单线程 / 8线程争用)
+ *
+ * 运行: mvn test-compile 后以测试类路径执行本类 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusinessCodeGeneratorBenchmark {
+
+    private BusinessCodeGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new BusinessCodeGenerator(mock(StringRedisTemplate.class), 1, -1);
+        generator.init();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String nextCodeSingleThread() {
+        return generator.next(BusinessCodeGenerator.CodeType.RECORD);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextCodeContended() {
+        return generator.next(BusinessCodeGenerator.CodeType.RECORD);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BusinessCodeGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
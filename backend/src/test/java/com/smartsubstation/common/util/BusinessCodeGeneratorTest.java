@@ -0,0 +1,143 @@
+package com.smartsubstation.common.util;
+
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 业务编码生成：多线程唯一且单线程内递增；租约失效时拒绝发号或改用备用节点ID，Redis恢复后重新租用
+ */
+class BusinessCodeGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 200_000;
+
+    private BusinessCodeGenerator generator;
+
+    @AfterEach
+    void tearDown() {
+        if (generator != null) {
+            generator.releaseLease();
+        }
+    }
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        generator = new BusinessCodeGenerator(mock(StringRedisTemplate.class), 1, -1);
+        generator.init();
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    long previous = Long.MIN_VALUE;
+                    boolean increasing = true;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = generator.nextId();
+                        increasing &= id > previous;
+                        previous = id;
+                        ids.add(id);
+                    }
+                    return increasing;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+
+    @Test
+    void lostLeaseStopsIssuingCodes() {
+        StringRedisTemplate template = leasingTemplate();
+        generator = new BusinessCodeGenerator(template, -1, -1);
+        generator.init();
+        assertTrue(generator.next(BusinessCodeGenerator.CodeType.RECORD).startsWith("REC"));
+
+        // 续租发现已被其他实例持有，且没有空闲节点ID可租
+        when(template.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        when(template.opsForValue().setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        generator.maintainLease();
+
+        BusinessException e = assertThrows(BusinessException.class, generator::nextId);
+        assertEquals(ResultCode.SERVICE_UNAVAILABLE.getCode(), e.getCode());
+    }
+
+    @Test
+    void redisDownAtStartupRejectsCodesUntilLeaseAcquired() {
+        StringRedisTemplate template = leasingTemplate();
+        when(template.opsForValue().setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(true);
+        generator = new BusinessCodeGenerator(template, -1, -1);
+        generator.init();
+
+        assertThrows(BusinessException.class, generator::nextId);
+
+        generator.maintainLease();
+        assertTrue(generator.nextId() > 0);
+    }
+
+    @Test
+    void redisDownFallsBackToReservedNodeId() {
+        StringRedisTemplate template = leasingTemplate();
+        when(template.opsForValue().setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(true);
+        generator = new BusinessCodeGenerator(template, -1, 1000);
+        generator.init();
+
+        long fallbackId = generator.nextId();
+        assertEquals(1000, nodeOf(fallbackId));
+
+        generator.maintainLease();
+        long leasedId = generator.nextId();
+        assertTrue(nodeOf(leasedId) < 960, "租用的节点ID不应落入保留区间");
+    }
+
+    private static long nodeOf(long id) {
+        return (id >>> 12) & 1023;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static StringRedisTemplate leasingTemplate() {
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> operations = mock(ValueOperations.class);
+        when(template.opsForValue()).thenReturn(operations);
+        when(operations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        return template;
+    }
+}
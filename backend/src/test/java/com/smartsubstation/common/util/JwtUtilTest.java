@@ -0,0 +1,60 @@
+package com.smartsubstation.common.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验签缓存：同一Token只验签一次，超出上限时淘汰
+ */
+class JwtUtilTest {
+
+    private static final int CACHE_SIZE = 10;
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-test-secret-test-secret-test-secret");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 7200L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheSize", CACHE_SIZE);
+        jwtUtil.init();
+    }
+
+    @Test
+    void cachedClaimsAreReused() {
+        String token = jwtUtil.generateToken("inspector", 1L, 2L, 3L);
+
+        JwtClaims first = jwtUtil.parseToken(token);
+
+        assertSame(first, jwtUtil.parseToken(token));
+        assertEquals(1L, first.getUserId());
+        assertEquals(3L, first.getGeneration());
+    }
+
+    @Test
+    void cacheStaysWithinLimit() {
+        List<String> tokens = new ArrayList<>();
+        for (long i = 0; i < CACHE_SIZE * 5; i++) {
+            tokens.add(jwtUtil.generateToken("user" + i, i, 2L, 0L));
+        }
+
+        for (String token : tokens) {
+            jwtUtil.parseToken(token);
+        }
+
+        Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(jwtUtil, "claimsCache");
+        assertTrue(cache.size() <= CACHE_SIZE, "缓存条目超出上限: " + cache.size());
+        // 被淘汰的Token重新验签
+        assertEquals(0L, jwtUtil.parseToken(tokens.get(0)).getUserId());
+    }
+}
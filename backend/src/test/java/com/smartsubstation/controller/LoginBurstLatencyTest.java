@@ -0,0 +1,177 @@
+package com.smartsubstation.controller;
+
+import com.smartsubstation.common.exception.GlobalExceptionHandler;
+import com.smartsubstation.common.result.ResultCode;
+import com.smartsubstation.common.util.JwtUtil;
+import com.smartsubstation.dto.DeviceSnapshot;
+import com.smartsubstation.entity.SysUser;
+import com.smartsubstation.mapper.SysUserMapper;
+import com.smartsubstation.security.AuthMetrics;
+import com.smartsubstation.security.PasswordVerifier;
+import com.smartsubstation.security.TokenRevocationService;
+import com.smartsubstation.service.IDeviceService;
+import com.smartsubstation.service.impl.AuthServiceImpl;
+import com.smartsubstation.service.support.LastLoginWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 500个并发登录(真实BCrypt)期间，其他接口(扫码查询)的延迟不受影响
+ */
+class LoginBurstLatencyTest {
+
+    private static final int LOGINS = 500;
+    private static final int CLIENT_THREADS = 64;
+    private static final int VERIFY_THREADS = 2;
+    private static final int VERIFY_QUEUE = 16;
+    private static final long MAX_P99_MILLIS = 200;
+
+    private ThreadPoolTaskExecutor verifyExecutor;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        SysUser user = new SysUser();
+        user.setUserId(1L);
+        user.setUsername("inspector");
+        user.setPassword(encoder.encode("secret"));
+        user.setRoleId(2L);
+        user.setStatus(1);
+        SysUserMapper userMapper = mock(SysUserMapper.class);
+        when(userMapper.selectOne(any())).thenReturn(user);
+
+        verifyExecutor = new ThreadPoolTaskExecutor();
+        verifyExecutor.setCorePoolSize(VERIFY_THREADS);
+        verifyExecutor.setMaxPoolSize(VERIFY_THREADS);
+        verifyExecutor.setQueueCapacity(VERIFY_QUEUE);
+        verifyExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        verifyExecutor.initialize();
+
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-test-secret-test-secret-test-secret");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 7200L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheSize", 1000);
+        jwtUtil.init();
+
+        TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+        when(tokenRevocationService.currentGeneration(anyLong())).thenReturn(0L);
+
+        AuthServiceImpl authService = new AuthServiceImpl(userMapper,
+                new PasswordVerifier(encoder, verifyExecutor, Duration.ofSeconds(30)),
+                jwtUtil, tokenRevocationService, new AuthMetrics(new SimpleMeterRegistry()),
+                mock(LastLoginWriter.class));
+
+        IDeviceService deviceService = mock(IDeviceService.class);
+        when(deviceService.getByQrCode("QR1")).thenReturn(new DeviceSnapshot());
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new AuthController(authService), new DeviceController(deviceService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifyExecutor.shutdown();
+    }
+
+    @Test
+    void scanLatencyHoldsDuringLoginBurst() throws Exception {
+        // 预热后测基线
+        probe(200);
+        List<Long> baseline = probe(200);
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> logins = new ArrayList<>();
+            for (int i = 0; i < LOGINS; i++) {
+                logins.add(clients.submit(() -> {
+                    start.await();
+                    MvcResult result = mockMvc.perform(post("/auth/login")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"username\":\"inspector\",\"password\":\"secret\"}"))
+                            .andExpect(status().isOk())
+                            .andReturn();
+                    String body = result.getResponse().getContentAsString();
+                    return body.contains("\"code\":" + ResultCode.SUCCESS.getCode())
+                            ? ResultCode.SUCCESS.getCode() : ResultCode.TOO_MANY_REQUESTS.getCode();
+                }));
+            }
+            start.countDown();
+
+            // 登录风暴持续期间(BCrypt仍在执行)持续探测扫码接口
+            List<Long> duringBurst = new ArrayList<>();
+            while (verifyExecutor.getActiveCount() > 0 || logins.stream().anyMatch(f -> !f.isDone())) {
+                duringBurst.addAll(probe(10));
+            }
+
+            int accepted = 0;
+            for (Future<Integer> login : logins) {
+                if (login.get(60, TimeUnit.SECONDS) == ResultCode.SUCCESS.getCode()) {
+                    accepted++;
+                }
+            }
+            assertTrue(accepted >= VERIFY_THREADS, "至少应有部分登录成功: " + accepted);
+            assertTrue(duringBurst.size() >= 50, "探测次数过少: " + duringBurst.size());
+
+            long baselineP99 = p99(baseline);
+            long burstP99 = p99(duringBurst);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(burstP99) < MAX_P99_MILLIS,
+                    "登录风暴期间扫码接口p99=" + TimeUnit.NANOSECONDS.toMicros(burstP99)
+                            + "us, 基线p99=" + TimeUnit.NANOSECONDS.toMicros(baselineP99) + "us");
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * 依次请求扫码接口，返回每次耗时(纳秒)
+     */
+    private List<Long> probe(int count) throws Exception {
+        List<Long> latencies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            mockMvc.perform(get("/devices/qr/QR1")).andExpect(status().isOk());
+            latencies.add(System.nanoTime() - start);
+        }
+        return latencies;
+    }
+
+    private static long p99(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+}
@@ -0,0 +1,137 @@
+package com.smartsubstation.security;
+
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 密码校验线程池：登录风暴时超出容量的请求快速返回429，已接收的请求正常完成
+ */
+class PasswordVerifierTest {
+
+    private static final int THREADS = 4;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final int LOGINS = 500;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentLoginsBeyondCapacityAreRejectedWith429() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordVerifier verifier = new PasswordVerifier(blockingEncoder(release),
+                newExecutor(), Duration.ofSeconds(30));
+
+        ThreadPoolExecutor clients = (ThreadPoolExecutor) Executors.newFixedThreadPool(64);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < LOGINS; i++) {
+                results.add(clients.submit(() -> {
+                    start.await();
+                    try {
+                        return verifier.matches("secret", "secret") ? ResultCode.SUCCESS.getCode() : -1;
+                    } catch (BusinessException e) {
+                        return e.getCode();
+                    }
+                }));
+            }
+            start.countDown();
+
+            // 等到线程池和队列都被占满后再放行，超出容量的请求此时已全部被拒绝
+            waitUntil(() -> clients.getCompletedTaskCount() == LOGINS - THREADS - QUEUE_CAPACITY);
+            release.countDown();
+
+            int accepted = 0;
+            int rejected = 0;
+            for (Future<Integer> result : results) {
+                int code = result.get(30, TimeUnit.SECONDS);
+                if (code == ResultCode.SUCCESS.getCode()) {
+                    accepted++;
+                } else {
+                    assertEquals(ResultCode.TOO_MANY_REQUESTS.getCode(), code);
+                    rejected++;
+                }
+            }
+            assertEquals(THREADS + QUEUE_CAPACITY, accepted);
+            assertEquals(LOGINS - THREADS - QUEUE_CAPACITY, rejected);
+        } finally {
+            release.countDown();
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void verificationSlowerThanTimeoutReturns429() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordVerifier verifier = new PasswordVerifier(blockingEncoder(release),
+                newExecutor(), Duration.ofMillis(100));
+        try {
+            BusinessException e = assertThrows(BusinessException.class, () -> verifier.matches("secret", "secret"));
+            assertEquals(ResultCode.TOO_MANY_REQUESTS.getCode(), e.getCode());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private ThreadPoolTaskExecutor newExecutor() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(THREADS);
+        executor.setMaxPoolSize(THREADS);
+        executor.setQueueCapacity(QUEUE_CAPACITY);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "等待超时");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.smartsubstation.security;
+
+import com.smartsubstation.common.util.JwtClaims;
+import com.smartsubstation.common.util.JwtUtil;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT过滤器吞吐基准：吊销检查查本地副本 / 每个请求查一次Redis(改造前的做法)
+ *
+ * 对照组需要可访问的Redis(-Dbench.redis.host、-Dbench.redis.port，默认localhost:6379)。
+ * 运行: mvn test-compile 后以测试类路径执行本类 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRevocationBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private LettuceConnectionFactory connectionFactory;
+    private JwtAuthenticationFilter replicaFilter;
+    private JwtAuthenticationFilter redisFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "benchmark-secret-benchmark-secret-benchmark-secret");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 7200L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheSize", 10000);
+        jwtUtil.init();
+        token = jwtUtil.generateToken("inspector", 1L, 2L, 0L);
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("bench.redis.host", "localhost"),
+                Integer.getInteger("bench.redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        TokenRevocationService replica = new TokenRevocationService(null, null, null, null);
+        TokenRevocationService redisLookup = new TokenRevocationService(null, null, null, null) {
+            @Override
+            public boolean isRevoked(JwtClaims claims) {
+                return Boolean.TRUE.equals(redisTemplate.hasKey("user:token:revoked:" + claims.getTokenId()));
+            }
+        };
+        RolePermissionResolver roles = new FixedRoles();
+        replicaFilter = new JwtAuthenticationFilter(jwtUtil, replica, roles);
+        redisFilter = new JwtAuthenticationFilter(jwtUtil, redisLookup, roles);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public MockHttpServletRequest withReplica() throws Exception {
+        return filter(replicaFilter);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public MockHttpServletRequest withoutReplica() throws Exception {
+        return filter(redisFilter);
+    }
+
+    private MockHttpServletRequest filter(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/my");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+        return request;
+    }
+
+    /**
+     * 固定权限，不访问数据库
+     */
+    private static class FixedRoles extends RolePermissionResolver {
+
+        private final List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_INSPECTOR"));
+
+        FixedRoles() {
+            super(null, null, null);
+        }
+
+        @Override
+        public List<GrantedAuthority> getAuthorities(Long roleId) {
+            return authorities;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenRevocationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
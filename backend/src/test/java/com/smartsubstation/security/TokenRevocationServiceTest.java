@@ -0,0 +1,119 @@
+package com.smartsubstation.security;
+
+import com.smartsubstation.common.util.JwtClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Token吊销本地副本：广播更新、降级吊销、过期清理、启动同步失败重试
+ */
+class TokenRevocationServiceTest {
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        AuthRedisClient authRedisClient = mock(AuthRedisClient.class);
+        when(authRedisClient.getTemplate()).thenThrow(new RedisConnectionFailureException("down"));
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(new SimpleMeterRegistry(), 1, Duration.ofMinutes(1));
+        service = new TokenRevocationService(mock(StringRedisTemplate.class), authRedisClient,
+                mock(RedisMessageListenerContainer.class), circuitBreaker);
+    }
+
+    @Test
+    void revokedTokenBroadcastOnlyAffectsThatToken() {
+        JwtClaims revoked = claims(1L, 0L, "a1", 60_000);
+        JwtClaims other = claims(1L, 0L, "a2", 60_000);
+
+        service.onMessage(message("user:token:revoked:channel", "a1:" + revoked.getExpiration().getTime()), null);
+
+        assertTrue(service.isRevoked(revoked));
+        assertFalse(service.isRevoked(other));
+    }
+
+    @Test
+    void generationBroadcastRevokesOlderTokensAndNeverGoesBack() {
+        service.onMessage(message("user:token:gen:channel", "7:3"), null);
+        service.onMessage(message("user:token:gen:channel", "7:2"), null);
+
+        assertTrue(service.isRevoked(claims(7L, 2L, "b1", 60_000)));
+        assertFalse(service.isRevoked(claims(7L, 3L, "b2", 60_000)));
+        assertFalse(service.isRevoked(claims(8L, 0L, "b3", 60_000)));
+    }
+
+    @Test
+    void revokeTokenFallsBackLocallyAndOnlySucceedsOnce() {
+        JwtClaims claims = claims(1L, 0L, "c1", 60_000);
+
+        assertTrue(service.revokeToken(claims));
+        assertFalse(service.revokeToken(claims));
+        assertTrue(service.isRevoked(claims));
+        assertFalse(service.isRevoked(claims(1L, 0L, "c2", 60_000)));
+        assertEquals(1, service.pendingRevocationCount());
+    }
+
+    @Test
+    void sweepDropsExpiredEntries() {
+        service.onMessage(message("user:token:revoked:channel", "d1:" + (System.currentTimeMillis() - 1)), null);
+        JwtClaims expired = claims(1L, 0L, "d1", -1);
+
+        service.sweepExpired();
+
+        assertFalse(service.isRevoked(expired));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startupResyncFailureTripsBreakerAndRetriesAfterRecovery() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        Cursor<String> emptyCursor = mock(Cursor.class);
+        when(redisTemplate.scan(any(ScanOptions.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(emptyCursor);
+        StringRedisTemplate authTemplate = mock(StringRedisTemplate.class);
+        when(authTemplate.execute(any(RedisCallback.class))).thenReturn("PONG");
+        AuthRedisClient authRedisClient = mock(AuthRedisClient.class);
+        when(authRedisClient.getTemplate()).thenReturn(authTemplate);
+        RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(new SimpleMeterRegistry(), 1, Duration.ZERO);
+        TokenRevocationService startup = new TokenRevocationService(redisTemplate, authRedisClient,
+                mock(RedisMessageListenerContainer.class), circuitBreaker);
+
+        startup.resync();
+        assertTrue(circuitBreaker.isDegraded());
+
+        startup.recover();
+        assertFalse(circuitBreaker.isDegraded());
+        // 第一次扫描失败，恢复后重新扫描代数和单个Token两类键
+        verify(redisTemplate, times(3)).scan(any(ScanOptions.class));
+    }
+
+    private static JwtClaims claims(Long userId, long generation, String tokenId, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return new JwtClaims("user" + userId, userId, 1L, generation, tokenId, new Date(now), new Date(now + ttlMillis));
+    }
+
+    private static DefaultMessage message(String channel, String body) {
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,107 @@
+package com.smartsubstation.service.support;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.smartsubstation.dto.DeviceSnapshot;
+import com.smartsubstation.entity.DeviceInfo;
+import com.smartsubstation.mapper.DeviceInfoMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 扫码查询延迟基准(1万 / 20万设备，命中 / 随机二维码未命中，8线程)
+ *
+ * 运行: mvn test-compile 后以测试类路径执行本类 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeviceQrIndexBenchmark {
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    @Param({"10000", "200000"})
+    private int devices;
+
+    private DeviceQrIndex index;
+
+    @Setup
+    public void setUp() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), DeviceInfo.class);
+        DeviceInfoMapper deviceInfoMapper = mock(DeviceInfoMapper.class);
+        List<List<DeviceInfo>> batches = new ArrayList<>();
+        for (int from = 1; from <= devices; from += LOAD_BATCH_SIZE) {
+            batches.add(devices(from, Math.min(LOAD_BATCH_SIZE, devices - from + 1)));
+        }
+        batches.add(List.of());
+        int[] next = {0};
+        when(deviceInfoMapper.selectList(any())).thenAnswer(invocation -> batches.get(next[0]++));
+
+        index = new DeviceQrIndex(deviceInfoMapper, mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class));
+        index.reload();
+        if (index.size() != devices) {
+            throw new IllegalStateException("索引加载不完整: " + index.size());
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public DeviceSnapshot scanHit() {
+        return index.get("QR" + (ThreadLocalRandom.current().nextInt(devices) + 1));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public DeviceSnapshot scanMiss() {
+        return index.get("RANDOM" + ThreadLocalRandom.current().nextInt());
+    }
+
+    private static List<DeviceInfo> devices(int fromId, int count) {
+        List<DeviceInfo> devices = new ArrayList<>(count);
+        for (long id = fromId; id < fromId + count; id++) {
+            DeviceInfo device = new DeviceInfo();
+            device.setDeviceId(id);
+            device.setDeviceCode("DEV" + id);
+            device.setDeviceName("设备" + id);
+            device.setQrCode("QR" + id);
+            device.setStatus(1);
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DeviceQrIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.smartsubstation.service.support;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.smartsubstation.dto.DeviceSnapshot;
+import com.smartsubstation.entity.DeviceInfo;
+import com.smartsubstation.mapper.DeviceInfoMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 设备二维码索引：加载后扫码只查内存，未加载时回查数据库
+ */
+class DeviceQrIndexTest {
+
+    private static final int DEVICE_COUNT = 10_000;
+
+    private DeviceInfoMapper deviceInfoMapper;
+    private DeviceQrIndex index;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), DeviceInfo.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        deviceInfoMapper = mock(DeviceInfoMapper.class);
+        index = new DeviceQrIndex(deviceInfoMapper, mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class));
+    }
+
+    @Test
+    void loadedIndexAnswersHitsAndMissesWithoutDatabase() {
+        when(deviceInfoMapper.selectList(any()))
+                .thenReturn(devices(1, 5000), devices(5001, 5000), List.of());
+
+        index.reload();
+
+        assertEquals(DEVICE_COUNT, index.size());
+        for (long id = 1; id <= DEVICE_COUNT; id++) {
+            DeviceSnapshot snapshot = index.get("QR" + id);
+            assertNotNull(snapshot);
+            assertEquals(id, snapshot.getDeviceId());
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertNull(index.get("RANDOM" + i));
+        }
+        verify(deviceInfoMapper, never()).selectOne(any());
+    }
+
+    @Test
+    void missBeforeLoadFallsBackToDatabase() {
+        when(deviceInfoMapper.selectOne(any())).thenReturn(device(42L), (DeviceInfo) null);
+
+        DeviceSnapshot snapshot = index.get("QR42");
+
+        assertNotNull(snapshot);
+        assertEquals(42L, snapshot.getDeviceId());
+        assertNull(index.get("UNKNOWN"));
+        verify(deviceInfoMapper, times(2)).selectOne(any());
+    }
+
+    @Test
+    void refreshReplacesChangedQrCode() {
+        when(deviceInfoMapper.selectList(any())).thenReturn(devices(1, 3));
+        index.reload();
+
+        DeviceInfo changed = device(2L);
+        changed.setQrCode("QR2-NEW");
+        when(deviceInfoMapper.selectOne(any())).thenReturn(changed);
+        index.refresh(2L);
+
+        assertNull(index.get("QR2"));
+        assertEquals(2L, index.get("QR2-NEW").getDeviceId());
+        assertEquals(3, index.size());
+    }
+
+    private static List<DeviceInfo> devices(long firstId, int count) {
+        List<DeviceInfo> devices = new ArrayList<>(count);
+        for (long id = firstId; id < firstId + count; id++) {
+            devices.add(device(id));
+        }
+        return devices;
+    }
+
+    private static DeviceInfo device(Long id) {
+        DeviceInfo device = new DeviceInfo();
+        device.setDeviceId(id);
+        device.setDeviceCode("DEV" + id);
+        device.setDeviceName("设备" + id);
+        device.setQrCode("QR" + id);
+        device.setStatus(1);
+        return device;
+    }
+}
@@ -0,0 +1,94 @@
+package com.smartsubstation.service.support;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * EXIF方向：解析APP1中的方向标签，按方向旋转派生图
+ */
+class ExifOrientationTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsOrientationInBothByteOrders() throws IOException {
+        assertEquals(6, ExifOrientation.read(jpeg(true, 6)));
+        assertEquals(8, ExifOrientation.read(jpeg(false, 8)));
+    }
+
+    @Test
+    void missingExifIsNormal() throws IOException {
+        Path file = dir.resolve("plain.jpg");
+        Files.write(file, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDA, 0, 2});
+        assertEquals(ExifOrientation.NORMAL, ExifOrientation.read(file));
+
+        Path png = dir.resolve("image.png");
+        Files.write(png, new byte[]{(byte) 0x89, 'P', 'N', 'G'});
+        assertEquals(ExifOrientation.NORMAL, ExifOrientation.read(png));
+    }
+
+    @Test
+    void rotatesClockwiseForOrientationSix() {
+        BufferedImage image = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+
+        BufferedImage rotated = ExifOrientation.apply(image, 6);
+
+        assertEquals(2, rotated.getWidth());
+        assertEquals(4, rotated.getHeight());
+        // 左上角顺时针旋转后到右上角
+        assertEquals(0xFF0000, rotated.getRGB(1, 0) & 0xFFFFFF);
+    }
+
+    /**
+     * SOI + APP1(Exif, IFD0只有方向标签) + SOS
+     */
+    private Path jpeg(boolean littleEndian, int orientation) throws IOException {
+        ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+        DataOutputStream t = new DataOutputStream(tiff);
+        t.writeBytes(littleEndian ? "II" : "MM");
+        writeShort(t, 42, littleEndian);
+        writeInt(t, 8, littleEndian);
+        writeShort(t, 1, littleEndian);
+        writeShort(t, 0x0112, littleEndian);
+        writeShort(t, 3, littleEndian);
+        writeInt(t, 1, littleEndian);
+        writeShort(t, orientation, littleEndian);
+        writeShort(t, 0, littleEndian);
+        writeInt(t, 0, littleEndian);
+
+        byte[] exif = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeShort(0xFFD8);
+        out.writeShort(0xFFE1);
+        out.writeShort(2 + exif.length + tiff.size());
+        out.write(exif);
+        out.write(tiff.toByteArray());
+        out.writeShort(0xFFDA);
+        out.writeShort(2);
+
+        Path path = dir.resolve("photo-" + littleEndian + ".jpg");
+        Files.write(path, file.toByteArray());
+        return path;
+    }
+
+    private static void writeShort(DataOutputStream out, int value, boolean littleEndian) throws IOException {
+        out.writeShort(littleEndian ? Short.reverseBytes((short) value) : value);
+    }
+
+    private static void writeInt(DataOutputStream out, int value, boolean littleEndian) throws IOException {
+        out.writeInt(littleEndian ? Integer.reverseBytes(value) : value);
+    }
+}
@@ -0,0 +1,136 @@
+package com.smartsubstation.service.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsubstation.common.exception.BusinessException;
+import com.smartsubstation.common.result.ResultCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 幂等提交：执行期间占位续期，重放返回首次结果，处理中的重复请求冲突，未持久化的结果不保存
+ */
+class IdempotencyStoreTest {
+
+    private static final Duration PENDING_TTL = Duration.ofMillis(90);
+
+    /**
+     * 模拟Redis：键 -> 值，只关心占位、续期、释放和结果写入
+     */
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final AtomicInteger renewals = new AtomicInteger();
+    private IdempotencyStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(template.opsForValue()).thenReturn(ops);
+        doAnswer(inv -> redis.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(ops).set(anyString(), anyString(), any(Duration.class));
+        when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(inv -> {
+            String script = inv.<RedisScript<?>>getArgument(0).getScriptAsString();
+            String key = inv.<List<String>>getArgument(1).get(0);
+            String token = inv.getArgument(2);
+            if (script.contains("PEXPIRE")) {
+                renewals.incrementAndGet();
+                return token.equals(redis.get(key)) ? 1L : 0L;
+            }
+            if (script.contains("DEL")) {
+                return redis.remove(key, token) ? 1L : 0L;
+            }
+            return redis.putIfAbsent(key, token);
+        });
+        store = new IdempotencyStore(template, new ObjectMapper(), Duration.ofHours(24), PENDING_TTL, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    void renewsPlaceholderWhileActionRuns() {
+        String result = store.execute("record-batch", "k1", String.class, () -> {
+            sleep(PENDING_TTL.toMillis() * 3);
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertTrue(renewals.get() >= 2, "执行超过占位TTL时应续期");
+    }
+
+    @Test
+    void replayReturnsFirstResultWithoutRunningAgain() {
+        AtomicInteger runs = new AtomicInteger();
+        store.execute("record", "k2", Integer.class, runs::incrementAndGet);
+        Integer replay = store.execute("record", "k2", Integer.class, runs::incrementAndGet);
+
+        assertEquals(1, replay);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void duplicateWhileRunningIsRejected() {
+        BusinessException conflict = assertThrows(BusinessException.class, () ->
+                store.execute("record", "k3", String.class, () ->
+                        store.execute("record", "k3", String.class, () -> "second")));
+
+        assertEquals(ResultCode.CONFLICT.getCode(), conflict.getCode());
+    }
+
+    @Test
+    void failedActionReleasesPlaceholder() {
+        assertThrows(IllegalStateException.class, () -> store.execute("record", "k4", String.class, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertFalse(redis.keySet().stream().anyMatch(k -> k.endsWith(":k4")));
+        assertEquals("ok", store.execute("record", "k4", String.class, () -> "ok"));
+    }
+
+    @Test
+    void unpersistedResultIsNotStored() {
+        AtomicInteger runs = new AtomicInteger();
+        store.execute("record", "k5", Integer.class, runs::incrementAndGet, result -> false);
+
+        assertFalse(redis.entrySet().stream()
+                .anyMatch(e -> e.getKey().endsWith(":k5") && !e.getValue().startsWith("PENDING:")));
+        BusinessException conflict = assertThrows(BusinessException.class, () ->
+                store.execute("record", "k5", Integer.class, runs::incrementAndGet));
+        assertEquals(ResultCode.CONFLICT.getCode(), conflict.getCode());
+
+        // 占位过期后可重新提交
+        redis.keySet().removeIf(k -> k.endsWith(":k5"));
+        assertEquals(2, store.execute("record", "k5", Integer.class, runs::incrementAndGet));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.smartsubstation.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * N-gram索引：删除的文档不再作为候选，重新添加后恢复；更新文档不重复计数
+ */
+class NgramIndexTest {
+
+    @Test
+    void removedDocumentIsNotACandidate() {
+        NgramIndex index = new NgramIndex();
+        index.add(1, "ZB-001", "1号主变压器");
+        index.add(2, "ZB-002", "2号主变压器");
+
+        assertEquals(List.of(2L, 1L), index.search("主变压", 10));
+
+        index.remove(2);
+        assertEquals(List.of(1L), index.search("主变压", 10));
+
+        index.add(2, "ZB-002", "2号主变压器");
+        assertEquals(List.of(2L, 1L), index.search("主变压", 10));
+    }
+
+    @Test
+    void reAddingDocumentDoesNotIncreaseDocCount() {
+        NgramIndex index = new NgramIndex();
+        index.add(1, "ZB-001", "1号主变压器");
+        index.add(1, "ZB-001", "1号主变压器(检修)");
+        index.add(2, "ZB-002", "2号主变压器");
+
+        assertEquals(2, index.docCount());
+    }
+
+    @Test
+    void removedDocumentDoesNotCountTowardsLimit() {
+        NgramIndex index = new NgramIndex();
+        for (int id = 1; id <= 3; id++) {
+            index.add(id, "GIS-00" + id);
+        }
+        index.remove(3);
+        index.remove(2);
+
+        assertEquals(List.of(1L), index.search("gis", 1));
+    }
+}
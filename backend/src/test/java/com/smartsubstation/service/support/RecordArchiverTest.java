@@ -0,0 +1,91 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.entity.InspectionRecord;
+import com.smartsubstation.mapper.InspectionRecordMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 归档读取：按 (检查时间, 主键) 倒序取游标之后的前N条，统计归档覆盖范围
+ */
+class RecordArchiverTest {
+
+    private static final long TASK_ID = 7L;
+    private static final YearMonth OLDER = YearMonth.now().minusMonths(15);
+    private static final YearMonth NEWER = YearMonth.now().minusMonths(14);
+
+    @TempDir
+    Path dir;
+
+    private RecordArchiver archiver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        archiver = new RecordArchiver(mock(InspectionRecordMapper.class), mock(StringRedisTemplate.class));
+        ReflectionTestUtils.setField(archiver, "enabled", true);
+        ReflectionTestUtils.setField(archiver, "dir", dir.toString());
+
+        // 每月3条本任务记录(第2天起每天一条)和1条其他任务的记录
+        writeMonth(OLDER, 100);
+        writeMonth(NEWER, 200);
+    }
+
+    @Test
+    void returnsTopRowsInDescendingOrder() {
+        List<InspectionRecord> rows = archiver.findByTask(TASK_ID, OLDER.atDay(1).atStartOfDay(), null, null, 4);
+
+        assertEquals(List.of(203L, 202L, 201L, 103L), ids(rows));
+    }
+
+    @Test
+    void continuesAfterCursor() {
+        LocalDateTime cursorTime = NEWER.atDay(2).atStartOfDay();
+        List<InspectionRecord> rows = archiver.findByTask(TASK_ID, OLDER.atDay(1).atStartOfDay(), cursorTime, 201L, 10);
+
+        assertEquals(List.of(103L, 102L, 101L), ids(rows));
+    }
+
+    @Test
+    void countsArchivedRowsAndCoverage() {
+        RecordArchiver.ArchivedCount count = archiver.countByTask(TASK_ID, OLDER.atDay(10).atStartOfDay());
+
+        assertEquals(6, count.count());
+        assertEquals(NEWER.plusMonths(1).atDay(1).atStartOfDay(), count.archivedUntil());
+    }
+
+    private void writeMonth(YearMonth month, long baseId) throws IOException {
+        Path file = dir.resolve("inspection_record_" + month.format(DateTimeFormatter.ofPattern("yyyyMM")) + ".rca");
+        try (RecordArchiveFile.Writer writer = new RecordArchiveFile.Writer(file)) {
+            for (int i = 1; i <= 3; i++) {
+                writer.write(record(baseId + i, TASK_ID, month.atDay(1 + i).atStartOfDay()));
+            }
+            writer.write(record(baseId + 50, TASK_ID + 1, month.atDay(20).atStartOfDay()));
+        }
+    }
+
+    private static InspectionRecord record(long id, long taskId, LocalDateTime checkTime) {
+        InspectionRecord record = new InspectionRecord();
+        record.setRecordId(id);
+        record.setRecordCode("XJ" + id);
+        record.setTaskId(taskId);
+        record.setCheckTime(checkTime);
+        return record;
+    }
+
+    private static List<Long> ids(List<InspectionRecord> rows) {
+        return rows.stream().map(InspectionRecord::getRecordId).toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.smartsubstation.service.support;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsubstation.entity.InspectionRecord;
+import com.smartsubstation.mapper.InspectionRecordMapper;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 巡检记录批量写入基准：每次调用10/100/1000条，多行INSERT / 逐条INSERT(改造前的做法)
+ *
+ * 需要可写的MySQL库(已建inspection_record表)，通过 -Dbench.jdbc.url、-Dbench.jdbc.username、
+ * -Dbench.jdbc.password 指定，基准会持续写入数据，请使用单独的库。
+ * 运行: mvn test-compile 后以测试类路径执行本类 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordBatchWriterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final String prefix = "BENCH" + UUID.randomUUID().toString().substring(0, 8);
+
+    private DruidDataSource dataSource;
+    private InspectionRecordMapper recordMapper;
+    private TransactionTemplate transactionTemplate;
+    private RecordBatchWriter writer;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataSource = new DruidDataSource();
+        dataSource.setUrl(System.getProperty("bench.jdbc.url",
+                "jdbc:mysql://localhost:3306/smart_substation_bench?rewriteBatchedStatements=true"));
+        dataSource.setUsername(System.getProperty("bench.jdbc.username", "root"));
+        dataSource.setPassword(System.getProperty("bench.jdbc.password", ""));
+        dataSource.init();
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addMapper(InspectionRecordMapper.class);
+        MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setConfiguration(configuration);
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+
+        recordMapper = new SqlSessionTemplate(sqlSessionFactory).getMapper(InspectionRecordMapper.class);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // 记录不带任务ID，不会访问我的任务缓存
+        MyTaskCache myTaskCache = new MyTaskCache(null, null, new ObjectMapper(), Duration.ofSeconds(60));
+        writer = new RecordBatchWriter(recordMapper, transactionTemplate, myTaskCache);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<Integer> multiRowInsert() {
+        return writer.write(records());
+    }
+
+    @Benchmark
+    public List<InspectionRecord> rowByRowInsert() {
+        List<InspectionRecord> records = records();
+        transactionTemplate.executeWithoutResult(status -> records.forEach(recordMapper::insert));
+        return records;
+    }
+
+    private List<InspectionRecord> records() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<InspectionRecord> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            InspectionRecord record = new InspectionRecord();
+            record.setRecordCode(prefix + sequence.incrementAndGet());
+            record.setDeviceId(1L);
+            record.setItemId(1L);
+            record.setCheckValue("65");
+            record.setCheckResult("normal");
+            record.setCheckTime(now);
+            record.setIsOffline(0);
+            records.add(record);
+        }
+        return records;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RecordBatchWriterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
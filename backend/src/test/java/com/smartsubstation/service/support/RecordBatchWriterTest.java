@@ -0,0 +1,124 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.entity.InspectionRecord;
+import com.smartsubstation.mapper.InspectionRecordMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 巡检记录批量写入：主键按(记录编码, 检查时间)回填，整批失败时逐条重试
+ */
+class RecordBatchWriterTest {
+
+    private static final LocalDateTime CHECK_TIME = LocalDateTime.of(2024, 3, 1, 9, 30);
+
+    private InspectionRecordMapper recordMapper;
+    private RecordBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        recordMapper = mock(InspectionRecordMapper.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        writer = new RecordBatchWriter(recordMapper, new TransactionTemplate(transactionManager), mock(MyTaskCache.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void resolvesIdsByCodeAndTimeWithOneInsertPerBatch(int size) {
+        List<InspectionRecord> batch = records(size);
+        // 自增值不连续且回查结果无序
+        when(recordMapper.selectIdsByCodeAndTime(anyList())).thenAnswer(inv -> {
+            Collection<InspectionRecord> keys = inv.getArgument(0);
+            List<InspectionRecord> rows = new ArrayList<>();
+            for (InspectionRecord key : keys) {
+                InspectionRecord row = new InspectionRecord();
+                row.setRecordCode(key.getRecordCode());
+                row.setCheckTime(key.getCheckTime());
+                row.setRecordId(idOf(key.getRecordCode()));
+                rows.add(row);
+            }
+            Collections.reverse(rows);
+            return rows;
+        });
+
+        List<Integer> failed = writer.write(batch);
+
+        assertEquals(List.of(), failed);
+        for (InspectionRecord record : batch) {
+            assertEquals(idOf(record.getRecordCode()), record.getRecordId());
+        }
+        verify(recordMapper, times(1)).insertBatch(batch);
+        verify(recordMapper, never()).insert(any(InspectionRecord.class));
+    }
+
+    @Test
+    void retriesRowByRowAndReportsFailedIndexes() {
+        List<InspectionRecord> batch = records(3);
+        when(recordMapper.insertBatch(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(recordMapper.insert(any(InspectionRecord.class))).thenAnswer(inv -> {
+            InspectionRecord record = inv.getArgument(0);
+            if (record == batch.get(1)) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            record.setRecordId(idOf(record.getRecordCode()));
+            return 1;
+        });
+
+        List<Integer> failed = writer.write(batch);
+
+        assertEquals(List.of(1), failed);
+        assertEquals(idOf(batch.get(0).getRecordCode()), batch.get(0).getRecordId());
+        assertNull(batch.get(1).getRecordId());
+        assertEquals(idOf(batch.get(2).getRecordCode()), batch.get(2).getRecordId());
+    }
+
+    @Test
+    void databaseUnavailableIsRethrownWithoutRetry() {
+        List<InspectionRecord> batch = records(3);
+        when(recordMapper.insertBatch(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> writer.write(batch));
+        verify(recordMapper, never()).insert(any(InspectionRecord.class));
+        batch.forEach(r -> assertNull(r.getRecordId()));
+    }
+
+    private static List<InspectionRecord> records(int size) {
+        List<InspectionRecord> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            InspectionRecord record = new InspectionRecord();
+            record.setRecordCode(String.format("XJ%08d", i));
+            record.setCheckTime(CHECK_TIME.plusSeconds(i % 7));
+            batch.add(record);
+        }
+        return batch;
+    }
+
+    private static Long idOf(String recordCode) {
+        return Long.parseLong(recordCode.substring(2)) * 3 + 1000;
+    }
+}
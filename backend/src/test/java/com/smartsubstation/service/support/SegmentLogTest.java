@@ -0,0 +1,142 @@
+package com.smartsubstation.service.support;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分段日志：损坏条目隔离到死信文件后跳过，消费位置继续前进
+ */
+class SegmentLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int HEADER_SIZE = 9;
+    private static final byte TYPE = 1;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void corruptPayloadIsQuarantinedAndSkipped() throws IOException {
+        try (SegmentLog log = new SegmentLog(dir, SEGMENT_SIZE)) {
+            long end = appendAll(log, "first", "second", "third");
+            // 篡改第二条的内容，长度不变
+            corrupt(entryOffset("first") + HEADER_SIZE, (byte) 'X');
+
+            SegmentLog.Batch batch = log.read(10);
+
+            assertEquals(List.of("first", "third"), payloads(batch));
+            assertEquals(end, batch.next());
+            log.commit(batch.next());
+            assertFalse(log.hasBacklog());
+            assertEquals(1, log.corruptCount());
+            assertEquals(1, deadLetters());
+        }
+    }
+
+    @Test
+    void corruptLengthQuarantinesRestOfDurableRange() throws IOException {
+        try (SegmentLog log = new SegmentLog(dir, SEGMENT_SIZE)) {
+            long end = appendAll(log, "first", "second", "third");
+            corruptInt(entryOffset("first"), 1_000_000);
+
+            SegmentLog.Batch batch = log.read(10);
+
+            assertEquals(List.of("first"), payloads(batch));
+            assertEquals(end, batch.next());
+            log.commit(batch.next());
+            assertFalse(log.hasBacklog());
+
+            // 隔离后新写入的条目正常读取
+            appendAll(log, "fourth");
+            assertEquals(List.of("fourth"), payloads(log.read(10)));
+        }
+    }
+
+    @Test
+    void rereadAfterFailedReplayDoesNotQuarantineTwice() throws IOException {
+        try (SegmentLog log = new SegmentLog(dir, SEGMENT_SIZE)) {
+            appendAll(log, "first", "second");
+            corrupt(entryOffset("first") + HEADER_SIZE, (byte) 'X');
+
+            log.read(10);
+            SegmentLog.Batch retry = log.read(10);
+
+            assertEquals(List.of("first"), payloads(retry));
+            assertEquals(1, log.corruptCount());
+        }
+    }
+
+    @Test
+    void backlogAgeIsTrackedUntilConsumed() throws IOException, InterruptedException {
+        try (SegmentLog log = new SegmentLog(dir, SEGMENT_SIZE)) {
+            assertEquals(0, log.backlogAgeMillis());
+            appendAll(log, "first");
+            Thread.sleep(20);
+            assertTrue(log.backlogAgeMillis() >= 20);
+
+            log.commit(log.read(10).next());
+            assertEquals(0, log.backlogAgeMillis());
+        }
+    }
+
+    private static long appendAll(SegmentLog log, String... payloads) throws IOException {
+        long end = 0;
+        for (String payload : payloads) {
+            end = log.append(TYPE, payload.getBytes(StandardCharsets.UTF_8));
+        }
+        log.awaitDurable(end, 5000);
+        return end;
+    }
+
+    private static int entryOffset(String... before) {
+        int offset = 0;
+        for (String payload : before) {
+            offset += HEADER_SIZE + payload.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return offset;
+    }
+
+    private void corrupt(int offset, byte value) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile().toFile(), "rw")) {
+            file.seek(offset);
+            file.write(value);
+        }
+    }
+
+    private void corruptInt(int offset, int value) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile().toFile(), "rw")) {
+            file.seek(offset);
+            file.writeInt(value);
+        }
+    }
+
+    private Path segmentFile() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+    }
+
+    private long deadLetters() throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve("dead-letter"))) {
+            return files.count();
+        }
+    }
+
+    private static List<String> payloads(SegmentLog.Batch batch) {
+        return batch.entries().stream()
+                .map(e -> new String(e.payload(), StandardCharsets.UTF_8))
+                .toList();
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartsubstation.service.support;
+
+import com.smartsubstation.entity.DefectInfo;
+import com.smartsubstation.entity.SysFile;
+import com.smartsubstation.mapper.SysFileMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 缩略图URL：整页一次查询登记的缩略图，不访问文件系统；损坏的图片以原图登记，不再重试
+ */
+class ThumbnailGeneratorTest {
+
+    private static final String MD5_A = "0123456789abcdef0123456789abcdef";
+    private static final String MD5_B = "fedcba9876543210fedcba9876543210";
+
+    private final SysFileMapper sysFileMapper = mock(SysFileMapper.class);
+    private final ContentStore contentStore = mock(ContentStore.class);
+    private final ThumbnailGenerator generator = new ThumbnailGenerator(sysFileMapper, contentStore,
+            mock(ThreadPoolTaskExecutor.class), "/files");
+
+    @Test
+    void fillsPageFromRegisteredThumbnailsWithOneQuery() {
+        SysFile registered = new SysFile();
+        registered.setMd5(MD5_A);
+        registered.setThumbnailUrl("/files/01/23/" + MD5_A + "_thumb.jpg");
+        when(sysFileMapper.selectThumbnails(anyCollection())).thenReturn(List.of(registered));
+
+        DefectInfo first = defect(url(MD5_A) + "," + url(MD5_B));
+        DefectInfo second = defect("https://cdn.example.com/a.jpg");
+        DefectInfo third = defect(null);
+
+        generator.fillThumbnailUrls(List.of(first, second, third), DefectInfo::getPhotoUrls, DefectInfo::setThumbnailUrls);
+
+        assertEquals(registered.getThumbnailUrl() + "," + url(MD5_B), first.getThumbnailUrls());
+        assertEquals("https://cdn.example.com/a.jpg", second.getThumbnailUrls());
+        assertEquals(null, third.getThumbnailUrls());
+        verify(sysFileMapper, times(1)).selectThumbnails(anyCollection());
+        verify(contentStore, never()).exists(any());
+    }
+
+    @Test
+    void pageWithoutStoredPhotosDoesNotQuery() {
+        DefectInfo defect = defect("https://cdn.example.com/a.jpg");
+
+        generator.fillThumbnailUrls(List.of(defect), DefectInfo::getPhotoUrls, DefectInfo::setThumbnailUrls);
+
+        verify(sysFileMapper, never()).selectThumbnails(anyCollection());
+    }
+
+    @Test
+    void corruptImageIsRegisteredWithOriginalUrl(@TempDir Path dir) throws Exception {
+        // JPEG文件头后跟随损坏的数据
+        Path corrupt = dir.resolve("corrupt.jpg");
+        Files.write(corrupt, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0x00, 0x10,
+                'J', 'F', 'I', 'F', 0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06});
+        when(contentStore.variantPath(anyString(), anyString(), anyString())).thenReturn("variant.jpg");
+        when(contentStore.resolve("01/23/corrupt.jpg")).thenReturn(corrupt);
+        ReflectionTestUtils.setField(generator, "previewSize", 1280);
+
+        generator.generate(MD5_A, "01/23/corrupt.jpg", url(MD5_A));
+
+        verify(sysFileMapper).updateDerivatives(MD5_A, url(MD5_A), url(MD5_A));
+    }
+
+    private static String url(String md5) {
+        return "/files/" + md5.substring(0, 2) + "/" + md5.substring(2, 4) + "/" + md5 + ".jpg";
+    }
+
+    private static DefectInfo defect(String photoUrls) {
+        DefectInfo defect = new DefectInfo();
+        defect.setPhotoUrls(photoUrls);
+        return defect;
+    }
+}
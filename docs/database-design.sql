@@ -110,6 +110,7 @@ CREATE TABLE sub_station (
     deleted TINYINT DEFAULT 0 COMMENT '删除标记: 0-未删除, 1-已删除',
     INDEX idx_station_code (station_code),
     INDEX idx_status (status),
+    INDEX idx_create_time (create_time),
     INDEX idx_deleted (deleted)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='变电站表';
 
@@ -167,6 +168,7 @@ CREATE TABLE device_info (
     INDEX idx_station_id (station_id),
     INDEX idx_qr_code (qr_code),
     INDEX idx_status (status),
+    INDEX idx_create_time (create_time),
     INDEX idx_deleted (deleted),
     INDEX idx_version (version)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='设备表';
@@ -292,9 +294,11 @@ CREATE TABLE inspection_task (
     INDEX idx_task_code (task_code),
     INDEX idx_plan_id (plan_id),
     INDEX idx_station_id (station_id),
-    INDEX idx_assignee_id (assignee_id),
+    INDEX idx_assignee_status_time (assignee_id, status, planned_start_time),
+    INDEX idx_assignee_time (assignee_id, planned_start_time),
     INDEX idx_status (status),
     INDEX idx_planned_start_time (planned_start_time),
+    INDEX idx_create_time (create_time),
     INDEX idx_version (version),
     INDEX idx_deleted (deleted)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='巡检任务表';
@@ -320,10 +324,14 @@ CREATE TABLE task_device_relation (
 
 -- ============================================
 -- 13. 巡检记录表 (inspection_record)
+-- 按 check_time 月分区(pYYYYMM)，分区键必须包含在主键和唯一键中，记录编码唯一键为 (record_code, check_time)，
+-- 数据库不再保证 record_code 单独唯一(由雪花编码保证)；写入回查与写前日志去重均按 (record_code, check_time) 匹配。
+-- 建表时分区覆盖到当前月之后3个月，p_future 保持为空；后续月份由分区维护任务提前拆出，
+-- 早于保留期的分区导出为归档文件后删除
 -- ============================================
 CREATE TABLE inspection_record (
-    record_id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
-    record_code VARCHAR(50) NOT NULL UNIQUE COMMENT '记录编码',
+    record_id BIGINT NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+    record_code VARCHAR(50) NOT NULL COMMENT '记录编码',
     task_id BIGINT NOT NULL COMMENT '任务ID',
     device_id BIGINT NOT NULL COMMENT '设备ID',
     device_code VARCHAR(50) COMMENT '设备编码(冗余)',
@@ -338,7 +346,7 @@ CREATE TABLE inspection_record (
     defect_id BIGINT COMMENT '关联缺陷ID',
     inspector_id BIGINT COMMENT '检查人ID',
     inspector_name VARCHAR(50) COMMENT '检查人姓名',
-    check_time DATETIME COMMENT '检查时间',
+    check_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '检查时间',
     is_offline TINYINT DEFAULT 0 COMMENT '是否离线记录: 1-是, 0-否',
     offline_create_time DATETIME COMMENT '离线创建时间',
     version INT DEFAULT 1 COMMENT '版本号',
@@ -346,15 +354,56 @@ CREATE TABLE inspection_record (
     create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     deleted TINYINT DEFAULT 0 COMMENT '删除标记: 0-未删除, 1-已删除',
-    INDEX idx_record_code (record_code),
-    INDEX idx_task_id (task_id),
+    PRIMARY KEY (record_id, check_time),
+    UNIQUE KEY uk_record_code (record_code, check_time),
+    INDEX idx_task_id (task_id, check_time),
     INDEX idx_device_id (device_id),
     INDEX idx_item_id (item_id),
     INDEX idx_check_result (check_result),
     INDEX idx_defect_id (defect_id),
     INDEX idx_version (version),
     INDEX idx_deleted (deleted)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='巡检记录表';
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='巡检记录表'
+PARTITION BY RANGE (TO_DAYS(check_time)) (
+    PARTITION p202401 VALUES LESS THAN (TO_DAYS('2024-02-01')),
+    PARTITION p202402 VALUES LESS THAN (TO_DAYS('2024-03-01')),
+    PARTITION p202403 VALUES LESS THAN (TO_DAYS('2024-04-01')),
+    PARTITION p202404 VALUES LESS THAN (TO_DAYS('2024-05-01')),
+    PARTITION p202405 VALUES LESS THAN (TO_DAYS('2024-06-01')),
+    PARTITION p202406 VALUES LESS THAN (TO_DAYS('2024-07-01')),
+    PARTITION p202407 VALUES LESS THAN (TO_DAYS('2024-08-01')),
+    PARTITION p202408 VALUES LESS THAN (TO_DAYS('2024-09-01')),
+    PARTITION p202409 VALUES LESS THAN (TO_DAYS('2024-10-01')),
+    PARTITION p202410 VALUES LESS THAN (TO_DAYS('2024-11-01')),
+    PARTITION p202411 VALUES LESS THAN (TO_DAYS('2024-12-01')),
+    PARTITION p202412 VALUES LESS THAN (TO_DAYS('2025-01-01')),
+    PARTITION p202501 VALUES LESS THAN (TO_DAYS('2025-02-01')),
+    PARTITION p202502 VALUES LESS THAN (TO_DAYS('2025-03-01')),
+    PARTITION p202503 VALUES LESS THAN (TO_DAYS('2025-04-01')),
+    PARTITION p202504 VALUES LESS THAN (TO_DAYS('2025-05-01')),
+    PARTITION p202505 VALUES LESS THAN (TO_DAYS('2025-06-01')),
+    PARTITION p202506 VALUES LESS THAN (TO_DAYS('2025-07-01')),
+    PARTITION p202507 VALUES LESS THAN (TO_DAYS('2025-08-01')),
+    PARTITION p202508 VALUES LESS THAN (TO_DAYS('2025-09-01')),
+    PARTITION p202509 VALUES LESS THAN (TO_DAYS('2025-10-01')),
+    PARTITION p202510 VALUES LESS THAN (TO_DAYS('2025-11-01')),
+    PARTITION p202511 VALUES LESS THAN (TO_DAYS('2025-12-01')),
+    PARTITION p202512 VALUES LESS THAN (TO_DAYS('2026-01-01')),
+    PARTITION p202601 VALUES LESS THAN (TO_DAYS('2026-02-01')),
+    PARTITION p202602 VALUES LESS THAN (TO_DAYS('2026-03-01')),
+    PARTITION p202603 VALUES LESS THAN (TO_DAYS('2026-04-01')),
+    PARTITION p202604 VALUES LESS THAN (TO_DAYS('2026-05-01')),
+    PARTITION p202605 VALUES LESS THAN (TO_DAYS('2026-06-01')),
+    PARTITION p202606 VALUES LESS THAN (TO_DAYS('2026-07-01')),
+    PARTITION p202607 VALUES LESS THAN (TO_DAYS('2026-08-01')),
+    PARTITION p202608 VALUES LESS THAN (TO_DAYS('2026-09-01')),
+    PARTITION p202609 VALUES LESS THAN (TO_DAYS('2026-10-01')),
+    PARTITION p202610 VALUES LESS THAN (TO_DAYS('2026-11-01')),
+    PARTITION p202611 VALUES LESS THAN (TO_DAYS('2026-12-01')),
+    PARTITION p202612 VALUES LESS THAN (TO_DAYS('2027-01-01')),
+    PARTITION p202701 VALUES LESS THAN (TO_DAYS('2027-02-01')),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
 
 -- ============================================
 -- 14. 缺陷表 (defect_info)
@@ -451,6 +500,8 @@ CREATE TABLE sys_file (
     file_size BIGINT NOT NULL COMMENT '文件大小(字节)',
     file_path VARCHAR(500) NOT NULL COMMENT '文件存储路径',
     file_url VARCHAR(500) COMMENT '文件访问URL',
+    thumbnail_url VARCHAR(500) COMMENT '缩略图URL(后台生成)',
+    preview_url VARCHAR(500) COMMENT '预览图URL(后台生成)',
     mime_type VARCHAR(100) COMMENT 'MIME类型',
     md5 VARCHAR(32) COMMENT '文件MD5',
     business_type VARCHAR(50) COMMENT '业务类型: inspection-巡检, defect-缺陷, avatar-头像等',
@@ -0,0 +1,118 @@
+import request from './request'
+import { uploadFile } from './task'
+
+/**
+ * 分片上传：初始化
+ */
+export function initChunkUpload(data) {
+  return request({
+    url: '/files/chunks',
+    method: 'post',
+    data,
+  })
+}
+
+/**
+ * 分片上传：上传第index片
+ */
+export function uploadChunk(uploadId, index, chunk, checksum) {
+  return request({
+    url: `/files/chunks/${uploadId}/${index}`,
+    method: 'put',
+    data: chunk,
+    headers: {
+      'Content-Type': 'application/octet-stream',
+      'X-Chunk-Sha256': checksum,
+    },
+    timeout: 60000,
+  })
+}
+
+/**
+ * 分片上传：查询已收到的分片
+ */
+export function getChunkUpload(uploadId) {
+  return request({
+    url: `/files/chunks/${uploadId}`,
+    method: 'get',
+  })
+}
+
+/**
+ * 分片上传：完成
+ */
+export function completeChunkUpload(uploadId) {
+  return request({
+    url: `/files/chunks/${uploadId}/complete`,
+    method: 'post',
+  })
+}
+
+const CHUNK_RETRIES = 3
+
+async function sha256Hex(buffer) {
+  const digest = await window.crypto.subtle.digest('SHA-256', buffer)
+  return Array.from(new Uint8Array(digest), (b) => b.toString(16).padStart(2, '0')).join('')
+}
+
+/**
+ * 分片上传文件，支持断点续传
+ *
+ * 传入上次的uploadId时先查询已收到的分片，只补发缺少的分片；会话过期则重新开始。
+ * 非安全上下文(无crypto.subtle)无法计算分片校验，退回整文件上传
+ *
+ * @param {Blob} blob 文件内容
+ * @param {Object} meta { fileName, businessType, businessId, offlineCreateTime }
+ * @param {Object} options { uploadId, onSession(uploadId), onProgress(percent) }
+ */
+export async function uploadFileChunked(blob, meta, options = {}) {
+  if (!window.crypto?.subtle) {
+    const formData = new FormData()
+    formData.append('file', blob, meta.fileName)
+    if (meta.businessType) formData.append('businessType', meta.businessType)
+    if (meta.businessId) formData.append('businessId', meta.businessId)
+    return await uploadFile(formData, options.onProgress)
+  }
+
+  let status = null
+  if (options.uploadId) {
+    try {
+      status = await getChunkUpload(options.uploadId)
+      if (status.file) {
+        return status.file
+      }
+    } catch (error) {
+      // 会话已过期或不存在，重新开始
+      status = null
+    }
+  }
+  if (!status) {
+    status = await initChunkUpload({ ...meta, fileSize: blob.size })
+    if (status.file) {
+      return status.file
+    }
+    options.onSession?.(status.uploadId)
+  }
+
+  const { uploadId, chunkSize, chunkCount } = status
+  const missing = status.missingChunks
+  let done = chunkCount - missing.length
+  for (const index of missing) {
+    const chunk = await blob.slice(index * chunkSize, Math.min((index + 1) * chunkSize, blob.size)).arrayBuffer()
+    const checksum = await sha256Hex(chunk)
+    for (let attempt = 1; ; attempt++) {
+      try {
+        await uploadChunk(uploadId, index, chunk, checksum)
+        break
+      } catch (error) {
+        if (attempt >= CHUNK_RETRIES) {
+          throw error
+        }
+        await new Promise((resolve) => setTimeout(resolve, 1000 * attempt))
+      }
+    }
+    done++
+    options.onProgress?.(Math.floor((done / chunkCount) * 100))
+  }
+  return await completeChunkUpload(uploadId)
+}
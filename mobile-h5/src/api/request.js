@@ -12,6 +12,21 @@ const request = axios.create({
   timeout: 30000,
 })
 
+/**
+ * 需要幂等键的提交接口，离线重放时服务端按幂等键去重
+ */
+const IDEMPOTENT_URLS = ['/records/submit', '/records/batch', '/defects']
+
+/**
+ * 生成幂等键(非安全上下文下没有crypto.randomUUID)
+ */
+function generateIdempotencyKey() {
+  if (window.crypto?.randomUUID) {
+    return window.crypto.randomUUID()
+  }
+  return `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}-${Math.random().toString(36).slice(2)}`
+}
+
 /**
  * 请求拦截器
  */
@@ -21,6 +36,9 @@ request.interceptors.request.use(
     if (userStore.token) {
       config.headers.Authorization = `Bearer ${userStore.token}`
     }
+    if (config.method === 'post' && IDEMPOTENT_URLS.includes(config.url) && !config.headers['Idempotency-Key']) {
+      config.headers['Idempotency-Key'] = generateIdempotencyKey()
+    }
     return config
   },
   (error) => {
@@ -101,7 +119,8 @@ async function handleOfflineRequest(config) {
       url: config.baseURL + config.url,
       method: config.method?.toUpperCase(),
       data: config.data,
-      params: config.params
+      params: config.params,
+      idempotencyKey: config.headers?.['Idempotency-Key']
     })
 
     // 更新待同步数量
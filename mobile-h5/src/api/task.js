@@ -79,7 +79,7 @@ export function getDeviceByQrCode(qrCode) {
  */
 export function uploadFile(formData, onProgress) {
   return request({
-    url: '/files/upload',
+    url: '/files/upload/image',
     method: 'post',
     data: formData,
     headers: {
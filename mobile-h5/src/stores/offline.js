@@ -1,6 +1,7 @@
 import { defineStore } from 'pinia'
 import { ref } from 'vue'
 import { OfflineDB } from '@/db'
+import { uploadFileChunked } from '@/api/file'
 
 export const useOfflineStore = defineStore('offline', () => {
   const isOnline = ref(navigator.onLine)
@@ -99,12 +100,17 @@ export const useOfflineStore = defineStore('offline', () => {
     for (const request of requests) {
       try {
         // 使用fetch重新发送请求
+        const headers = {
+          'Content-Type': 'application/json',
+          'Authorization': `Bearer ${localStorage.getItem('token')}`
+        }
+        // 沿用首次请求的幂等键，响应丢失后重放不会重复写入
+        if (request.idempotencyKey) {
+          headers['Idempotency-Key'] = request.idempotencyKey
+        }
         const response = await fetch(request.url, {
           method: request.method,
-          headers: {
-            'Content-Type': 'application/json',
-            'Authorization': `Bearer ${localStorage.getItem('token')}`
-          },
+          headers,
           body: request.data ? JSON.stringify(request.data) : undefined
         })
 
@@ -136,18 +142,41 @@ export const useOfflineStore = defineStore('offline', () => {
     }
   }
 
+  /**
+   * 时间转为后端LocalDateTime格式(本地时间，无时区)
+   */
+  function toLocalDateTime(time) {
+    if (!time) {
+      return undefined
+    }
+    const d = new Date(time)
+    const pad = (n) => String(n).padStart(2, '0')
+    return `${d.getFullYear()}-${pad(d.getMonth() + 1)}-${pad(d.getDate())}T${pad(d.getHours())}:${pad(d.getMinutes())}:${pad(d.getSeconds())}`
+  }
+
   /**
    * 同步文件
    */
   async function syncPendingFiles() {
-    // TODO: 实现文件上传逻辑
     const files = await OfflineDB.getPendingFiles()
 
     for (const file of files) {
       try {
-        // 上传文件
-        // await uploadFile(file)
-        await OfflineDB.pendingFiles.update(file.fileId, { status: 'uploaded' })
+        // 分片上传，uploadId保存在本地，断线后下次同步只补发缺少的分片
+        const result = await uploadFileChunked(file.blob, {
+          fileName: file.fileName,
+          businessType: file.businessType,
+          businessId: file.businessId,
+          offlineCreateTime: toLocalDateTime(file.createTime),
+        }, {
+          uploadId: file.uploadId,
+          onSession: (uploadId) => OfflineDB.pendingFiles.update(file.fileId, { uploadId }),
+        })
+        await OfflineDB.pendingFiles.update(file.fileId, {
+          status: 'uploaded',
+          serverFileId: result.fileId,
+          fileUrl: result.fileUrl,
+        })
       } catch (error) {
         console.error('上传文件失败:', file, error)
       }